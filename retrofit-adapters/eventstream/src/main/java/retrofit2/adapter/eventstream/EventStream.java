@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.adapter.eventstream;
+
+import okhttp3.Request;
+
+/**
+ * A long-lived response whose records are decoded and delivered to a {@link Listener} as they
+ * arrive.
+ * <p>
+ * The format of the body is chosen by its {@code Content-Type}: {@code text/event-stream} is
+ * parsed as <a href="https://www.w3.org/TR/eventsource/">Server-Sent Events</a>, and anything
+ * else as newline-delimited JSON where each non-empty line is one record. Each SSE {@code data}
+ * payload or NDJSON line is converted to {@code T} by the {@link retrofit2.Converter} which the
+ * {@link retrofit2.Retrofit} instance supplies for {@code T}.
+ */
+public interface EventStream<T> {
+  /**
+   * Asynchronously open the stream and deliver its records to {@code listener}.
+   *
+   * @throws IllegalStateException if this stream has already been started.
+   */
+  void start(Listener<T> listener);
+
+  /** Returns true if {@link #start} has been called. */
+  boolean isStarted();
+
+  /**
+   * Close the connection and stop reconnecting. No further methods of the listener are called
+   * once this returns.
+   */
+  void cancel();
+
+  /** True if {@link #cancel()} was called. */
+  boolean isCanceled();
+
+  /** The original HTTP request. Reconnection requests also carry a {@code Last-Event-ID}. */
+  Request request();
+
+  /** The ID of the last Server-Sent Event which was received, or null if none has been. */
+  String lastEventId();
+
+  /** Receives the records of an {@link EventStream}. */
+  interface Listener<T> {
+    /**
+     * Invoked on the thread reading the stream for each record as it is received. The next
+     * record is not read until this returns, which applies backpressure to the server.
+     * <p>
+     * {@code id} and {@code type} are the Server-Sent Event's ID and event type, and are null
+     * for newline-delimited JSON.
+     */
+    void onEvent(EventStream<T> stream, String id, String type, T data);
+
+    /**
+     * Invoked when the server ends the stream and it will not be reopened: at the end of a
+     * newline-delimited JSON body, or when a Server-Sent Events server responds with HTTP 204.
+     */
+    void onClosed(EventStream<T> stream);
+
+    /**
+     * Invoked when the stream fails and will not be reopened. This is an {@link HttpException}
+     * for a non-2XX response, an {@link java.io.IOException} for a network failure which could
+     * not be recovered, or whatever was thrown by a converter or by {@link #onEvent}.
+     */
+    void onFailure(EventStream<T> stream, Throwable t);
+  }
+}
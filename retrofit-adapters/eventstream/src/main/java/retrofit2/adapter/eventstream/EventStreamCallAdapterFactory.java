@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.adapter.eventstream;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * A {@linkplain CallAdapter.Factory call adapter} for long-lived responses which push a sequence
+ * of records.
+ * <p>
+ * Adding this class to {@link Retrofit} allows you to return {@link EventStream} from service
+ * methods.
+ * <pre><code>
+ * interface MyService {
+ *   &#64;GET("prices")
+ *   EventStream&lt;Price&gt; prices();
+ * }
+ * </code></pre>
+ * Both Server-Sent Events and newline-delimited JSON are supported. Records are decoded by the
+ * {@link Converter} which the {@link Retrofit} instance supplies for the type parameter.
+ * <p>
+ * When a Server-Sent Events stream ends or its connection fails it is reopened, sending the ID of
+ * the last event received as {@code Last-Event-ID}. Unless the server specifies a {@code retry}
+ * interval the reconnection delay is three seconds.
+ */
+public final class EventStreamCallAdapterFactory extends CallAdapter.Factory {
+  private static final long DEFAULT_RETRY_MILLIS = 3000;
+
+  /** Create an instance which reconnects Server-Sent Events streams after three seconds. */
+  public static EventStreamCallAdapterFactory create() {
+    return new EventStreamCallAdapterFactory(true, DEFAULT_RETRY_MILLIS);
+  }
+
+  /**
+   * Create an instance which reconnects Server-Sent Events streams after {@code retryDelay}
+   * unless the server specifies otherwise.
+   */
+  public static EventStreamCallAdapterFactory createWithRetryDelay(long retryDelay,
+      TimeUnit unit) {
+    if (retryDelay < 0) throw new IllegalArgumentException("retryDelay < 0: " + retryDelay);
+    if (unit == null) throw new NullPointerException("unit == null");
+    return new EventStreamCallAdapterFactory(true, unit.toMillis(retryDelay));
+  }
+
+  /** Create an instance which never reconnects. */
+  public static EventStreamCallAdapterFactory createWithoutReconnect() {
+    return new EventStreamCallAdapterFactory(false, DEFAULT_RETRY_MILLIS);
+  }
+
+  private final boolean reconnect;
+  private final long retryMillis;
+
+  private EventStreamCallAdapterFactory(boolean reconnect, long retryMillis) {
+    this.reconnect = reconnect;
+    this.retryMillis = retryMillis;
+  }
+
+  @Override public boolean isCacheable() {
+    return true;
+  }
+
+  @Override
+  public CallAdapter<?> get(Type returnType, Annotation[] annotations, Retrofit retrofit) {
+    if (getRawType(returnType) != EventStream.class) {
+      return null;
+    }
+    if (!(returnType instanceof ParameterizedType)) {
+      throw new IllegalStateException("EventStream return type must be parameterized"
+          + " as EventStream<Foo> or EventStream<? extends Foo>");
+    }
+    Type eventType = getParameterUpperBound(0, (ParameterizedType) returnType);
+    Converter<ResponseBody, Object> converter =
+        retrofit.responseBodyConverter(eventType, annotations);
+    return new EventStreamCallAdapter(retrofit, converter, reconnect, retryMillis);
+  }
+
+  static final class EventStreamCallAdapter implements CallAdapter<EventStream<?>> {
+    private final Retrofit retrofit;
+    private final Converter<ResponseBody, Object> converter;
+    private final boolean reconnect;
+    private final long retryMillis;
+
+    EventStreamCallAdapter(Retrofit retrofit, Converter<ResponseBody, Object> converter,
+        boolean reconnect, long retryMillis) {
+      this.retrofit = retrofit;
+      this.converter = converter;
+      this.reconnect = reconnect;
+      this.retryMillis = retryMillis;
+    }
+
+    @Override public Type responseType() {
+      // The body is read by the stream itself rather than by a converter.
+      return ResponseBody.class;
+    }
+
+    @Override public <R> EventStream<?> adapt(Call<R> call) {
+      return new RealEventStream<>(call, retrofit.callFactory(), converter,
+          retrofit.errorBodyBufferLimit(), reconnect, retryMillis);
+    }
+  }
+}
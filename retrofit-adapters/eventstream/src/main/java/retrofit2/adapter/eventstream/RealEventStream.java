@@ -0,0 +1,332 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.adapter.eventstream;
+
+import java.io.IOException;
+import java.util.Timer;
+import java.util.TimerTask;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import retrofit2.Call;
+import retrofit2.ConversionException;
+import retrofit2.Converter;
+import retrofit2.Response;
+
+final class RealEventStream<T> implements EventStream<T> {
+  private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+  private static final Timer RECONNECT_TIMER = new Timer("Retrofit EventStream Reconnect", true);
+
+  private final Call<?> call;
+  private final okhttp3.Call.Factory callFactory;
+  private final Converter<ResponseBody, T> converter;
+  private final long errorBodyBufferLimit;
+  private final boolean reconnect;
+
+  private volatile boolean canceled;
+  private volatile String lastEventId;
+  private volatile long retryMillis;
+
+  // All guarded by this.
+  private Listener<T> listener;
+  private okhttp3.Call rawCall;
+  private TimerTask pendingReconnect;
+  private boolean finished;
+  private boolean sawEventStream;
+
+  RealEventStream(Call<?> call, okhttp3.Call.Factory callFactory,
+      Converter<ResponseBody, T> converter, long errorBodyBufferLimit, boolean reconnect,
+      long retryMillis) {
+    this.call = call;
+    this.callFactory = callFactory;
+    this.converter = converter;
+    this.errorBodyBufferLimit = errorBodyBufferLimit;
+    this.reconnect = reconnect;
+    this.retryMillis = retryMillis;
+  }
+
+  @Override public void start(Listener<T> listener) {
+    if (listener == null) throw new NullPointerException("listener == null");
+    synchronized (this) {
+      if (this.listener != null) throw new IllegalStateException("Already started.");
+      this.listener = listener;
+    }
+    connect();
+  }
+
+  @Override public synchronized boolean isStarted() {
+    return listener != null;
+  }
+
+  @Override public void cancel() {
+    canceled = true;
+
+    okhttp3.Call call;
+    TimerTask reconnect;
+    synchronized (this) {
+      call = rawCall;
+      reconnect = pendingReconnect;
+    }
+    if (call != null) {
+      call.cancel();
+    }
+    if (reconnect != null) {
+      reconnect.cancel();
+    }
+  }
+
+  @Override public boolean isCanceled() {
+    return canceled;
+  }
+
+  @Override public Request request() {
+    return call.request();
+  }
+
+  @Override public String lastEventId() {
+    return lastEventId;
+  }
+
+  private void connect() {
+    okhttp3.Call call;
+    try {
+      Request request = this.call.request();
+      String lastEventId = this.lastEventId;
+      if (lastEventId != null) {
+        request = request.newBuilder().header("Last-Event-ID", lastEventId).build();
+      }
+      call = callFactory.newCall(request);
+    } catch (Throwable t) {
+      fail(t);
+      return;
+    }
+
+    synchronized (this) {
+      if (canceled) return;
+      rawCall = call;
+    }
+    call.enqueue(new okhttp3.Callback() {
+      @Override public void onResponse(okhttp3.Call call, okhttp3.Response response) {
+        ResponseBody body = response.body();
+        try {
+          read(response);
+        } catch (IOException e) {
+          retryOrFail(e);
+        } catch (ConversionException e) {
+          fail(e.getCause());
+        } catch (Throwable t) {
+          fail(t);
+        } finally {
+          body.close();
+        }
+      }
+
+      @Override public void onFailure(okhttp3.Call call, IOException e) {
+        retryOrFail(e);
+      }
+    });
+  }
+
+  private void read(okhttp3.Response response) throws IOException {
+    ResponseBody body = response.body();
+    if (!response.isSuccessful()) {
+      fail(new HttpException(Response.error(bufferErrorBody(body), response)));
+      return;
+    }
+    if (response.code() == 204) {
+      // No content means the server wants the client to stop reconnecting.
+      closed();
+      return;
+    }
+
+    MediaType contentType = body.contentType();
+    if (contentType != null
+        && "text".equals(contentType.type())
+        && "event-stream".equals(contentType.subtype())) {
+      synchronized (this) {
+        sawEventStream = true;
+      }
+      readEvents(body.source());
+      if (reconnect) {
+        scheduleReconnect();
+      } else {
+        closed();
+      }
+    } else {
+      readRecords(body.source());
+      closed();
+    }
+  }
+
+  /** Reads newline-delimited records until the end of the stream. */
+  private void readRecords(BufferedSource source) throws IOException {
+    while (!canceled) {
+      long newline = source.indexOf((byte) '\n');
+      long length = newline != -1 ? newline : source.buffer().size();
+      if (newline == -1 && length == 0) {
+        return; // End of stream.
+      }
+      long end = length;
+      if (end > 0 && source.buffer().getByte(end - 1) == '\r') {
+        end--;
+      }
+      Buffer record = null;
+      if (end > 0) {
+        record = new Buffer();
+        record.write(source.buffer(), end);
+      }
+      source.skip(length - end + (newline != -1 ? 1 : 0));
+      if (record != null) {
+        deliver(null, null, ResponseBody.create(JSON, end, record));
+      }
+    }
+  }
+
+  /** Reads Server-Sent Events until the end of the stream. */
+  private void readEvents(BufferedSource source) throws IOException {
+    Buffer data = new Buffer();
+    String type = null;
+    String line;
+    while (!canceled && (line = source.readUtf8Line()) != null) {
+      if (line.isEmpty()) {
+        if (data.size() != 0) {
+          // Drop the newline which follows the last line of data.
+          long length = data.size() - 1;
+          Buffer payload = new Buffer();
+          payload.write(data, length);
+          data.clear();
+          deliver(lastEventId, type != null ? type : "message",
+              ResponseBody.create(null, length, payload));
+        }
+        type = null;
+        continue;
+      }
+      if (line.charAt(0) == ':') {
+        continue; // Comment.
+      }
+
+      String field;
+      String value;
+      int colon = line.indexOf(':');
+      if (colon == -1) {
+        field = line;
+        value = "";
+      } else {
+        field = line.substring(0, colon);
+        int start = colon + 1;
+        if (start < line.length() && line.charAt(start) == ' ') {
+          start++;
+        }
+        value = line.substring(start);
+      }
+
+      switch (field) {
+        case "data":
+          data.writeUtf8(value).writeByte('\n');
+          break;
+        case "event":
+          type = value;
+          break;
+        case "id":
+          if (value.indexOf('\u0000') == -1) {
+            lastEventId = value;
+          }
+          break;
+        case "retry":
+          try {
+            long retry = Long.parseLong(value);
+            if (retry >= 0) {
+              retryMillis = retry;
+            }
+          } catch (NumberFormatException ignored) {
+          }
+          break;
+        default:
+          break; // Unknown fields are ignored.
+      }
+    }
+  }
+
+  private void deliver(String id, String type, ResponseBody record) {
+    T value;
+    try {
+      value = converter.convert(record);
+    } catch (IOException e) {
+      throw new ConversionException("Unable to convert event", e);
+    }
+    Listener<T> listener;
+    synchronized (this) {
+      if (canceled || finished) return;
+      listener = this.listener;
+    }
+    listener.onEvent(this, id, type, value);
+  }
+
+  private ResponseBody bufferErrorBody(ResponseBody body) throws IOException {
+    BufferedSource source = body.source();
+    source.request(errorBodyBufferLimit);
+    Buffer buffer = new Buffer();
+    buffer.write(source.buffer(), Math.min(errorBodyBufferLimit, source.buffer().size()));
+    return ResponseBody.create(body.contentType(), buffer.size(), buffer);
+  }
+
+  private void retryOrFail(IOException e) {
+    boolean retry;
+    synchronized (this) {
+      retry = reconnect && sawEventStream;
+    }
+    if (retry) {
+      scheduleReconnect();
+    } else {
+      fail(e);
+    }
+  }
+
+  private void scheduleReconnect() {
+    TimerTask task = new TimerTask() {
+      @Override public void run() {
+        connect();
+      }
+    };
+    synchronized (this) {
+      if (canceled || finished) return;
+      pendingReconnect = task;
+      RECONNECT_TIMER.schedule(task, retryMillis);
+    }
+  }
+
+  private void closed() {
+    Listener<T> listener;
+    synchronized (this) {
+      if (canceled || finished) return;
+      finished = true;
+      listener = this.listener;
+    }
+    listener.onClosed(this);
+  }
+
+  private void fail(Throwable t) {
+    Listener<T> listener;
+    synchronized (this) {
+      if (canceled || finished) return;
+      finished = true;
+      listener = this.listener;
+    }
+    listener.onFailure(this, t);
+  }
+}
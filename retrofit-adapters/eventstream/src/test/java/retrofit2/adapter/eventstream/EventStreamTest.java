@@ -0,0 +1,234 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.adapter.eventstream;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+import retrofit2.http.GET;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public final class EventStreamTest {
+  @Rule public final MockWebServer server = new MockWebServer();
+
+  interface Service {
+    @GET("/") EventStream<String> events();
+  }
+
+  private Service service;
+  private Service serviceWithoutReconnect;
+
+  @Before public void setUp() {
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(new StringConverterFactory())
+        .addCallAdapterFactory(EventStreamCallAdapterFactory.create())
+        .build();
+    service = retrofit.create(Service.class);
+    Retrofit retrofitWithoutReconnect = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(new StringConverterFactory())
+        .addCallAdapterFactory(EventStreamCallAdapterFactory.createWithoutReconnect())
+        .build();
+    serviceWithoutReconnect = retrofitWithoutReconnect.create(Service.class);
+  }
+
+  @Test public void newlineDelimitedRecords() throws InterruptedException {
+    server.enqueue(new MockResponse()
+        .setHeader("Content-Type", "application/x-ndjson")
+        .setBody("{\"a\":1}\n\n{\"b\":2}\r\n{\"c\":3}"));
+
+    RecordingListener listener = new RecordingListener();
+    service.events().start(listener);
+
+    assertThat(listener.take()).isEqualTo("event null null {\"a\":1}");
+    assertThat(listener.take()).isEqualTo("event null null {\"b\":2}");
+    assertThat(listener.take()).isEqualTo("event null null {\"c\":3}");
+    assertThat(listener.take()).isEqualTo("closed");
+  }
+
+  @Test public void serverSentEvents() throws InterruptedException {
+    server.enqueue(new MockResponse()
+        .setHeader("Content-Type", "text/event-stream")
+        .setBody(""
+            + ": a comment\n"
+            + "data: hello\n"
+            + "\n"
+            + "id: 1\n"
+            + "event: greeting\n"
+            + "data: multi\n"
+            + "data:line\n"
+            + "\n"
+            + "data\n"
+            + "\n"
+            + "event: ignored\n"
+            + "\n"
+            + "data: incomplete"));
+
+    RecordingListener listener = new RecordingListener();
+    EventStream<String> stream = serviceWithoutReconnect.events();
+    stream.start(listener);
+
+    assertThat(listener.take()).isEqualTo("event null message hello");
+    assertThat(listener.take()).isEqualTo("event 1 greeting multi\nline");
+    assertThat(listener.take()).isEqualTo("event 1 message ");
+    assertThat(listener.take()).isEqualTo("closed");
+    assertThat(stream.lastEventId()).isEqualTo("1");
+  }
+
+  @Test public void reconnectSendsLastEventId() throws InterruptedException {
+    server.enqueue(new MockResponse()
+        .setHeader("Content-Type", "text/event-stream")
+        .setBody("retry: 10\nid: 7\ndata: first\n\n"));
+    server.enqueue(new MockResponse()
+        .setHeader("Content-Type", "text/event-stream")
+        .setBody("id: 8\ndata: second\n\n"));
+    server.enqueue(new MockResponse().setResponseCode(204));
+
+    RecordingListener listener = new RecordingListener();
+    service.events().start(listener);
+
+    assertThat(listener.take()).isEqualTo("event 7 message first");
+    assertThat(listener.take()).isEqualTo("event 8 message second");
+    assertThat(listener.take()).isEqualTo("closed");
+
+    assertThat(server.takeRequest().getHeader("Last-Event-ID")).isNull();
+    assertThat(server.takeRequest().getHeader("Last-Event-ID")).isEqualTo("7");
+    assertThat(server.takeRequest().getHeader("Last-Event-ID")).isEqualTo("8");
+  }
+
+  @Test public void reconnectAfterConnectionFailure() throws InterruptedException {
+    server.enqueue(new MockResponse()
+        .setHeader("Content-Type", "text/event-stream")
+        .setBody("retry: 10\nid: 1\ndata: first\n\ndata: lost")
+        .setSocketPolicy(SocketPolicy.DISCONNECT_DURING_RESPONSE_BODY));
+    server.enqueue(new MockResponse()
+        .setHeader("Content-Type", "text/event-stream")
+        .setBody("id: 2\ndata: second\n\n"));
+    server.enqueue(new MockResponse().setResponseCode(204));
+
+    RecordingListener listener = new RecordingListener();
+    service.events().start(listener);
+
+    assertThat(listener.take()).isEqualTo("event 2 message second");
+    assertThat(listener.take()).isEqualTo("closed");
+    server.takeRequest();
+    RecordedRequest reconnect = server.takeRequest();
+    assertThat(reconnect.getHeader("Last-Event-ID")).isNotNull();
+  }
+
+  @Test public void httpErrorFails() throws InterruptedException {
+    server.enqueue(new MockResponse().setResponseCode(404).setBody("Not found"));
+
+    RecordingListener listener = new RecordingListener();
+    service.events().start(listener);
+
+    assertThat(listener.take()).isEqualTo("failure HttpException HTTP 404 Client Error");
+  }
+
+  @Test public void converterFailureFails() throws InterruptedException {
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(new Converter.Factory() {
+          @Override
+          public Converter<ResponseBody, ?> responseBodyConverter(Type type,
+              Annotation[] annotations, Retrofit retrofit) {
+            return new Converter<ResponseBody, String>() {
+              @Override public String convert(ResponseBody value) throws IOException {
+                throw new IOException("Malformed!");
+              }
+            };
+          }
+        })
+        .addCallAdapterFactory(EventStreamCallAdapterFactory.create())
+        .build();
+    server.enqueue(new MockResponse()
+        .setHeader("Content-Type", "text/event-stream")
+        .setBody("data: hello\n\n"));
+
+    RecordingListener listener = new RecordingListener();
+    retrofit.create(Service.class).events().start(listener);
+
+    assertThat(listener.take()).isEqualTo("failure IOException Malformed!");
+  }
+
+  @Test public void cancelStopsDelivery() throws InterruptedException {
+    server.enqueue(new MockResponse()
+        .setHeader("Content-Type", "text/event-stream")
+        .setBody("data: hello\n\n")
+        .setSocketPolicy(SocketPolicy.KEEP_OPEN));
+
+    RecordingListener listener = new RecordingListener();
+    EventStream<String> stream = service.events();
+    stream.start(listener);
+    assertThat(listener.take()).isEqualTo("event null message hello");
+
+    stream.cancel();
+    assertThat(stream.isCanceled()).isTrue();
+    assertThat(listener.events.poll(500, MILLISECONDS)).isNull();
+  }
+
+  @Test public void startTwiceThrows() {
+    server.enqueue(new MockResponse().setBody(""));
+    EventStream<String> stream = service.events();
+    stream.start(new RecordingListener());
+    try {
+      stream.start(new RecordingListener());
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(e).hasMessage("Already started.");
+    }
+  }
+
+  static final class RecordingListener implements EventStream.Listener<String> {
+    final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+    @Override public void onEvent(EventStream<String> stream, String id, String type,
+        String data) {
+      events.add("event " + id + " " + type + " " + data);
+    }
+
+    @Override public void onClosed(EventStream<String> stream) {
+      events.add("closed");
+    }
+
+    @Override public void onFailure(EventStream<String> stream, Throwable t) {
+      events.add("failure " + t.getClass().getSimpleName() + " " + t.getMessage());
+    }
+
+    String take() throws InterruptedException {
+      String event = events.poll(5, SECONDS);
+      if (event == null) throw new AssertionError("Timed out waiting for event.");
+      return event;
+    }
+  }
+}
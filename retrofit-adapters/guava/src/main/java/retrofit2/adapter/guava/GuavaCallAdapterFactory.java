@@ -56,6 +56,10 @@ public final class GuavaCallAdapterFactory extends CallAdapter.Factory {
   private GuavaCallAdapterFactory() {
   }
 
+  @Override public boolean isCacheable() {
+    return true;
+  }
+
   @Override
   public CallAdapter<?> get(Type returnType, Annotation[] annotations, Retrofit retrofit) {
     if (getRawType(returnType) != ListenableFuture.class) {
@@ -98,7 +102,14 @@ public final class GuavaCallAdapterFactory extends CallAdapter.Factory {
           call.enqueue(new Callback<R>() {
             @Override public void onResponse(Call<R> call, Response<R> response) {
               if (response.isSuccessful()) {
-                set(response.body());
+                R body;
+                try {
+                  body = response.body(); // Throws if a lazily converted body cannot be converted.
+                } catch (RuntimeException e) {
+                  setException(e);
+                  return;
+                }
+                set(body);
               } else {
                 setException(new HttpException(response));
               }
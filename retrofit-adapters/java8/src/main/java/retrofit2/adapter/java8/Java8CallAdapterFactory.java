@@ -55,6 +55,10 @@ public final class Java8CallAdapterFactory extends CallAdapter.Factory {
   private Java8CallAdapterFactory() {
   }
 
+  @Override public boolean isCacheable() {
+    return true;
+  }
+
   @Override
   public CallAdapter<?> get(Type returnType, Annotation[] annotations, Retrofit retrofit) {
     if (getRawType(returnType) != CompletableFuture.class) {
@@ -104,7 +108,14 @@ public final class Java8CallAdapterFactory extends CallAdapter.Factory {
       call.enqueue(new Callback<R>() {
         @Override public void onResponse(Call<R> call, Response<R> response) {
           if (response.isSuccessful()) {
-            future.complete(response.body());
+            R body;
+            try {
+              body = response.body(); // Throws if a lazily converted body cannot be converted.
+            } catch (RuntimeException e) {
+              future.completeExceptionally(e);
+              return;
+            }
+            future.complete(body);
           } else {
             future.completeExceptionally(new HttpException(response));
           }
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2016 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.adapter.java8;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import okhttp3.ResponseBody;
+import retrofit2.CloseableIterator;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+import retrofit2.http.Streaming;
+
+/**
+ * A {@linkplain Converter.Factory converter} which exposes the elements of a streamed response
+ * body as a Java 8 {@link Stream}.
+ * <pre><code>
+ * interface MyService {
+ *   &#64;Streaming
+ *   &#64;GET("users")
+ *   Call&lt;Stream&lt;User&gt;&gt; users();
+ * }
+ * </code></pre>
+ * Elements are decoded lazily by the next converter which supports {@link CloseableIterator
+ * CloseableIterator&lt;T&gt;} for the same method, so this factory must be {@linkplain
+ * Retrofit.Builder#addConverterFactory(Converter.Factory) added} before it. The stream holds the
+ * HTTP connection until it is {@linkplain Stream#close() closed}; use try-with-resources.
+ */
+public final class StreamConverterFactory extends Converter.Factory {
+  public static StreamConverterFactory create() {
+    return new StreamConverterFactory();
+  }
+
+  private StreamConverterFactory() {
+  }
+
+  @Override public boolean isCacheable() {
+    return true;
+  }
+
+  @Override
+  public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations,
+      Retrofit retrofit) {
+    if (!(type instanceof ParameterizedType)
+        || ((ParameterizedType) type).getRawType() != Stream.class) {
+      return null;
+    }
+    if (Arrays.stream(annotations).noneMatch(a -> a instanceof Streaming)) {
+      throw new IllegalArgumentException("Stream response bodies require @Streaming.");
+    }
+    Type elementType = ((ParameterizedType) type).getActualTypeArguments()[0];
+    if (elementType instanceof WildcardType) {
+      elementType = ((WildcardType) elementType).getUpperBounds()[0];
+    }
+    Type iteratorType = getStreamingIteratorType(elementType);
+    Converter<ResponseBody, CloseableIterator<Object>> delegate =
+        retrofit.nextResponseBodyConverter(this, iteratorType, annotations);
+    return new StreamResponseBodyConverter<>(delegate);
+  }
+
+  static final class StreamResponseBodyConverter<T>
+      implements Converter<ResponseBody, Stream<T>> {
+    private final Converter<ResponseBody, CloseableIterator<T>> delegate;
+
+    StreamResponseBodyConverter(Converter<ResponseBody, CloseableIterator<T>> delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override public Stream<T> convert(ResponseBody value) throws IOException {
+      CloseableIterator<T> iterator = delegate.convert(value);
+      Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(iterator,
+          Spliterator.ORDERED);
+      return StreamSupport.stream(spliterator, false).onClose(() -> {
+        try {
+          iterator.close();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    }
+  }
+}
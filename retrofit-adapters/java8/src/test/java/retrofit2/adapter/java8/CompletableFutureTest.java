@@ -16,17 +16,23 @@
 package retrofit2.adapter.java8;
 
 import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import okhttp3.ResponseBody;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import retrofit2.ConversionException;
+import retrofit2.Converter;
 import retrofit2.Response;
 import retrofit2.Retrofit;
 import retrofit2.http.GET;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static okhttp3.mockwebserver.SocketPolicy.DISCONNECT_AFTER_REQUEST;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.fail;
@@ -82,6 +88,34 @@ public final class CompletableFutureTest {
     }
   }
 
+  @Test public void bodyLazyConversionFailure() throws Exception {
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(new Converter.Factory() {
+          @Override public Converter<ResponseBody, ?> responseBodyConverter(Type type,
+              Annotation[] annotations, Retrofit retrofit) {
+            return new Converter<ResponseBody, String>() {
+              @Override public String convert(ResponseBody value) throws IOException {
+                throw new IOException("Broken!");
+              }
+            };
+          }
+        })
+        .addCallAdapterFactory(Java8CallAdapterFactory.create())
+        .lazyConversion(true)
+        .build();
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    CompletableFuture<String> future = retrofit.create(Service.class).body();
+    try {
+      future.get(10, SECONDS);
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).isInstanceOf(ConversionException.class);
+      assertThat(e.getCause().getCause()).hasMessage("Broken!");
+    }
+  }
+
   @Test public void responseSuccess200() throws Exception {
     server.enqueue(new MockResponse().setBody("Hi"));
 
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2016 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.adapter.java8;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.BufferedSource;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import retrofit2.Call;
+import retrofit2.CloseableIterator;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+import retrofit2.http.GET;
+import retrofit2.http.Streaming;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public final class StreamConverterFactoryTest {
+  interface Service {
+    @GET("/") @Streaming Call<Stream<String>> lines();
+    @GET("/") Call<Stream<String>> notStreaming();
+  }
+
+  @Rule public final MockWebServer server = new MockWebServer();
+
+  private final AtomicBoolean closed = new AtomicBoolean();
+  private Service service;
+
+  @Before public void setUp() {
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(StreamConverterFactory.create())
+        .addConverterFactory(new LinesConverterFactory())
+        .build();
+    service = retrofit.create(Service.class);
+  }
+
+  @Test public void elementsAreStreamed() throws IOException {
+    server.enqueue(new MockResponse().setBody("one\ntwo\nthree\n"));
+
+    try (Stream<String> lines = service.lines().execute().body()) {
+      assertThat(lines.collect(Collectors.toList())).containsExactly("one", "two", "three");
+    }
+    assertThat(closed.get()).isTrue();
+  }
+
+  @Test public void nullElementsAreStreamed() throws IOException {
+    server.enqueue(new MockResponse().setBody("one\nnull\nthree\n"));
+
+    try (Stream<String> lines = service.lines().execute().body()) {
+      assertThat(lines.spliterator().hasCharacteristics(Spliterator.NONNULL)).isFalse();
+    }
+
+    server.enqueue(new MockResponse().setBody("one\nnull\nthree\n"));
+    try (Stream<String> lines = service.lines().execute().body()) {
+      assertThat(lines.collect(Collectors.toList())).containsExactly("one", null, "three");
+    }
+  }
+
+  @Test public void closingStreamClosesIterator() throws IOException {
+    server.enqueue(new MockResponse().setBody("one\ntwo\nthree\n"));
+
+    Stream<String> lines = service.lines().execute().body();
+    assertThat(lines.findFirst().get()).isEqualTo("one");
+    assertThat(closed.get()).isFalse();
+    lines.close();
+    assertThat(closed.get()).isTrue();
+  }
+
+  @Test public void streamingAnnotationRequired() {
+    try {
+      service.notStreaming();
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e.getCause()).hasMessage("Stream response bodies require @Streaming.");
+    }
+  }
+
+  /** Decodes {@code CloseableIterator<String>} bodies one line at a time. */
+  final class LinesConverterFactory extends Converter.Factory {
+    @Override
+    public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations,
+        Retrofit retrofit) {
+      if (getStreamingElementType(type, annotations) != String.class) {
+        return null;
+      }
+      return new Converter<ResponseBody, CloseableIterator<String>>() {
+        @Override public CloseableIterator<String> convert(final ResponseBody value) {
+          final BufferedSource source = value.source();
+          return new CloseableIterator<String>() {
+            @Override public boolean hasNext() {
+              try {
+                return !source.exhausted();
+              } catch (IOException e) {
+                throw new RuntimeException(e);
+              }
+            }
+
+            @Override public String next() {
+              try {
+                String line = source.readUtf8LineStrict();
+                return line.equals("null") ? null : line;
+              } catch (IOException e) {
+                throw new RuntimeException(e);
+              }
+            }
+
+            @Override public void remove() {
+              throw new UnsupportedOperationException();
+            }
+
+            @Override public void close() {
+              closed.set(true);
+              value.close();
+            }
+          };
+        }
+      };
+    }
+  }
+}
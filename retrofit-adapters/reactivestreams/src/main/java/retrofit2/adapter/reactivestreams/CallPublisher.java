@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.adapter.reactivestreams;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Publishes the single result of a call, either as its {@link Response} or as its body. The call
+ * is enqueued on subscription and its result is held until it has been requested.
+ */
+final class CallPublisher<T> implements Publisher<Object> {
+  private final Call<T> originalCall;
+  private final boolean bodyOnly;
+
+  CallPublisher(Call<T> originalCall, boolean bodyOnly) {
+    this.originalCall = originalCall;
+    this.bodyOnly = bodyOnly;
+  }
+
+  @Override public void subscribe(Subscriber<? super Object> subscriber) {
+    if (subscriber == null) throw new NullPointerException("subscriber == null");
+
+    // Since Call is a one-shot type, clone it for each new subscriber.
+    Call<T> call = originalCall.clone();
+    CallSubscription<T> subscription = new CallSubscription<>(call, subscriber, bodyOnly);
+    subscriber.onSubscribe(subscription);
+    if (!subscription.isTerminated()) {
+      call.enqueue(subscription);
+    }
+  }
+
+  static final class CallSubscription<T> extends AtomicInteger
+      implements Subscription, Callback<T> {
+    private static final int STATE_WAITING = 0;
+    private static final int STATE_REQUESTED = 1;
+    private static final int STATE_HAS_RESPONSE = 2;
+    private static final int STATE_TERMINATED = 3;
+
+    private final Call<T> call;
+    private final Subscriber<? super Object> subscriber;
+    private final boolean bodyOnly;
+    private volatile Response<T> response;
+
+    CallSubscription(Call<T> call, Subscriber<? super Object> subscriber, boolean bodyOnly) {
+      super(STATE_WAITING);
+      this.call = call;
+      this.subscriber = subscriber;
+      this.bodyOnly = bodyOnly;
+    }
+
+    boolean isTerminated() {
+      return get() == STATE_TERMINATED;
+    }
+
+    @Override public void request(long n) {
+      if (n <= 0) {
+        if (getAndSet(STATE_TERMINATED) != STATE_TERMINATED) {
+          call.cancel();
+          subscriber.onError(new IllegalArgumentException("n <= 0: " + n));
+        }
+        return;
+      }
+      while (true) {
+        int state = get();
+        switch (state) {
+          case STATE_WAITING:
+            if (compareAndSet(STATE_WAITING, STATE_REQUESTED)) return;
+            break; // State changed. Try again.
+          case STATE_HAS_RESPONSE:
+            if (compareAndSet(STATE_HAS_RESPONSE, STATE_TERMINATED)) {
+              deliver(response);
+              return;
+            }
+            break; // State changed. Try again.
+          case STATE_REQUESTED:
+          case STATE_TERMINATED:
+            return; // Already requested or delivered.
+          default:
+            throw new IllegalStateException("Unknown state: " + state);
+        }
+      }
+    }
+
+    @Override public void cancel() {
+      set(STATE_TERMINATED);
+      call.cancel();
+    }
+
+    @Override public void onResponse(Call<T> call, Response<T> response) {
+      while (true) {
+        int state = get();
+        switch (state) {
+          case STATE_WAITING:
+            this.response = response;
+            if (compareAndSet(STATE_WAITING, STATE_HAS_RESPONSE)) return;
+            break; // State changed. Try again.
+          case STATE_REQUESTED:
+            if (compareAndSet(STATE_REQUESTED, STATE_TERMINATED)) {
+              deliver(response);
+              return;
+            }
+            break; // State changed. Try again.
+          case STATE_TERMINATED:
+            return; // Canceled.
+          default:
+            throw new IllegalStateException("Unknown state: " + state);
+        }
+      }
+    }
+
+    @Override public void onFailure(Call<T> call, Throwable t) {
+      // Errors are not subject to demand.
+      if (getAndSet(STATE_TERMINATED) != STATE_TERMINATED) {
+        subscriber.onError(t);
+      }
+    }
+
+    private void deliver(Response<T> response) {
+      if (!bodyOnly) {
+        subscriber.onNext(response);
+      } else if (!response.isSuccessful()) {
+        subscriber.onError(new HttpException(response));
+        return;
+      } else {
+        T body;
+        try {
+          body = response.body(); // Throws if a lazily converted body cannot be converted.
+        } catch (RuntimeException e) {
+          subscriber.onError(e);
+          return;
+        }
+        if (body != null) { // Reactive Streams forbids null elements.
+          subscriber.onNext(body);
+        }
+      }
+      subscriber.onComplete();
+    }
+  }
+}
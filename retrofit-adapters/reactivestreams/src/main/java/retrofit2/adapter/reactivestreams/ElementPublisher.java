@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.adapter.reactivestreams;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.CloseableIterator;
+import retrofit2.Response;
+
+/**
+ * Publishes each element of a call's streamed body. The call is enqueued on subscription and
+ * elements are read from the body only as they are requested.
+ */
+final class ElementPublisher<T> implements Publisher<T> {
+  private final Call<CloseableIterator<T>> originalCall;
+  private final Executor executor;
+
+  ElementPublisher(Call<CloseableIterator<T>> originalCall, Executor executor) {
+    this.originalCall = originalCall;
+    this.executor = executor;
+  }
+
+  @Override public void subscribe(Subscriber<? super T> subscriber) {
+    if (subscriber == null) throw new NullPointerException("subscriber == null");
+
+    // Since Call is a one-shot type, clone it for each new subscriber.
+    Call<CloseableIterator<T>> call = originalCall.clone();
+    ElementSubscription<T> subscription = new ElementSubscription<>(call, subscriber, executor);
+    subscriber.onSubscribe(subscription);
+    if (!subscription.canceled) {
+      call.enqueue(subscription);
+    }
+  }
+
+  /**
+   * Emits elements from a single draining thread at a time. The HTTP client's thread delivering
+   * the response drains inline if the drain is idle, while {@link #request} and {@link #cancel}
+   * only record their signal and hand the drain to the executor so that they never block on a
+   * read. Concurrent signals leave work for whichever thread is draining.
+   */
+  static final class ElementSubscription<T>
+      implements Subscription, Callback<CloseableIterator<T>>, Runnable {
+    private final Call<CloseableIterator<T>> call;
+    private final Subscriber<? super T> subscriber;
+    private final Executor executor;
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private volatile CloseableIterator<T> iterator;
+    private volatile Throwable error;
+    private volatile boolean noContent;
+    volatile boolean canceled;
+
+    // Only accessed by the draining thread.
+    private boolean done;
+    private long index;
+
+    ElementSubscription(Call<CloseableIterator<T>> call, Subscriber<? super T> subscriber,
+        Executor executor) {
+      this.call = call;
+      this.subscriber = subscriber;
+      this.executor = executor;
+    }
+
+    @Override public void request(long n) {
+      if (n <= 0) {
+        error = new IllegalArgumentException("n <= 0: " + n);
+        call.cancel();
+      } else {
+        while (true) {
+          long current = requested.get();
+          long next = current + n;
+          if (next < 0) next = Long.MAX_VALUE; // Overflow. Demand is unbounded.
+          if (requested.compareAndSet(current, next)) break;
+        }
+      }
+      schedule();
+    }
+
+    @Override public void cancel() {
+      canceled = true;
+      call.cancel();
+      schedule();
+    }
+
+    @Override public void onResponse(Call<CloseableIterator<T>> call,
+        Response<CloseableIterator<T>> response) {
+      if (response.isSuccessful()) {
+        iterator = response.body();
+        noContent = iterator == null; // A 204 or 205 response has no body to convert.
+      } else {
+        error = new HttpException(response);
+      }
+      drain();
+    }
+
+    @Override public void onFailure(Call<CloseableIterator<T>> call, Throwable t) {
+      error = t;
+      drain();
+    }
+
+    private void schedule() {
+      if (wip.getAndIncrement() != 0) return;
+
+      try {
+        executor.execute(this);
+      } catch (RejectedExecutionException e) {
+        // Nothing else will drain. Signal the rejection without reading from the body.
+        error = e;
+        call.cancel();
+        run();
+      }
+    }
+
+    private void drain() {
+      if (wip.getAndIncrement() != 0) return;
+      run();
+    }
+
+    /** Drains until no signals are left. Only called by the thread which claimed the drain. */
+    @Override public void run() {
+      int missed = 1;
+      while (true) {
+        if (!done) {
+          drainOnce();
+        } else {
+          closeIterator(); // A response may arrive after cancellation.
+        }
+
+        missed = wip.addAndGet(-missed);
+        if (missed == 0) return;
+      }
+    }
+
+    private void drainOnce() {
+      if (canceled) {
+        terminate();
+        return;
+      }
+
+      Throwable error = this.error;
+      if (error != null) {
+        terminate();
+        subscriber.onError(error);
+        return;
+      }
+
+      CloseableIterator<T> iterator = this.iterator;
+      if (iterator == null) {
+        if (noContent) {
+          terminate();
+          subscriber.onComplete();
+        }
+        return; // Still waiting for the response.
+      }
+
+      try {
+        long emitted = 0L;
+        long limit = requested.get();
+        while (emitted != limit) {
+          if (canceled) {
+            terminate();
+            return;
+          }
+          if (!iterator.hasNext()) {
+            terminate();
+            subscriber.onComplete();
+            return;
+          }
+          T element = iterator.next();
+          if (element == null) {
+            // Reactive Streams forbids null elements.
+            throw new NullPointerException("Element " + index + " is null");
+          }
+          index++;
+          subscriber.onNext(element);
+          emitted++;
+          if (emitted == limit) {
+            // Demand may have grown while emitting. Continue without a trip through drain().
+            limit = limit == Long.MAX_VALUE ? limit : requested.addAndGet(-emitted);
+            emitted = 0L;
+          }
+        }
+      } catch (Throwable t) {
+        terminate();
+        subscriber.onError(t);
+      }
+    }
+
+    private void terminate() {
+      done = true;
+      closeIterator();
+    }
+
+    private void closeIterator() {
+      CloseableIterator<T> iterator = this.iterator;
+      if (iterator != null) {
+        try {
+          iterator.close();
+        } catch (IOException ignored) {
+        }
+      }
+    }
+  }
+}
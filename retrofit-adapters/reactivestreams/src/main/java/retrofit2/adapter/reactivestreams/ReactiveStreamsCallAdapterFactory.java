@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.adapter.reactivestreams;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.concurrent.Executor;
+import okhttp3.ResponseBody;
+import org.reactivestreams.Publisher;
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.CloseableIterator;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.http.Streaming;
+
+/**
+ * A {@linkplain CallAdapter.Factory call adapter} which creates Reactive Streams {@link
+ * Publisher publishers}.
+ * <p>
+ * Adding this class to {@link Retrofit} allows you to return {@link Publisher} from service
+ * methods.
+ * <pre><code>
+ * interface MyService {
+ *   &#64;GET("user/me")
+ *   Publisher&lt;User&gt; getUser()
+ * }
+ * </code></pre>
+ * There are two configurations supported for the {@code Publisher} type parameter:
+ * <ul>
+ * <li>Direct body (e.g., {@code Publisher<User>}) calls {@code onNext} with the deserialized body
+ * for 2XX responses and calls {@code onError} with {@link HttpException} for non-2XX responses and
+ * {@link java.io.IOException IOException} for network errors.</li>
+ * <li>Response wrapped body (e.g., {@code Publisher<Response<User>>}) calls {@code onNext}
+ * with a {@link Response} object for all HTTP responses and calls {@code onError} with
+ * {@link java.io.IOException IOException} for network errors</li>
+ * </ul>
+ * With a factory from {@link #streamingElements(Executor)}, methods annotated with
+ * {@link Streaming @Streaming} which return a direct body (e.g., {@code Publisher<User>}) instead
+ * call {@code onNext} with each element of a response which is an array as it is read. This
+ * requires a converter which supports {@link CloseableIterator} response types.
+ * <p>
+ * Every subscription {@linkplain Call#enqueue enqueues} its own call when it is subscribed, so no
+ * thread is blocked while waiting for the response. Signals are delivered on the HTTP client's
+ * threads, or for streamed elements requested after the response arrived, on the executor which
+ * reads them. Canceling a subscription cancels its call and closes any streamed body.
+ */
+public final class ReactiveStreamsCallAdapterFactory extends CallAdapter.Factory {
+  public static ReactiveStreamsCallAdapterFactory create() {
+    return new ReactiveStreamsCallAdapterFactory(null);
+  }
+
+  /** Reads streamed elements, or null if {@link Streaming @Streaming} bodies are not split. */
+  private final Executor elementExecutor;
+
+  private ReactiveStreamsCallAdapterFactory(Executor elementExecutor) {
+    this.elementExecutor = elementExecutor;
+  }
+
+  /**
+   * Returns a copy of this factory whose {@link Streaming @Streaming} methods returning a direct
+   * body (e.g., {@code Publisher<User>}) publish each element of the response as it is read rather
+   * than the whole converted body. Reading blocks, so elements requested after the response has
+   * arrived are read and delivered on {@code executor} rather than on the requesting thread.
+   */
+  public ReactiveStreamsCallAdapterFactory streamingElements(Executor executor) {
+    if (executor == null) throw new NullPointerException("executor == null");
+    return new ReactiveStreamsCallAdapterFactory(executor);
+  }
+
+  @Override public boolean isCacheable() {
+    return true;
+  }
+
+  @Override
+  public CallAdapter<?> get(Type returnType, Annotation[] annotations, Retrofit retrofit) {
+    if (getRawType(returnType) != Publisher.class) {
+      return null;
+    }
+    if (!(returnType instanceof ParameterizedType)) {
+      throw new IllegalStateException("Publisher return type must be parameterized"
+          + " as Publisher<Foo> or Publisher<? extends Foo>");
+    }
+    Type innerType = getParameterUpperBound(0, (ParameterizedType) returnType);
+
+    if (getRawType(innerType) == Response.class) {
+      if (!(innerType instanceof ParameterizedType)) {
+        throw new IllegalStateException("Response must be parameterized"
+            + " as Response<Foo> or Response<? extends Foo>");
+      }
+      Type responseType = getParameterUpperBound(0, (ParameterizedType) innerType);
+      return new PublisherCallAdapter(responseType, false);
+    }
+
+    if (elementExecutor != null && isStreaming(annotations) && innerType != ResponseBody.class) {
+      return new ElementCallAdapter(getStreamingIteratorType(innerType), elementExecutor);
+    }
+
+    return new PublisherCallAdapter(innerType, true);
+  }
+
+  private static boolean isStreaming(Annotation[] annotations) {
+    for (Annotation annotation : annotations) {
+      if (annotation instanceof Streaming) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  static final class PublisherCallAdapter implements CallAdapter<Publisher<?>> {
+    private final Type responseType;
+    private final boolean bodyOnly;
+
+    PublisherCallAdapter(Type responseType, boolean bodyOnly) {
+      this.responseType = responseType;
+      this.bodyOnly = bodyOnly;
+    }
+
+    @Override public Type responseType() {
+      return responseType;
+    }
+
+    @Override public <R> Publisher<?> adapt(Call<R> call) {
+      return new CallPublisher<>(call, bodyOnly);
+    }
+  }
+
+  static final class ElementCallAdapter implements CallAdapter<Publisher<?>> {
+    private final Type responseType;
+    private final Executor executor;
+
+    ElementCallAdapter(Type responseType, Executor executor) {
+      this.responseType = responseType;
+      this.executor = executor;
+    }
+
+    @Override public Type responseType() {
+      return responseType;
+    }
+
+    @Override public <R> Publisher<?> adapt(Call<R> call) {
+      // The response type guarantees that bodies are iterators.
+      @SuppressWarnings("unchecked")
+      Call<CloseableIterator<Object>> iteratorCall = (Call<CloseableIterator<Object>>) call;
+      return new ElementPublisher<>(iteratorCall, executor);
+    }
+  }
+}
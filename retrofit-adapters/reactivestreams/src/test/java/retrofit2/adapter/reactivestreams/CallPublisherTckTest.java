@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2016 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.adapter.reactivestreams;
+
+import java.io.IOException;
+import okhttp3.mockwebserver.MockWebServer;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.tck.PublisherVerification;
+import org.reactivestreams.tck.TestEnvironment;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import retrofit2.Retrofit;
+import retrofit2.http.GET;
+import retrofit2.http.Path;
+
+/** Verifies the publisher of a call's body against the Reactive Streams specification. */
+public final class CallPublisherTckTest extends PublisherVerification<String> {
+  interface Service {
+    @GET("/{count}") Publisher<String> body(@Path("count") String count);
+  }
+
+  private final MockWebServer server = new MockWebServer();
+  private Service service;
+
+  public CallPublisherTckTest() {
+    super(new TestEnvironment(1000));
+  }
+
+  @BeforeClass public void setUp() throws IOException {
+    server.setDispatcher(new ElementsDispatcher());
+    server.start();
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(new StringConverterFactory())
+        .addCallAdapterFactory(ReactiveStreamsCallAdapterFactory.create())
+        .build();
+    service = retrofit.create(Service.class);
+  }
+
+  @AfterClass public void tearDown() throws IOException {
+    server.shutdown();
+  }
+
+  /** Zero elements is a response with no content and one element is its body. */
+  @Override public Publisher<String> createPublisher(long elements) {
+    return service.body(Long.toString(elements));
+  }
+
+  @Override public Publisher<String> createFailedPublisher() {
+    return service.body("fail");
+  }
+
+  @Override public long maxElementsFromPublisher() {
+    return 1;
+  }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2016 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.adapter.reactivestreams;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import retrofit2.Retrofit;
+import retrofit2.http.GET;
+import retrofit2.http.Streaming;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public final class ElementPublisherTest {
+  @Rule public final MockWebServer server = new MockWebServer();
+
+  interface Service {
+    @GET("/") @Streaming Publisher<String> elements();
+  }
+
+  private final LinesConverterFactory lines = new LinesConverterFactory();
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+  private Service service;
+
+  @Before public void setUp() {
+    service = service(ReactiveStreamsCallAdapterFactory.create().streamingElements(executor));
+  }
+
+  @After public void tearDown() {
+    executor.shutdown();
+  }
+
+  private Service service(ReactiveStreamsCallAdapterFactory factory) {
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(lines)
+        .addConverterFactory(new StringConverterFactory())
+        .addCallAdapterFactory(factory)
+        .build();
+    return retrofit.create(Service.class);
+  }
+
+  /** Waits for every task already handed to the executor to finish. */
+  private void awaitExecutor() throws InterruptedException, ExecutionException {
+    executor.submit(new Runnable() {
+      @Override public void run() {
+      }
+    }).get();
+  }
+
+  @Test public void elementsAreEmittedIndividually() throws InterruptedException {
+    server.enqueue(new MockResponse().setBody("a\nb\nc\n"));
+
+    RecordingSubscriber<String> subscriber = new RecordingSubscriber<>(Long.MAX_VALUE);
+    service.elements().subscribe(subscriber);
+    subscriber.awaitTerminalEvent();
+    assertThat(subscriber.values()).containsExactly("a", "b", "c");
+    assertThat(subscriber.completed).isTrue();
+    assertThat(lines.closes.get()).isEqualTo(1);
+  }
+
+  @Test public void elementsAreOnlyReadWhenRequested() throws InterruptedException {
+    server.enqueue(new MockResponse().setBody("a\nb\nc\nd\n"));
+
+    RecordingSubscriber<String> subscriber = new RecordingSubscriber<>(2);
+    service.elements().subscribe(subscriber);
+    server.takeRequest();
+    Thread.sleep(200); // Give the response time to arrive.
+    assertThat(subscriber.values()).containsExactly("a", "b");
+    assertThat(lines.reads.get()).isEqualTo(2);
+    assertThat(subscriber.terminalEvents).isZero();
+
+    subscriber.request(5);
+    subscriber.awaitTerminalEvent();
+    assertThat(subscriber.values()).containsExactly("a", "b", "c", "d");
+    assertThat(subscriber.completed).isTrue();
+  }
+
+  @Test public void cancelClosesBody() throws Exception {
+    server.enqueue(new MockResponse().setBody("a\nb\nc\n"));
+
+    RecordingSubscriber<String> subscriber = new RecordingSubscriber<>(1);
+    service.elements().subscribe(subscriber);
+    server.takeRequest();
+    Thread.sleep(200); // Give the response time to arrive.
+    subscriber.subscription.cancel();
+    awaitExecutor();
+
+    assertThat(subscriber.values()).containsExactly("a");
+    assertThat(subscriber.terminalEvents).isZero();
+    assertThat(lines.closes.get()).isEqualTo(1);
+  }
+
+  @Test public void nullElementSignalsError() throws InterruptedException {
+    server.enqueue(new MockResponse().setBody("a\nnull\nc\n"));
+
+    RecordingSubscriber<String> subscriber = new RecordingSubscriber<>(Long.MAX_VALUE);
+    service.elements().subscribe(subscriber);
+    subscriber.awaitTerminalEvent();
+    assertThat(subscriber.values()).containsExactly("a");
+    assertThat(subscriber.error).isInstanceOf(NullPointerException.class)
+        .hasMessage("Element 1 is null");
+    assertThat(lines.closes.get()).isEqualTo(1);
+  }
+
+  @Test public void noContentCompletes() throws InterruptedException {
+    server.enqueue(new MockResponse().setResponseCode(204));
+
+    RecordingSubscriber<String> subscriber = new RecordingSubscriber<>(1);
+    service.elements().subscribe(subscriber);
+    subscriber.awaitTerminalEvent();
+    assertThat(subscriber.values()).isEmpty();
+    assertThat(subscriber.completed).isTrue();
+  }
+
+  @Test public void httpErrorIsSignaled() throws InterruptedException {
+    server.enqueue(new MockResponse().setResponseCode(404));
+
+    RecordingSubscriber<String> subscriber = new RecordingSubscriber<>(1);
+    service.elements().subscribe(subscriber);
+    subscriber.awaitTerminalEvent();
+    assertThat(subscriber.error).isInstanceOf(HttpException.class);
+  }
+
+  @Test public void requestDoesNotReadOnRequestingThread() throws InterruptedException {
+    server.enqueue(new MockResponse().setBody("a\nb\n"));
+
+    RecordingSubscriber<String> subscriber = new RecordingSubscriber<>(0);
+    service.elements().subscribe(subscriber);
+    server.takeRequest();
+    Thread.sleep(200); // Give the response time to arrive.
+    assertThat(lines.reads.get()).isZero();
+
+    subscriber.request(Long.MAX_VALUE);
+    subscriber.awaitTerminalEvent();
+    assertThat(subscriber.values()).containsExactly("a", "b");
+    assertThat(lines.readThreads).doesNotContain(Thread.currentThread());
+  }
+
+  @Test public void rejectedReadSignalsError() throws InterruptedException {
+    server.enqueue(new MockResponse().setBody("a\nb\n"));
+    executor.shutdown();
+
+    RecordingSubscriber<String> subscriber = new RecordingSubscriber<>(1);
+    service.elements().subscribe(subscriber);
+    subscriber.awaitTerminalEvent();
+    assertThat(subscriber.error).isInstanceOf(RejectedExecutionException.class);
+    assertThat(lines.reads.get()).isZero();
+  }
+
+  @Test public void elementsAreNotStreamedByDefault() throws InterruptedException {
+    server.enqueue(new MockResponse().setBody("a\nb\n"));
+
+    RecordingSubscriber<String> subscriber = new RecordingSubscriber<>(1);
+    service(ReactiveStreamsCallAdapterFactory.create()).elements().subscribe(subscriber);
+    subscriber.awaitTerminalEvent();
+    assertThat(subscriber.values()).containsExactly("a\nb\n");
+    assertThat(lines.reads.get()).isZero();
+  }
+}
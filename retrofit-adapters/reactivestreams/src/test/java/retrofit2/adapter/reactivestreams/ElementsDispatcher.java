@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2016 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.adapter.reactivestreams;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import okio.Buffer;
+
+/**
+ * Answers {@code /<count>} with a body of {@code count} lines, or with no content when the count
+ * is zero, and disconnects from {@code /fail}.
+ */
+final class ElementsDispatcher extends Dispatcher {
+  @Override public MockResponse dispatch(RecordedRequest request) {
+    String count = request.getPath().substring(1);
+    if (count.equals("fail")) {
+      return new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST);
+    }
+    long lines = Long.parseLong(count);
+    if (lines == 0L) {
+      return new MockResponse().setResponseCode(204);
+    }
+    Buffer body = new Buffer();
+    for (long i = 0L; i < lines; i++) {
+      body.writeDecimalLong(i).writeByte('\n');
+    }
+    return new MockResponse().setBody(body);
+  }
+}
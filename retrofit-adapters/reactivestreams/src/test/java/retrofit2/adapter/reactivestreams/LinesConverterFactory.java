@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2016 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.adapter.reactivestreams;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+import retrofit2.CloseableIterator;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * Converts bodies to an iterator over their lines, counting reads and closes. A line of
+ * {@code null} is a null element.
+ */
+final class LinesConverterFactory extends Converter.Factory {
+  final AtomicInteger reads = new AtomicInteger();
+  final AtomicInteger closes = new AtomicInteger();
+  final List<Thread> readThreads = new CopyOnWriteArrayList<>();
+
+  @Override public Converter<ResponseBody, ?> responseBodyConverter(Type type,
+      Annotation[] annotations, Retrofit retrofit) {
+    if (!(type instanceof ParameterizedType)
+        || ((ParameterizedType) type).getRawType() != CloseableIterator.class) {
+      return null;
+    }
+    return new Converter<ResponseBody, CloseableIterator<String>>() {
+      @Override public CloseableIterator<String> convert(final ResponseBody value) {
+        final BufferedSource source = value.source();
+        return new CloseableIterator<String>() {
+          @Override public boolean hasNext() {
+            try {
+              return !source.exhausted();
+            } catch (IOException e) {
+              throw new RuntimeException(e);
+            }
+          }
+
+          @Override public String next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            try {
+              reads.incrementAndGet();
+              readThreads.add(Thread.currentThread());
+              String line = source.readUtf8LineStrict();
+              return line.equals("null") ? null : line;
+            } catch (IOException e) {
+              throw new RuntimeException(e);
+            }
+          }
+
+          @Override public void remove() {
+            throw new UnsupportedOperationException();
+          }
+
+          @Override public void close() {
+            closes.incrementAndGet();
+            value.close();
+          }
+        };
+      }
+    };
+  }
+}
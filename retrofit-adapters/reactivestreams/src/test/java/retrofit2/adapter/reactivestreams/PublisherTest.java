@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2016 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.adapter.reactivestreams;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import retrofit2.ConversionException;
+import retrofit2.Converter;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.http.GET;
+
+import static okhttp3.mockwebserver.SocketPolicy.DISCONNECT_AFTER_REQUEST;
+import static okhttp3.mockwebserver.SocketPolicy.NO_RESPONSE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public final class PublisherTest {
+  @Rule public final MockWebServer server = new MockWebServer();
+
+  interface Service {
+    @GET("/") Publisher<String> body();
+    @GET("/") Publisher<Response<String>> response();
+  }
+
+  private Service service;
+
+  @Before public void setUp() {
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(new StringConverterFactory())
+        .addCallAdapterFactory(ReactiveStreamsCallAdapterFactory.create())
+        .build();
+    service = retrofit.create(Service.class);
+  }
+
+  @Test public void bodySuccess200() throws InterruptedException {
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    RecordingSubscriber<String> subscriber = new RecordingSubscriber<>(1);
+    service.body().subscribe(subscriber);
+    subscriber.awaitTerminalEvent();
+    assertThat(subscriber.values()).containsExactly("Hi");
+    assertThat(subscriber.completed).isTrue();
+    assertThat(subscriber.terminalEvents).isEqualTo(1);
+  }
+
+  @Test public void bodySuccess404() throws InterruptedException {
+    server.enqueue(new MockResponse().setResponseCode(404));
+
+    RecordingSubscriber<String> subscriber = new RecordingSubscriber<>(1);
+    service.body().subscribe(subscriber);
+    subscriber.awaitTerminalEvent();
+    assertThat(subscriber.values()).isEmpty();
+    assertThat(subscriber.error).isInstanceOf(HttpException.class)
+        .hasMessage("HTTP 404 Client Error");
+  }
+
+  @Test public void bodyFailure() throws InterruptedException {
+    server.enqueue(new MockResponse().setSocketPolicy(DISCONNECT_AFTER_REQUEST));
+
+    RecordingSubscriber<String> subscriber = new RecordingSubscriber<>(1);
+    service.body().subscribe(subscriber);
+    subscriber.awaitTerminalEvent();
+    assertThat(subscriber.error).isInstanceOf(IOException.class);
+  }
+
+  @Test public void bodyLazyConversionFailure() throws InterruptedException {
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(new Converter.Factory() {
+          @Override public Converter<ResponseBody, ?> responseBodyConverter(Type type,
+              Annotation[] annotations, Retrofit retrofit) {
+            return new Converter<ResponseBody, String>() {
+              @Override public String convert(ResponseBody value) throws IOException {
+                throw new IOException("Broken!");
+              }
+            };
+          }
+        })
+        .addCallAdapterFactory(ReactiveStreamsCallAdapterFactory.create())
+        .lazyConversion(true)
+        .build();
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    RecordingSubscriber<String> subscriber = new RecordingSubscriber<>(1);
+    retrofit.create(Service.class).body().subscribe(subscriber);
+    subscriber.awaitTerminalEvent();
+    assertThat(subscriber.values()).isEmpty();
+    assertThat(subscriber.error).isInstanceOf(ConversionException.class);
+    assertThat(subscriber.error.getCause()).hasMessage("Broken!");
+  }
+
+  @Test public void responseSuccess404() throws InterruptedException, IOException {
+    server.enqueue(new MockResponse().setResponseCode(404).setBody("Hi"));
+
+    RecordingSubscriber<Response<String>> subscriber = new RecordingSubscriber<>(1);
+    service.response().subscribe(subscriber);
+    subscriber.awaitTerminalEvent();
+    Response<String> response = subscriber.values().get(0);
+    assertThat(response.isSuccessful()).isFalse();
+    assertThat(response.errorBody().string()).isEqualTo("Hi");
+    assertThat(subscriber.completed).isTrue();
+  }
+
+  @Test public void responseIsHeldUntilRequested() throws InterruptedException {
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    RecordingSubscriber<String> subscriber = new RecordingSubscriber<>(0);
+    service.body().subscribe(subscriber);
+    server.takeRequest(); // The call is enqueued on subscription.
+    Thread.sleep(200); // Give the response time to arrive.
+    assertThat(subscriber.values()).isEmpty();
+    assertThat(subscriber.terminalEvents).isZero();
+
+    subscriber.request(1);
+    subscriber.awaitTerminalEvent();
+    assertThat(subscriber.values()).containsExactly("Hi");
+  }
+
+  @Test public void eachSubscriberMakesItsOwnRequest() throws InterruptedException {
+    server.enqueue(new MockResponse().setBody("Hi"));
+    server.enqueue(new MockResponse().setBody("Hey"));
+
+    Publisher<String> publisher = service.body();
+    RecordingSubscriber<String> first = new RecordingSubscriber<>(1);
+    publisher.subscribe(first);
+    first.awaitTerminalEvent();
+    RecordingSubscriber<String> second = new RecordingSubscriber<>(1);
+    publisher.subscribe(second);
+    second.awaitTerminalEvent();
+
+    assertThat(first.values()).containsExactly("Hi");
+    assertThat(second.values()).containsExactly("Hey");
+  }
+
+  @Test public void nonPositiveRequestSignalsError() throws InterruptedException {
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    RecordingSubscriber<String> subscriber = new RecordingSubscriber<>(0);
+    service.body().subscribe(subscriber);
+    subscriber.request(0);
+    subscriber.awaitTerminalEvent();
+    assertThat(subscriber.error).isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("n <= 0: 0");
+
+    subscriber.request(1); // No further signals after a terminal event.
+    Thread.sleep(200);
+    assertThat(subscriber.values()).isEmpty();
+    assertThat(subscriber.terminalEvents).isEqualTo(1);
+  }
+
+  @Test public void cancelStopsSignals() throws InterruptedException {
+    server.enqueue(new MockResponse().setSocketPolicy(NO_RESPONSE));
+
+    RecordingSubscriber<String> subscriber = new RecordingSubscriber<>(1);
+    service.body().subscribe(subscriber);
+    server.takeRequest();
+    subscriber.subscription.cancel();
+    subscriber.subscription.cancel(); // Idempotent.
+
+    Thread.sleep(200); // Give a late failure time to (not) be delivered.
+    assertThat(subscriber.terminalEvents).isZero();
+  }
+
+  @Test public void nullSubscriberThrows() {
+    try {
+      service.body().subscribe(null);
+      fail();
+    } catch (NullPointerException e) {
+      assertThat(e).hasMessage("subscriber == null");
+    }
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2016 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.adapter.reactivestreams;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertTrue;
+
+/** Records signals and asserts the ordering rules of the Reactive Streams specification. */
+final class RecordingSubscriber<T> implements Subscriber<T> {
+  private final long initialRequest;
+  private final CountDownLatch terminated = new CountDownLatch(1);
+  final List<T> values = new ArrayList<>();
+  Subscription subscription;
+  Throwable error;
+  boolean completed;
+  int terminalEvents;
+
+  RecordingSubscriber(long initialRequest) {
+    this.initialRequest = initialRequest;
+  }
+
+  @Override public synchronized void onSubscribe(Subscription subscription) {
+    if (this.subscription != null) throw new AssertionError("onSubscribe called twice");
+    this.subscription = subscription;
+    if (initialRequest > 0) {
+      subscription.request(initialRequest);
+    }
+  }
+
+  @Override public synchronized void onNext(T value) {
+    if (subscription == null) throw new AssertionError("onNext before onSubscribe");
+    if (terminalEvents > 0) throw new AssertionError("onNext after terminal event");
+    if (value == null) throw new AssertionError("null element");
+    values.add(value);
+  }
+
+  @Override public synchronized void onError(Throwable t) {
+    if (subscription == null) throw new AssertionError("onError before onSubscribe");
+    if (t == null) throw new AssertionError("null error");
+    error = t;
+    terminalEvents++;
+    terminated.countDown();
+  }
+
+  @Override public synchronized void onComplete() {
+    if (subscription == null) throw new AssertionError("onComplete before onSubscribe");
+    completed = true;
+    terminalEvents++;
+    terminated.countDown();
+  }
+
+  void request(long n) {
+    subscription.request(n);
+  }
+
+  void awaitTerminalEvent() throws InterruptedException {
+    assertTrue(terminated.await(10, SECONDS));
+  }
+
+  synchronized List<T> values() {
+    return new ArrayList<>(values);
+  }
+}
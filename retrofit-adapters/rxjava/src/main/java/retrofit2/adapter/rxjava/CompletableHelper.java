@@ -18,6 +18,7 @@ package retrofit2.adapter.rxjava;
 import java.lang.reflect.Type;
 import retrofit2.Call;
 import retrofit2.CallAdapter;
+import retrofit2.Callback;
 import retrofit2.Response;
 import rx.Completable;
 import rx.Completable.CompletableOnSubscribe;
@@ -29,29 +30,37 @@ import rx.functions.Action0;
 import rx.subscriptions.Subscriptions;
 
 final class CompletableHelper {
-  static CallAdapter<Completable> createCallAdapter(Scheduler scheduler) {
-    return new CompletableCallAdapter(scheduler);
+  static CallAdapter<Completable> createCallAdapter(Scheduler scheduler, boolean isAsync) {
+    return new CompletableCallAdapter(scheduler, isAsync);
   }
 
   private static final class CompletableCallOnSubscribe implements CompletableOnSubscribe {
     private final Call originalCall;
+    private final boolean isAsync;
 
-    CompletableCallOnSubscribe(Call originalCall) {
+    CompletableCallOnSubscribe(Call originalCall, boolean isAsync) {
       this.originalCall = originalCall;
+      this.isAsync = isAsync;
     }
 
-    @Override public void call(CompletableSubscriber subscriber) {
+    @Override public void call(final CompletableSubscriber subscriber) {
       // Since Call is a one-shot type, clone it for each new subscriber.
-      final Call call = originalCall.clone();
+      final Call<?> call = originalCall.clone();
 
       // Attempt to cancel the call if it is still in-flight on unsubscription.
-      Subscription subscription = Subscriptions.create(new Action0() {
+      final Subscription subscription = Subscriptions.create(new Action0() {
         @Override public void call() {
           call.cancel();
         }
       });
       subscriber.onSubscribe(subscription);
 
+      if (isAsync) {
+        // Completable has no backpressure so the result is delivered as soon as it arrives.
+        enqueue(call, subscriber, subscription);
+        return;
+      }
+
       try {
         Response response = call.execute();
         if (!subscription.isUnsubscribed()) {
@@ -70,11 +79,34 @@ final class CompletableHelper {
     }
   }
 
+  private static <T> void enqueue(Call<T> call, final CompletableSubscriber subscriber,
+      final Subscription subscription) {
+    call.enqueue(new Callback<T>() {
+      @Override public void onResponse(Call<T> call, Response<T> response) {
+        if (!subscription.isUnsubscribed()) {
+          if (response.isSuccessful()) {
+            subscriber.onCompleted();
+          } else {
+            subscriber.onError(new HttpException(response));
+          }
+        }
+      }
+
+      @Override public void onFailure(Call<T> call, Throwable t) {
+        if (!subscription.isUnsubscribed()) {
+          subscriber.onError(t);
+        }
+      }
+    });
+  }
+
   static class CompletableCallAdapter implements CallAdapter<Completable> {
     private final Scheduler scheduler;
+    private final boolean isAsync;
 
-    CompletableCallAdapter(Scheduler scheduler) {
+    CompletableCallAdapter(Scheduler scheduler, boolean isAsync) {
       this.scheduler = scheduler;
+      this.isAsync = isAsync;
     }
 
     @Override public Type responseType() {
@@ -82,7 +114,7 @@ final class CompletableHelper {
     }
 
     @Override public Completable adapt(Call call) {
-      Completable completable = Completable.create(new CompletableCallOnSubscribe(call));
+      Completable completable = Completable.create(new CompletableCallOnSubscribe(call, isAsync));
       if (scheduler != null) {
         return completable.subscribeOn(scheduler);
       }
@@ -15,21 +15,30 @@
  */
 package retrofit2.adapter.rxjava;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.Iterator;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.CallAdapter;
+import retrofit2.Callback;
+import retrofit2.CloseableIterator;
 import retrofit2.Response;
 import retrofit2.Retrofit;
+import retrofit2.http.Streaming;
 import rx.Observable;
 import rx.Producer;
 import rx.Scheduler;
 import rx.Subscriber;
 import rx.Subscription;
 import rx.exceptions.Exceptions;
+import rx.functions.Action1;
+import rx.functions.Func0;
 import rx.functions.Func1;
 
 /**
@@ -54,6 +63,16 @@ import rx.functions.Func1;
  * <li>Result wrapped body (e.g., {@code Observable<Result<User>>}) calls {@code onNext} with a
  * {@link Result} object for all HTTP responses and errors.</li>
  * </ul>
+ * With a factory from {@link #streamingElements()}, methods annotated with
+ * {@link Streaming @Streaming} which return a direct body (e.g., {@code Observable<User>}) instead
+ * emit each element of a response which is an array as it is read. Elements are only read as they
+ * are requested and the response body is closed on completion or unsubscription. This requires a
+ * converter which supports {@link CloseableIterator} response types.
+ * <p>
+ * Observables from {@link #create()} and {@link #createWithScheduler} execute their call
+ * synchronously, blocking the subscribing thread for the duration of the request. Those from
+ * {@link #createAsync()} instead {@linkplain Call#enqueue enqueue} it and emit on the HTTP
+ * client's threads, so that many concurrent requests do not each require a thread.
  */
 public final class RxJavaCallAdapterFactory extends CallAdapter.Factory {
   /**
@@ -61,7 +80,7 @@ public final class RxJavaCallAdapterFactory extends CallAdapter.Factory {
    * by default.
    */
   public static RxJavaCallAdapterFactory create() {
-    return new RxJavaCallAdapterFactory(null);
+    return new RxJavaCallAdapterFactory(null, false, false);
   }
 
   /**
@@ -70,13 +89,39 @@ public final class RxJavaCallAdapterFactory extends CallAdapter.Factory {
    */
   public static RxJavaCallAdapterFactory createWithScheduler(Scheduler scheduler) {
     if (scheduler == null) throw new NullPointerException("scheduler == null");
-    return new RxJavaCallAdapterFactory(scheduler);
+    return new RxJavaCallAdapterFactory(scheduler, false, false);
+  }
+
+  /**
+   * Returns an instance which creates asynchronous observables. The call is {@linkplain
+   * Call#enqueue enqueued} on subscription and its result is emitted on the HTTP client's thread
+   * once requested. Unsubscribing cancels the call.
+   */
+  public static RxJavaCallAdapterFactory createAsync() {
+    return new RxJavaCallAdapterFactory(null, true, false);
   }
 
   private final Scheduler scheduler;
+  private final boolean isAsync;
+  private final boolean streamElements;
 
-  private RxJavaCallAdapterFactory(Scheduler scheduler) {
+  private RxJavaCallAdapterFactory(Scheduler scheduler, boolean isAsync, boolean streamElements) {
     this.scheduler = scheduler;
+    this.isAsync = isAsync;
+    this.streamElements = streamElements;
+  }
+
+  /**
+   * Returns a copy of this factory whose {@link Streaming @Streaming} methods returning a direct
+   * body (e.g., {@code Observable<User>}) emit each element of the response as it is read rather
+   * than the whole converted body.
+   */
+  public RxJavaCallAdapterFactory streamingElements() {
+    return new RxJavaCallAdapterFactory(scheduler, isAsync, true);
+  }
+
+  @Override public boolean isCacheable() {
+    return true;
   }
 
   @Override
@@ -99,10 +144,12 @@ public final class RxJavaCallAdapterFactory extends CallAdapter.Factory {
       // regular Observable operation can be leveraged without relying on this unstable RxJava API.
       // Note that this has to be done separately since Completable doesn't have a parametrized
       // type.
-      return CompletableHelper.createCallAdapter(scheduler);
+      return CompletableHelper.createCallAdapter(scheduler, isAsync);
     }
 
-    CallAdapter<Observable<?>> callAdapter = getCallAdapter(returnType, scheduler);
+    boolean streamElements = this.streamElements && !isSingle && isStreaming(annotations);
+    CallAdapter<Observable<?>> callAdapter =
+        getCallAdapter(returnType, scheduler, isAsync, streamElements);
     if (isSingle) {
       // Add Single-converter wrapper from a separate class. This defers classloading such that
       // regular Observable operation can be leveraged without relying on this unstable RxJava API.
@@ -111,7 +158,17 @@ public final class RxJavaCallAdapterFactory extends CallAdapter.Factory {
     return callAdapter;
   }
 
-  private CallAdapter<Observable<?>> getCallAdapter(Type returnType, Scheduler scheduler) {
+  private static boolean isStreaming(Annotation[] annotations) {
+    for (Annotation annotation : annotations) {
+      if (annotation instanceof Streaming) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private CallAdapter<Observable<?>> getCallAdapter(Type returnType, Scheduler scheduler,
+      boolean isAsync, boolean streamElements) {
     Type observableType = getParameterUpperBound(0, (ParameterizedType) returnType);
     Class<?> rawObservableType = getRawType(observableType);
     if (rawObservableType == Response.class) {
@@ -120,7 +177,7 @@ public final class RxJavaCallAdapterFactory extends CallAdapter.Factory {
             + " as Response<Foo> or Response<? extends Foo>");
       }
       Type responseType = getParameterUpperBound(0, (ParameterizedType) observableType);
-      return new ResponseCallAdapter(responseType, scheduler);
+      return new ResponseCallAdapter(responseType, scheduler, isAsync);
     }
 
     if (rawObservableType == Result.class) {
@@ -129,23 +186,37 @@ public final class RxJavaCallAdapterFactory extends CallAdapter.Factory {
             + " as Result<Foo> or Result<? extends Foo>");
       }
       Type responseType = getParameterUpperBound(0, (ParameterizedType) observableType);
-      return new ResultCallAdapter(responseType, scheduler);
+      return new ResultCallAdapter(responseType, scheduler, isAsync);
     }
 
-    return new SimpleCallAdapter(observableType, scheduler);
+    if (streamElements && rawObservableType != ResponseBody.class) {
+      return new ElementCallAdapter(observableType, scheduler, isAsync);
+    }
+
+    return new SimpleCallAdapter(observableType, scheduler, isAsync);
   }
 
   static final class CallOnSubscribe<T> implements Observable.OnSubscribe<Response<T>> {
     private final Call<T> originalCall;
+    private final boolean isAsync;
 
-    CallOnSubscribe(Call<T> originalCall) {
+    CallOnSubscribe(Call<T> originalCall, boolean isAsync) {
       this.originalCall = originalCall;
+      this.isAsync = isAsync;
     }
 
     @Override public void call(final Subscriber<? super Response<T>> subscriber) {
       // Since Call is a one-shot type, clone it for each new subscriber.
       Call<T> call = originalCall.clone();
 
+      if (isAsync) {
+        CallbackArbiter<T> callbackArbiter = new CallbackArbiter<>(call, subscriber);
+        subscriber.add(callbackArbiter);
+        subscriber.setProducer(callbackArbiter);
+        call.enqueue(callbackArbiter);
+        return;
+      }
+
       // Wrap the call in a helper which handles both unsubscription and backpressure.
       RequestArbiter<T> requestArbiter = new RequestArbiter<>(call, subscriber);
       subscriber.add(requestArbiter);
@@ -194,13 +265,117 @@ public final class RxJavaCallAdapterFactory extends CallAdapter.Factory {
     }
   }
 
+  /**
+   * Delivers the result of an enqueued call once it has both arrived and been requested,
+   * whichever happens last.
+   */
+  static final class CallbackArbiter<T> extends AtomicInteger
+      implements Subscription, Producer, Callback<T> {
+    private static final int STATE_WAITING = 0;
+    private static final int STATE_REQUESTED = 1;
+    private static final int STATE_HAS_RESPONSE = 2;
+    private static final int STATE_TERMINATED = 3;
+
+    private final Call<T> call;
+    private final Subscriber<? super Response<T>> subscriber;
+    private volatile Response<T> response;
+
+    CallbackArbiter(Call<T> call, Subscriber<? super Response<T>> subscriber) {
+      super(STATE_WAITING);
+      this.call = call;
+      this.subscriber = subscriber;
+    }
+
+    @Override public void request(long n) {
+      if (n < 0) throw new IllegalArgumentException("n < 0: " + n);
+      if (n == 0) return; // Nothing to do when requesting 0.
+      while (true) {
+        int state = get();
+        switch (state) {
+          case STATE_WAITING:
+            if (compareAndSet(STATE_WAITING, STATE_REQUESTED)) return;
+            break; // State changed. Try again.
+          case STATE_HAS_RESPONSE:
+            if (compareAndSet(STATE_HAS_RESPONSE, STATE_TERMINATED)) {
+              deliverResponse(response);
+              return;
+            }
+            break; // State changed. Try again.
+          case STATE_REQUESTED:
+          case STATE_TERMINATED:
+            return; // Already requested or delivered.
+          default:
+            throw new IllegalStateException("Unknown state: " + state);
+        }
+      }
+    }
+
+    @Override public void onResponse(Call<T> call, Response<T> response) {
+      while (true) {
+        int state = get();
+        switch (state) {
+          case STATE_WAITING:
+            this.response = response;
+            if (compareAndSet(STATE_WAITING, STATE_HAS_RESPONSE)) return;
+            break; // State changed. Try again.
+          case STATE_REQUESTED:
+            if (compareAndSet(STATE_REQUESTED, STATE_TERMINATED)) {
+              deliverResponse(response);
+              return;
+            }
+            break; // State changed. Try again.
+          case STATE_HAS_RESPONSE:
+          case STATE_TERMINATED:
+            throw new AssertionError();
+          default:
+            throw new IllegalStateException("Unknown state: " + state);
+        }
+      }
+    }
+
+    @Override public void onFailure(Call<T> call, Throwable t) {
+      // Errors are not subject to backpressure.
+      set(STATE_TERMINATED);
+      if (!subscriber.isUnsubscribed()) {
+        subscriber.onError(t);
+      }
+    }
+
+    private void deliverResponse(Response<T> response) {
+      try {
+        if (!subscriber.isUnsubscribed()) {
+          subscriber.onNext(response);
+        }
+      } catch (Throwable t) {
+        Exceptions.throwIfFatal(t);
+        if (!subscriber.isUnsubscribed()) {
+          subscriber.onError(t);
+        }
+        return;
+      }
+      if (!subscriber.isUnsubscribed()) {
+        subscriber.onCompleted();
+      }
+    }
+
+    @Override public void unsubscribe() {
+      call.cancel();
+    }
+
+    @Override public boolean isUnsubscribed() {
+      return call.isCanceled();
+    }
+  }
+
   static final class ResponseCallAdapter implements CallAdapter<Observable<?>> {
     private final Type responseType;
     private final Scheduler scheduler;
+    private final boolean isAsync;
 
-    ResponseCallAdapter(Type responseType, Scheduler scheduler) {
+    ResponseCallAdapter(Type responseType, Scheduler scheduler, boolean isAsync) {
       this.responseType = responseType;
       this.scheduler = scheduler;
+      this.isAsync = isAsync;
     }
 
     @Override public Type responseType() {
@@ -208,7 +383,7 @@ public final class RxJavaCallAdapterFactory extends CallAdapter.Factory {
     }
 
     @Override public <R> Observable<Response<R>> adapt(Call<R> call) {
-      Observable<Response<R>> observable = Observable.create(new CallOnSubscribe<>(call));
+      Observable<Response<R>> observable = Observable.create(new CallOnSubscribe<>(call, isAsync));
       if (scheduler != null) {
         return observable.subscribeOn(scheduler);
       }
@@ -219,10 +394,12 @@ public final class RxJavaCallAdapterFactory extends CallAdapter.Factory {
   static final class SimpleCallAdapter implements CallAdapter<Observable<?>> {
     private final Type responseType;
     private final Scheduler scheduler;
+    private final boolean isAsync;
 
-    SimpleCallAdapter(Type responseType, Scheduler scheduler) {
+    SimpleCallAdapter(Type responseType, Scheduler scheduler, boolean isAsync) {
       this.responseType = responseType;
       this.scheduler = scheduler;
+      this.isAsync = isAsync;
     }
 
     @Override public Type responseType() {
@@ -230,7 +407,7 @@ public final class RxJavaCallAdapterFactory extends CallAdapter.Factory {
     }
 
     @Override public <R> Observable<R> adapt(Call<R> call) {
-      Observable<R> observable = Observable.create(new CallOnSubscribe<>(call)) //
+      Observable<R> observable = Observable.create(new CallOnSubscribe<>(call, isAsync)) //
           .lift(OperatorMapResponseToBodyOrError.<R>instance());
       if (scheduler != null) {
         return observable.subscribeOn(scheduler);
@@ -239,13 +416,70 @@ public final class RxJavaCallAdapterFactory extends CallAdapter.Factory {
     }
   }
 
+  static final class ElementCallAdapter implements CallAdapter<Observable<?>> {
+    private static final Action1<Closeable> CLOSE = new Action1<Closeable>() {
+      @Override public void call(Closeable closeable) {
+        try {
+          closeable.close();
+        } catch (IOException ignored) {
+        }
+      }
+    };
+
+    private final Type responseType;
+    private final Scheduler scheduler;
+    private final boolean isAsync;
+
+    ElementCallAdapter(Type elementType, Scheduler scheduler, boolean isAsync) {
+      this.responseType = getStreamingIteratorType(elementType);
+      this.scheduler = scheduler;
+      this.isAsync = isAsync;
+    }
+
+    @Override public Type responseType() {
+      return responseType;
+    }
+
+    @Override public <R> Observable<?> adapt(Call<R> call) {
+      Observable<Object> observable = Observable.create(new CallOnSubscribe<>(call, isAsync)) //
+          .lift(OperatorMapResponseToBodyOrError.<R>instance())
+          .concatMap(new Func1<R, Observable<Object>>() {
+            @Override public Observable<Object> call(final R body) {
+              // The response type guarantees that the body is an iterator.
+              @SuppressWarnings("unchecked")
+              final CloseableIterator<Object> iterator = (CloseableIterator<Object>) body;
+              return Observable.using(new Func0<Closeable>() {
+                @Override public Closeable call() {
+                  return iterator;
+                }
+              }, new Func1<Closeable, Observable<Object>>() {
+                @Override public Observable<Object> call(Closeable resource) {
+                  // Reads are driven by the subscriber's requests.
+                  return Observable.from(new Iterable<Object>() {
+                    @Override public Iterator<Object> iterator() {
+                      return iterator;
+                    }
+                  });
+                }
+              }, CLOSE, true);
+            }
+          });
+      if (scheduler != null) {
+        return observable.subscribeOn(scheduler);
+      }
+      return observable;
+    }
+  }
+
   static final class ResultCallAdapter implements CallAdapter<Observable<?>> {
     private final Type responseType;
     private final Scheduler scheduler;
+    private final boolean isAsync;
 
-    ResultCallAdapter(Type responseType, Scheduler scheduler) {
+    ResultCallAdapter(Type responseType, Scheduler scheduler, boolean isAsync) {
       this.responseType = responseType;
       this.scheduler = scheduler;
+      this.isAsync = isAsync;
     }
 
     @Override public Type responseType() {
@@ -253,7 +487,7 @@ public final class RxJavaCallAdapterFactory extends CallAdapter.Factory {
     }
 
     @Override public <R> Observable<Result<R>> adapt(Call<R> call) {
-      Observable<Result<R>> observable = Observable.create(new CallOnSubscribe<>(call)) //
+      Observable<Result<R>> observable = Observable.create(new CallOnSubscribe<>(call, isAsync)) //
           .map(new Func1<Response<R>, Result<R>>() {
             @Override public Result<R> call(Response<R> response) {
               return Result.response(response);
@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2016 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.adapter.rxjava;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.BufferedSource;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import retrofit2.CloseableIterator;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+import retrofit2.http.GET;
+import retrofit2.http.Streaming;
+import rx.Observable;
+import rx.observers.TestSubscriber;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public final class ElementObservableTest {
+  @Rule public final MockWebServer server = new MockWebServer();
+
+  interface Service {
+    @GET("/") @Streaming Observable<String> elements();
+    @GET("/") @Streaming Observable<ResponseBody> body();
+  }
+
+  private final AtomicInteger reads = new AtomicInteger();
+  private final AtomicInteger closes = new AtomicInteger();
+  private Service service;
+
+  @Before public void setUp() {
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(new LinesConverterFactory())
+        .addCallAdapterFactory(RxJavaCallAdapterFactory.create().streamingElements())
+        .build();
+    service = retrofit.create(Service.class);
+  }
+
+  @Test public void elementsAreEmittedIndividually() {
+    server.enqueue(new MockResponse().setBody("a\nb\nc\n"));
+
+    TestSubscriber<String> subscriber = new TestSubscriber<>();
+    service.elements().subscribe(subscriber);
+    subscriber.assertValues("a", "b", "c");
+    subscriber.assertCompleted();
+    assertThat(closes.get()).isEqualTo(1);
+  }
+
+  @Test public void elementsAreOnlyReadWhenRequested() {
+    server.enqueue(new MockResponse().setBody("a\nb\nc\nd\n"));
+
+    TestSubscriber<String> subscriber = new TestSubscriber<>(0);
+    service.elements().subscribe(subscriber);
+    assertThat(reads.get()).isEqualTo(0);
+
+    subscriber.requestMore(2);
+    subscriber.assertValues("a", "b");
+    assertThat(reads.get()).isEqualTo(2);
+    subscriber.assertNoTerminalEvent();
+
+    subscriber.requestMore(Long.MAX_VALUE);
+    subscriber.assertValues("a", "b", "c", "d");
+    subscriber.assertCompleted();
+  }
+
+  @Test public void unsubscribeClosesBody() {
+    server.enqueue(new MockResponse().setBody("a\nb\nc\n"));
+
+    TestSubscriber<String> subscriber = new TestSubscriber<>(0);
+    service.elements().subscribe(subscriber);
+    subscriber.requestMore(1);
+    subscriber.unsubscribe();
+
+    subscriber.assertValue("a");
+    assertThat(closes.get()).isEqualTo(1);
+  }
+
+  @Test public void httpErrorIsPropagated() {
+    server.enqueue(new MockResponse().setResponseCode(404));
+
+    TestSubscriber<String> subscriber = new TestSubscriber<>();
+    service.elements().subscribe(subscriber);
+    subscriber.assertError(HttpException.class);
+  }
+
+  @Test public void responseBodyIsNotSplit() {
+    server.enqueue(new MockResponse().setBody("a\nb\n"));
+
+    TestSubscriber<ResponseBody> subscriber = new TestSubscriber<>();
+    service.body().subscribe(subscriber);
+    subscriber.assertValueCount(1);
+    subscriber.assertCompleted();
+    assertThat(reads.get()).isEqualTo(0);
+  }
+
+  @Test public void elementsAreNotStreamedByDefault() {
+    server.enqueue(new MockResponse().setBody("a\nb\n"));
+
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(new LinesConverterFactory())
+        .addConverterFactory(new StringConverterFactory())
+        .addCallAdapterFactory(RxJavaCallAdapterFactory.create())
+        .build();
+    TestSubscriber<String> subscriber = new TestSubscriber<>();
+    retrofit.create(Service.class).elements().subscribe(subscriber);
+    subscriber.assertValue("a\nb\n");
+    subscriber.assertCompleted();
+    assertThat(reads.get()).isEqualTo(0);
+  }
+
+  @Test public void streamingElementsKeepsAsyncMode() {
+    server.enqueue(new MockResponse().setBody("a\nb\n"));
+
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(new LinesConverterFactory())
+        .addCallAdapterFactory(RxJavaCallAdapterFactory.createAsync().streamingElements())
+        .build();
+    TestSubscriber<String> subscriber = new TestSubscriber<>();
+    retrofit.create(Service.class).elements().subscribe(subscriber);
+    subscriber.awaitTerminalEvent(10, SECONDS);
+    subscriber.assertValues("a", "b");
+    subscriber.assertCompleted();
+  }
+
+  /** Converts bodies to an iterator over their lines, counting reads and closes. */
+  final class LinesConverterFactory extends Converter.Factory {
+    @Override public Converter<ResponseBody, ?> responseBodyConverter(Type type,
+        Annotation[] annotations, Retrofit retrofit) {
+      if (!(type instanceof ParameterizedType)
+          || ((ParameterizedType) type).getRawType() != CloseableIterator.class) {
+        return null;
+      }
+      return new Converter<ResponseBody, CloseableIterator<String>>() {
+        @Override public CloseableIterator<String> convert(final ResponseBody value) {
+          final BufferedSource source = value.source();
+          return new CloseableIterator<String>() {
+            @Override public boolean hasNext() {
+              try {
+                return !source.exhausted();
+              } catch (IOException e) {
+                throw new RuntimeException(e);
+              }
+            }
+
+            @Override public String next() {
+              if (!hasNext()) throw new NoSuchElementException();
+              try {
+                reads.incrementAndGet();
+                return source.readUtf8LineStrict();
+              } catch (IOException e) {
+                throw new RuntimeException(e);
+              }
+            }
+
+            @Override public void remove() {
+              throw new UnsupportedOperationException();
+            }
+
+            @Override public void close() {
+              closes.incrementAndGet();
+              value.close();
+            }
+          };
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2016 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.benchmarks;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import okhttp3.MediaType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.scalars.ScalarsConverterFactory;
+import retrofit2.http.GET;
+
+/**
+ * The time from enqueueing a burst of calls until all of their callbacks have run on a
+ * single-threaded callback executor, standing in for Android's main thread. A burst of one is the
+ * latency of a lone callback. Divide the score and {@code gc.alloc.rate.norm} by {@link #burst}
+ * to get the cost per callback.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CallbackBatchingBenchmark {
+  interface Service {
+    @GET("/") Call<String> string();
+  }
+
+  /** The number of calls enqueued at once. */
+  @Param({"1", "100"})
+  int burst;
+
+  /** No batching, batching, or batching with a 100 microsecond window. */
+  @Param({"off", "on", "window"})
+  String batching;
+
+  private ExecutorService callbackExecutor;
+  private Service service;
+  private volatile CountDownLatch remaining;
+
+  private final Callback<String> callback = new Callback<String>() {
+    @Override public void onResponse(Call<String> call, Response<String> response) {
+      remaining.countDown();
+    }
+
+    @Override public void onFailure(Call<String> call, Throwable t) {
+      throw new AssertionError(t);
+    }
+  };
+
+  @Setup public void setUp() {
+    callbackExecutor = Executors.newSingleThreadExecutor();
+    Retrofit.Builder builder = new Retrofit.Builder()
+        .baseUrl("http://example.com/")
+        .callFactory(new CannedCallFactory(MediaType.parse("text/plain"), "Hello".getBytes()))
+        .callbackExecutor(callbackExecutor)
+        .addConverterFactory(ScalarsConverterFactory.create());
+    switch (batching) {
+      case "off":
+        break;
+      case "on":
+        builder.batchCallbacks(true);
+        break;
+      case "window":
+        builder.batchCallbacks(100, TimeUnit.MICROSECONDS);
+        break;
+      default:
+        throw new AssertionError(batching);
+    }
+    service = builder.build().create(Service.class);
+  }
+
+  @TearDown public void tearDown() {
+    callbackExecutor.shutdown();
+  }
+
+  @Benchmark public void enqueueBurst() throws InterruptedException {
+    CountDownLatch remaining = new CountDownLatch(burst);
+    this.remaining = remaining;
+    for (int i = 0; i < burst; i++) {
+      service.string().enqueue(callback);
+    }
+    remaining.await();
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2016 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.benchmarks;
+
+import java.io.IOException;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+
+/**
+ * Answers every request with the same response without touching the network. Request bodies are
+ * written out in full, as a real call would, and their size is remembered. Enqueued calls complete
+ * on the calling thread.
+ */
+final class CannedCallFactory implements Call.Factory {
+  private final MediaType contentType;
+  private final byte[] body;
+  private volatile long lastRequestBodySize = -1L;
+
+  CannedCallFactory(MediaType contentType, byte[] body) {
+    this.contentType = contentType;
+    this.body = body;
+  }
+
+  /** The number of bytes in the most recent request body, or -1 if there was none. */
+  long lastRequestBodySize() {
+    return lastRequestBodySize;
+  }
+
+  @Override public Call newCall(Request request) {
+    return new CannedCall(request);
+  }
+
+  final class CannedCall implements Call {
+    private final Request request;
+    private boolean executed;
+    private volatile boolean canceled;
+
+    CannedCall(Request request) {
+      this.request = request;
+    }
+
+    @Override public Request request() {
+      return request;
+    }
+
+    @Override public Response execute() throws IOException {
+      synchronized (this) {
+        if (executed) throw new IllegalStateException("Already Executed");
+        executed = true;
+      }
+      if (canceled) throw new IOException("Canceled");
+
+      RequestBody requestBody = request.body();
+      if (requestBody != null) {
+        Buffer sink = new Buffer();
+        requestBody.writeTo(sink);
+        lastRequestBodySize = sink.size();
+        sink.clear();
+      }
+
+      return new Response.Builder()
+          .request(request)
+          .protocol(Protocol.HTTP_1_1)
+          .code(200)
+          .message("OK")
+          .body(ResponseBody.create(contentType, body))
+          .build();
+    }
+
+    @Override public void enqueue(Callback callback) {
+      Response response;
+      try {
+        response = execute();
+      } catch (IOException e) {
+        callback.onFailure(this, e);
+        return;
+      }
+      try {
+        callback.onResponse(this, response);
+      } catch (IOException e) {
+        throw new AssertionError(e);
+      }
+    }
+
+    @Override public void cancel() {
+      canceled = true;
+    }
+
+    @Override public synchronized boolean isExecuted() {
+      return executed;
+    }
+
+    @Override public boolean isCanceled() {
+      return canceled;
+    }
+  }
+}
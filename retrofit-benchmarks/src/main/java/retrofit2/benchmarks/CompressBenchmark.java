@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2016 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.benchmarks;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import okhttp3.MediaType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import retrofit2.Call;
+import retrofit2.Retrofit;
+import retrofit2.converter.scalars.ScalarsConverterFactory;
+import retrofit2.http.Body;
+import retrofit2.http.Compress;
+import retrofit2.http.POST;
+
+import static retrofit2.http.Compress.Encoding.DEFLATE;
+
+/**
+ * The CPU time {@link Compress @Compress} spends against the bytes it saves on the wire. The time
+ * per upload is the benchmark's score; the size of the body as written is printed when each trial
+ * ends.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CompressBenchmark {
+  interface Service {
+    @POST("/") Call<Void> identity(@Body String body);
+    @Compress @POST("/") Call<Void> gzip(@Body String body);
+    @Compress(DEFLATE) @POST("/") Call<Void> deflate(@Body String body);
+  }
+
+  /** The size of the uncompressed body in bytes. */
+  @Param({"1024", "65536", "4194304"})
+  int size;
+
+  @Param({"identity", "gzip", "deflate"})
+  String encoding;
+
+  private CannedCallFactory callFactory;
+  private Service service;
+  private String body;
+
+  @Setup public void setUp() {
+    callFactory = new CannedCallFactory(MediaType.parse("text/plain"), new byte[0]);
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl("http://example.com/")
+        .callFactory(callFactory)
+        .addConverterFactory(ScalarsConverterFactory.create())
+        .build();
+    service = retrofit.create(Service.class);
+    body = telemetry(size);
+  }
+
+  @TearDown public void tearDown() {
+    System.out.println(encoding + " body of " + size + " bytes was written as "
+        + callFactory.lastRequestBodySize() + " bytes");
+  }
+
+  @Benchmark public int upload() throws IOException {
+    Call<Void> call;
+    switch (encoding) {
+      case "identity":
+        call = service.identity(body);
+        break;
+      case "gzip":
+        call = service.gzip(body);
+        break;
+      case "deflate":
+        call = service.deflate(body);
+        break;
+      default:
+        throw new AssertionError(encoding);
+    }
+    return call.execute().code();
+  }
+
+  /** Returns about {@code size} bytes of JSON shaped like a batch of telemetry events. */
+  static String telemetry(int size) {
+    Random random = new Random(0);
+    StringBuilder result = new StringBuilder(size + 128).append('[');
+    while (result.length() < size) {
+      if (result.length() > 1) result.append(',');
+      result.append("{\"event\":\"frame_rendered\",\"timestamp\":")
+          .append(1460000000000L + random.nextInt(1000000))
+          .append(",\"duration_ms\":")
+          .append(random.nextInt(50))
+          .append(",\"screen\":\"home\"}");
+    }
+    return result.append(']').toString();
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2016 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.benchmarks;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import retrofit2.Call;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+import retrofit2.http.Body;
+import retrofit2.http.GET;
+import retrofit2.http.POST;
+
+/**
+ * {@link GsonConverterFactory}, which reads and writes UTF-8 directly on Okio's buffers, against
+ * the converters it replaced, which decoded through {@link ResponseBody#charStream()} and encoded
+ * through an {@link OutputStreamWriter} into a copied {@code byte[]}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class GsonBenchmark {
+  static final class Item {
+    long id;
+    String name;
+    double score;
+    List<String> tags;
+  }
+
+  interface Service {
+    @GET("/") Call<List<Item>> items();
+    @POST("/") Call<Void> upload(@Body List<Item> items);
+  }
+
+  /** The approximate size of the JSON payload in bytes. */
+  @Param({"1024", "102400"})
+  int size;
+
+  /** Whether names are ASCII, or include two and three byte UTF-8 sequences. */
+  @Param({"ascii", "unicode"})
+  String text;
+
+  @Param({"okio", "legacy"})
+  String converter;
+
+  private CannedCallFactory callFactory;
+  private Service service;
+  private List<Item> items;
+
+  @Setup public void setUp() {
+    String prefix = text.equals("unicode") ? "Caf\u00e9 \u4e2d " : "Item ";
+    items = new ArrayList<>();
+    StringBuilder json = new StringBuilder("[");
+    while (json.length() < size) {
+      Item item = new Item();
+      item.id = items.size();
+      item.name = prefix + item.id;
+      item.score = item.id / 7.0;
+      item.tags = Arrays.asList("retrofit", "gson");
+      if (!items.isEmpty()) json.append(',');
+      json.append("{\"id\":").append(item.id)
+          .append(",\"name\":\"").append(item.name)
+          .append("\",\"score\":").append(item.score)
+          .append(",\"tags\":[\"retrofit\",\"gson\"]}");
+      items.add(item);
+    }
+    json.append(']');
+
+    Gson gson = new Gson();
+    callFactory = new CannedCallFactory(MediaType.parse("application/json; charset=UTF-8"),
+        json.toString().getBytes(Charset.forName("UTF-8")));
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl("http://example.com/")
+        .callFactory(callFactory)
+        .addConverterFactory(converter.equals("legacy")
+            ? new LegacyGsonConverterFactory(gson)
+            : GsonConverterFactory.create(gson))
+        .build();
+    service = retrofit.create(Service.class);
+  }
+
+  @Benchmark public int parse() throws IOException {
+    return service.items().execute().body().size();
+  }
+
+  @Benchmark public long serialize() throws IOException {
+    service.upload(items).execute();
+    return callFactory.lastRequestBodySize();
+  }
+
+  /** The Gson converters as they were before reading and writing on Okio's buffers. */
+  static final class LegacyGsonConverterFactory extends Converter.Factory {
+    private static final MediaType MEDIA_TYPE =
+        MediaType.parse("application/json; charset=UTF-8");
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final Gson gson;
+
+    LegacyGsonConverterFactory(Gson gson) {
+      this.gson = gson;
+    }
+
+    @Override public Converter<ResponseBody, ?> responseBodyConverter(Type type,
+        Annotation[] annotations, Retrofit retrofit) {
+      final TypeAdapter<?> adapter = gson.getAdapter(TypeToken.get(type));
+      return new Converter<ResponseBody, Object>() {
+        @Override public Object convert(ResponseBody value) throws IOException {
+          JsonReader jsonReader = gson.newJsonReader(value.charStream());
+          try {
+            return adapter.read(jsonReader);
+          } finally {
+            value.close();
+          }
+        }
+      };
+    }
+
+    @Override public Converter<?, RequestBody> requestBodyConverter(Type type,
+        Annotation[] parameterAnnotations, Annotation[] methodAnnotations, Retrofit retrofit) {
+      @SuppressWarnings("unchecked") // Gson returns an adapter for the requested type.
+      final TypeAdapter<Object> adapter =
+          (TypeAdapter<Object>) gson.getAdapter(TypeToken.get(type));
+      return new Converter<Object, RequestBody>() {
+        @Override public RequestBody convert(Object value) throws IOException {
+          Buffer buffer = new Buffer();
+          Writer writer = new OutputStreamWriter(buffer.outputStream(), UTF_8);
+          JsonWriter jsonWriter = gson.newJsonWriter(writer);
+          adapter.write(jsonWriter, value);
+          jsonWriter.close();
+          return RequestBody.create(MEDIA_TYPE, buffer.readByteString());
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2016 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import okhttp3.MediaType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import retrofit2.Call;
+import retrofit2.Retrofit;
+import retrofit2.converter.jackson.JacksonConverterFactory;
+import retrofit2.http.Body;
+import retrofit2.http.GET;
+import retrofit2.http.POST;
+
+/**
+ * Jackson converters from {@link JacksonConverterFactory#create()}, which decode through a
+ * {@link java.io.Reader} and serialize to a {@code byte[]}, against those from
+ * {@link JacksonConverterFactory#createDirect()} on payloads of about 1 KB, 100 KB and 10 MB.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JacksonBenchmark {
+  public static final class Item {
+    public long id;
+    public String name;
+    public double score;
+    public List<String> tags;
+  }
+
+  interface Service {
+    @GET("/") Call<List<Item>> items();
+    @POST("/") Call<Void> upload(@Body List<Item> items);
+  }
+
+  /** The approximate size of the JSON payload in bytes. */
+  @Param({"1024", "102400", "10485760"})
+  int size;
+
+  @Param({"create", "createDirect"})
+  String factory;
+
+  private CannedCallFactory callFactory;
+  private Service service;
+  private List<Item> items;
+
+  @Setup public void setUp() {
+    items = new ArrayList<>();
+    StringBuilder json = new StringBuilder("[");
+    while (json.length() < size) {
+      Item item = new Item();
+      item.id = items.size();
+      item.name = "Item " + item.id;
+      item.score = item.id / 7.0;
+      item.tags = Arrays.asList("retrofit", "jackson");
+      if (!items.isEmpty()) json.append(',');
+      json.append("{\"id\":").append(item.id)
+          .append(",\"name\":\"").append(item.name)
+          .append("\",\"score\":").append(item.score)
+          .append(",\"tags\":[\"retrofit\",\"jackson\"]}");
+      items.add(item);
+    }
+    json.append(']');
+
+    callFactory = new CannedCallFactory(MediaType.parse("application/json; charset=UTF-8"),
+        json.toString().getBytes());
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl("http://example.com/")
+        .callFactory(callFactory)
+        .addConverterFactory(factory.equals("createDirect")
+            ? JacksonConverterFactory.createDirect()
+            : JacksonConverterFactory.create())
+        .build();
+    service = retrofit.create(Service.class);
+  }
+
+  @Benchmark public int parse() throws IOException {
+    return service.items().execute().body().size();
+  }
+
+  @Benchmark public long serialize() throws IOException {
+    service.upload(items).execute();
+    return callFactory.lastRequestBodySize();
+  }
+}
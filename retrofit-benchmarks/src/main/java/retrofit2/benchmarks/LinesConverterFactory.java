@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2016 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.benchmarks;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.NoSuchElementException;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+import retrofit2.CloseableIterator;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/** Streams {@code @Streaming} bodies of {@code String} elements one line at a time. */
+final class LinesConverterFactory extends Converter.Factory {
+  @Override public Converter<ResponseBody, ?> responseBodyConverter(Type type,
+      Annotation[] annotations, Retrofit retrofit) {
+    if (getStreamingElementType(type, annotations) != String.class) {
+      return null;
+    }
+    return new Converter<ResponseBody, CloseableIterator<String>>() {
+      @Override public CloseableIterator<String> convert(final ResponseBody value) {
+        final BufferedSource source = value.source();
+        return new CloseableIterator<String>() {
+          @Override public boolean hasNext() {
+            try {
+              return !source.exhausted();
+            } catch (IOException e) {
+              throw new RuntimeException(e);
+            }
+          }
+
+          @Override public String next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            try {
+              return source.readUtf8LineStrict();
+            } catch (IOException e) {
+              throw new RuntimeException(e);
+            }
+          }
+
+          @Override public void remove() {
+            throw new UnsupportedOperationException();
+          }
+
+          @Override public void close() {
+            value.close();
+          }
+        };
+      }
+    };
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2016 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.benchmarks;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import okhttp3.MediaType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import retrofit2.Retrofit;
+import retrofit2.adapter.reactivestreams.ReactiveStreamsCallAdapterFactory;
+import retrofit2.adapter.rxjava.RxJavaCallAdapterFactory;
+import retrofit2.converter.scalars.ScalarsConverterFactory;
+import retrofit2.http.GET;
+import retrofit2.http.Streaming;
+import rx.Observable;
+import rx.Subscriber;
+
+/**
+ * Throughput of the Reactive Streams adapter against the RxJava adapter, both for a whole body
+ * and for a body of {@link #LINES} lines streamed as individual elements.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PublisherBenchmark {
+  static final int LINES = 1000;
+
+  interface ReactiveStreamsService {
+    @GET("/") Publisher<String> body();
+    @GET("/") @Streaming Publisher<String> lines();
+  }
+
+  interface RxJavaService {
+    @GET("/") Observable<String> body();
+    @GET("/") @Streaming Observable<String> lines();
+  }
+
+  /**
+   * The Reactive Streams adapter, or RxJava's synchronous observables from {@code create()} or
+   * asynchronous ones from {@code createAsync()}.
+   */
+  @Param({"reactivestreams", "rxjava", "rxjava-async"})
+  String adapter;
+
+  private ExecutorService elementExecutor;
+  private ReactiveStreamsService reactiveStreams;
+  private RxJavaService rxJava;
+
+  @Setup public void setUp() {
+    StringBuilder body = new StringBuilder();
+    for (int i = 0; i < LINES; i++) {
+      body.append("Line ").append(i).append('\n');
+    }
+    Retrofit.Builder builder = new Retrofit.Builder()
+        .baseUrl("http://example.com/")
+        .callFactory(new CannedCallFactory(MediaType.parse("text/plain"),
+            body.toString().getBytes()))
+        .addConverterFactory(new LinesConverterFactory())
+        .addConverterFactory(ScalarsConverterFactory.create());
+    switch (adapter) {
+      case "reactivestreams":
+        elementExecutor = Executors.newSingleThreadExecutor();
+        reactiveStreams = builder
+            .addCallAdapterFactory(
+                ReactiveStreamsCallAdapterFactory.create().streamingElements(elementExecutor))
+            .build()
+            .create(ReactiveStreamsService.class);
+        break;
+      case "rxjava":
+        rxJava = builder
+            .addCallAdapterFactory(RxJavaCallAdapterFactory.create().streamingElements())
+            .build()
+            .create(RxJavaService.class);
+        break;
+      case "rxjava-async":
+        rxJava = builder
+            .addCallAdapterFactory(RxJavaCallAdapterFactory.createAsync().streamingElements())
+            .build()
+            .create(RxJavaService.class);
+        break;
+      default:
+        throw new AssertionError(adapter);
+    }
+  }
+
+  @TearDown public void tearDown() {
+    if (elementExecutor != null) {
+      elementExecutor.shutdown();
+    }
+  }
+
+  @Benchmark public int body() throws InterruptedException {
+    return reactiveStreams != null
+        ? consume(reactiveStreams.body())
+        : consume(rxJava.body());
+  }
+
+  @Benchmark public int elements() throws InterruptedException {
+    return reactiveStreams != null
+        ? consume(reactiveStreams.lines())
+        : consume(rxJava.lines());
+  }
+
+  /** Requests everything from {@code publisher} and returns the number of elements received. */
+  private static int consume(Publisher<String> publisher) throws InterruptedException {
+    final CountDownLatch done = new CountDownLatch(1);
+    final int[] count = new int[1];
+    publisher.subscribe(new org.reactivestreams.Subscriber<String>() {
+      @Override public void onSubscribe(Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+      }
+
+      @Override public void onNext(String element) {
+        count[0]++;
+      }
+
+      @Override public void onError(Throwable t) {
+        throw new AssertionError(t);
+      }
+
+      @Override public void onComplete() {
+        done.countDown();
+      }
+    });
+    done.await();
+    return count[0];
+  }
+
+  /** Subscribes to {@code observable} and returns the number of elements received. */
+  private static int consume(Observable<String> observable) throws InterruptedException {
+    final CountDownLatch done = new CountDownLatch(1);
+    final int[] count = new int[1];
+    observable.subscribe(new Subscriber<String>() {
+      @Override public void onNext(String element) {
+        count[0]++;
+      }
+
+      @Override public void onError(Throwable t) {
+        throw new AssertionError(t);
+      }
+
+      @Override public void onCompleted() {
+        done.countDown();
+      }
+    });
+    done.await();
+    return count[0];
+  }
+}
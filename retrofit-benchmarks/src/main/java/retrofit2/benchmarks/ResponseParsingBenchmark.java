@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2016 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import retrofit2.Call;
+import retrofit2.Retrofit;
+import retrofit2.converter.scalars.ScalarsConverterFactory;
+import retrofit2.http.GET;
+
+/**
+ * The cost of turning a raw response into a {@link retrofit2.Response}. Run with {@code -prof gc}
+ * and compare {@code gc.alloc.rate.norm} of each Retrofit call against {@link #rawCall} to get
+ * the bytes Retrofit allocates per response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ResponseParsingBenchmark {
+  interface Service {
+    @GET("/") Call<String> string();
+    @GET("/") Call<Void> empty();
+  }
+
+  private CannedCallFactory callFactory;
+  private Request rawRequest;
+  private Service service;
+
+  @Setup public void setUp() {
+    callFactory = new CannedCallFactory(MediaType.parse("text/plain"), "Hello".getBytes());
+    HttpUrl baseUrl = HttpUrl.parse("http://example.com/");
+    rawRequest = new Request.Builder().url(baseUrl).build();
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl(baseUrl)
+        .callFactory(callFactory)
+        .addConverterFactory(ScalarsConverterFactory.create())
+        .build();
+    service = retrofit.create(Service.class);
+  }
+
+  /** The same response without Retrofit, as a baseline. */
+  @Benchmark public String rawCall() throws IOException {
+    return callFactory.newCall(rawRequest).execute().body().string();
+  }
+
+  @Benchmark public String convertedBody() throws IOException {
+    return service.string().execute().body();
+  }
+
+  @Benchmark public int discardedBody() throws IOException {
+    return service.empty().execute().code();
+  }
+}
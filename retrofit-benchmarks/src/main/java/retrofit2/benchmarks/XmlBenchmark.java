@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2016 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import okhttp3.MediaType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.simpleframework.xml.Attribute;
+import org.simpleframework.xml.Element;
+import org.simpleframework.xml.ElementList;
+import org.simpleframework.xml.Root;
+import retrofit2.Call;
+import retrofit2.Retrofit;
+import retrofit2.converter.simplexml.SimpleXmlConverterFactory;
+import retrofit2.converter.stax.StaxAdapter;
+import retrofit2.converter.stax.StaxConverterFactory;
+import retrofit2.http.Body;
+import retrofit2.http.GET;
+import retrofit2.http.POST;
+import retrofit2.http.Streaming;
+
+/**
+ * {@link StaxConverterFactory} against {@link SimpleXmlConverterFactory} reading and writing a
+ * feed of repeated entries, and StAX streaming the entries one at a time. Run with
+ * {@code -prof gc} to compare allocation as well as time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class XmlBenchmark {
+  @Root(name = "feed")
+  public static final class Feed {
+    @ElementList(inline = true, entry = "entry")
+    public List<Entry> entries = new ArrayList<>();
+  }
+
+  @Root(name = "entry")
+  public static final class Entry {
+    @Attribute public long id;
+    @Element public String title;
+  }
+
+  interface Service {
+    @GET("/") Call<Feed> feed();
+    @GET("/") @Streaming Call<Iterator<Entry>> entries();
+    @POST("/") Call<Void> upload(@Body Feed feed);
+  }
+
+  /** The approximate size of the XML document in bytes. */
+  @Param({"10240", "10485760"})
+  int size;
+
+  private CannedCallFactory callFactory;
+  private Service simpleXml;
+  private Service stax;
+  private Feed feed;
+
+  @Setup public void setUp() {
+    feed = new Feed();
+    StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<feed>");
+    while (xml.length() < size) {
+      Entry entry = new Entry();
+      entry.id = feed.entries.size();
+      entry.title = "Entry number " + entry.id;
+      xml.append("\n  <entry id=\"").append(entry.id).append("\"><title>")
+          .append(entry.title).append("</title></entry>");
+      feed.entries.add(entry);
+    }
+    xml.append("\n</feed>\n");
+
+    callFactory = new CannedCallFactory(MediaType.parse("application/xml; charset=UTF-8"),
+        xml.toString().getBytes());
+    simpleXml = new Retrofit.Builder()
+        .baseUrl("http://example.com/")
+        .callFactory(callFactory)
+        .addConverterFactory(SimpleXmlConverterFactory.create())
+        .build()
+        .create(Service.class);
+    stax = new Retrofit.Builder()
+        .baseUrl("http://example.com/")
+        .callFactory(callFactory)
+        .addConverterFactory(new StaxConverterFactory.Builder()
+            .add(Feed.class, FEED_ADAPTER)
+            .add(Entry.class, ENTRY_ADAPTER)
+            .build())
+        .build()
+        .create(Service.class);
+  }
+
+  @Benchmark public int simpleXmlRead() throws IOException {
+    return simpleXml.feed().execute().body().entries.size();
+  }
+
+  @Benchmark public int staxRead() throws IOException {
+    return stax.feed().execute().body().entries.size();
+  }
+
+  /** Reads each entry as it is decoded without holding the whole feed. */
+  @Benchmark public int staxStream() throws IOException {
+    int count = 0;
+    for (Iterator<Entry> entries = stax.entries().execute().body(); entries.hasNext(); ) {
+      entries.next();
+      count++;
+    }
+    return count;
+  }
+
+  @Benchmark public long simpleXmlWrite() throws IOException {
+    simpleXml.upload(feed).execute();
+    return callFactory.lastRequestBodySize();
+  }
+
+  @Benchmark public long staxWrite() throws IOException {
+    stax.upload(feed).execute();
+    return callFactory.lastRequestBodySize();
+  }
+
+  static final StaxAdapter<Entry> ENTRY_ADAPTER = new StaxAdapter<Entry>() {
+    @Override public Entry read(XMLStreamReader reader) throws XMLStreamException {
+      Entry entry = new Entry();
+      entry.id = Long.parseLong(reader.getAttributeValue(null, "id"));
+      reader.nextTag(); // <title>
+      entry.title = reader.getElementText();
+      reader.nextTag(); // </entry>
+      return entry;
+    }
+
+    @Override public void write(XMLStreamWriter writer, Entry value) throws XMLStreamException {
+      writer.writeStartElement("entry");
+      writer.writeAttribute("id", Long.toString(value.id));
+      writer.writeStartElement("title");
+      writer.writeCharacters(value.title);
+      writer.writeEndElement();
+      writer.writeEndElement();
+    }
+  };
+
+  static final StaxAdapter<Feed> FEED_ADAPTER = new StaxAdapter<Feed>() {
+    @Override public Feed read(XMLStreamReader reader) throws XMLStreamException {
+      Feed feed = new Feed();
+      while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+        feed.entries.add(ENTRY_ADAPTER.read(reader));
+      }
+      return feed;
+    }
+
+    @Override public void write(XMLStreamWriter writer, Feed value) throws XMLStreamException {
+      writer.writeStartElement("feed");
+      for (Entry entry : value.entries) {
+        ENTRY_ADAPTER.write(writer, entry);
+      }
+      writer.writeEndElement();
+    }
+  };
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.converter.binaryjson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.EnumMap;
+import java.util.Map;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * A {@linkplain Converter.Factory converter} which uses Jackson to read JSON, Smile, or CBOR
+ * depending on the {@code Content-Type} of each response. Responses with no or an unrecognized
+ * {@code Content-Type} are read as JSON. Request bodies are written in a single
+ * {@linkplain Builder#requestFormat format}, JSON by default.
+ * <p>
+ * Servers learn which formats are supported from the {@code Accept} header. Add
+ * {@link #acceptInterceptor()} to the {@link okhttp3.OkHttpClient} to send it on requests which do
+ * not specify their own.
+ * <p>
+ * Because Jackson is so flexible in the types it supports, this converter assumes that it can
+ * handle all types. If you are mixing JSON serialization with something else (such as protocol
+ * buffers), you must {@linkplain Retrofit.Builder#addConverterFactory(Converter.Factory) add this
+ * instance} last to allow the other converters a chance to see their types.
+ */
+public final class BinaryJsonConverterFactory extends Converter.Factory {
+  private static final MediaType JSON_UTF_8 = MediaType.parse("application/json; charset=UTF-8");
+
+  /** The encodings this factory can read and write. */
+  public enum Format {
+    JSON("application/json"),
+    SMILE("application/x-jackson-smile"),
+    CBOR("application/cbor");
+
+    final MediaType mediaType;
+
+    Format(String mediaType) {
+      this.mediaType = MediaType.parse(mediaType);
+    }
+
+    public MediaType mediaType() {
+      return mediaType;
+    }
+
+    /** Returns the format of {@code contentType}, or null if it is not one of these formats. */
+    static Format of(MediaType contentType) {
+      if (contentType == null) return null;
+      for (Format format : values()) {
+        if (format.mediaType.type().equals(contentType.type())
+            && format.mediaType.subtype().equals(contentType.subtype())) {
+          return format;
+        }
+      }
+      return null;
+    }
+  }
+
+  /** Create an instance which reads all three formats and writes JSON using default mappers. */
+  public static BinaryJsonConverterFactory create() {
+    return new Builder().build();
+  }
+
+  private final Map<Format, ObjectMapper> mappers;
+  private final Format requestFormat;
+  private final String accept;
+
+  private BinaryJsonConverterFactory(Map<Format, ObjectMapper> mappers, Format requestFormat) {
+    this.mappers = mappers;
+    this.requestFormat = requestFormat;
+    this.accept = accept(mappers);
+  }
+
+  /** Binary formats are preferred over JSON, which is always accepted as the fallback. */
+  private static String accept(Map<Format, ObjectMapper> mappers) {
+    StringBuilder result = new StringBuilder();
+    for (Format format : mappers.keySet()) {
+      if (format == Format.JSON) continue;
+      result.append(format.mediaType).append(", ");
+    }
+    return result.append(Format.JSON.mediaType).append("; q=0.5").toString();
+  }
+
+  /** The value of the {@code Accept} header which advertises the supported formats. */
+  public String accept() {
+    return accept;
+  }
+
+  /**
+   * Returns an interceptor which sets the {@code Accept} header to {@link #accept()} on requests
+   * that do not already have one.
+   */
+  public Interceptor acceptInterceptor() {
+    return new Interceptor() {
+      @Override public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (request.header("Accept") == null) {
+          request = request.newBuilder().header("Accept", accept).build();
+        }
+        return chain.proceed(request);
+      }
+    };
+  }
+
+  @Override public boolean isCacheable() {
+    return true;
+  }
+
+  @Override
+  public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations,
+      Retrofit retrofit) {
+    Map<Format, ObjectReader> readers = new EnumMap<>(Format.class);
+    for (Map.Entry<Format, ObjectMapper> entry : mappers.entrySet()) {
+      ObjectMapper mapper = entry.getValue();
+      JavaType javaType = mapper.getTypeFactory().constructType(type);
+      readers.put(entry.getKey(), mapper.reader(javaType));
+    }
+    return new NegotiatingResponseBodyConverter<>(readers);
+  }
+
+  @Override
+  public Converter<?, RequestBody> requestBodyConverter(Type type,
+      Annotation[] parameterAnnotations, Annotation[] methodAnnotations, Retrofit retrofit) {
+    ObjectMapper mapper = mappers.get(requestFormat);
+    JavaType javaType = mapper.getTypeFactory().constructType(type);
+    MediaType mediaType = requestFormat == Format.JSON ? JSON_UTF_8 : requestFormat.mediaType;
+    // Bodies are written straight into the request's sink, which belongs to the caller.
+    ObjectWriter writer = mapper.writerFor(javaType)
+        .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    return new BinaryJsonRequestBodyConverter<>(writer, mediaType);
+  }
+
+  /** Build a new {@link BinaryJsonConverterFactory}. */
+  public static final class Builder {
+    private final Map<Format, ObjectMapper> mappers = new EnumMap<>(Format.class);
+    private Format requestFormat = Format.JSON;
+
+    public Builder() {
+      mappers.put(Format.JSON, new ObjectMapper());
+      mappers.put(Format.SMILE, new ObjectMapper(new SmileFactory()));
+      mappers.put(Format.CBOR, new ObjectMapper(new CBORFactory()));
+    }
+
+    /**
+     * Use {@code mapper} to read and write {@code format}. Its {@link ObjectMapper#getFactory()
+     * factory} must produce that format. Configure each format's mapper the same way (modules,
+     * features, visibility) so values convert identically regardless of which format is used.
+     */
+    public Builder mapper(Format format, ObjectMapper mapper) {
+      if (format == null) throw new NullPointerException("format == null");
+      if (mapper == null) throw new NullPointerException("mapper == null");
+      mappers.put(format, mapper);
+      return this;
+    }
+
+    /**
+     * Stop reading and advertising {@code format}. Responses of that type are then read as JSON.
+     * JSON itself cannot be disabled.
+     */
+    public Builder disable(Format format) {
+      if (format == null) throw new NullPointerException("format == null");
+      if (format == Format.JSON) throw new IllegalArgumentException("JSON cannot be disabled.");
+      mappers.remove(format);
+      return this;
+    }
+
+    /** Write request bodies as {@code format}. Only use formats that the server accepts. */
+    public Builder requestFormat(Format format) {
+      if (format == null) throw new NullPointerException("format == null");
+      requestFormat = format;
+      return this;
+    }
+
+    public BinaryJsonConverterFactory build() {
+      if (!mappers.containsKey(requestFormat)) {
+        throw new IllegalStateException("Request format " + requestFormat + " is disabled.");
+      }
+      return new BinaryJsonConverterFactory(new EnumMap<>(mappers), requestFormat);
+    }
+  }
+}
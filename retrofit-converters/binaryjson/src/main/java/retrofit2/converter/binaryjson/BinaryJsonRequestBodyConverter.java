@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.converter.binaryjson;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import retrofit2.Converter;
+
+final class BinaryJsonRequestBodyConverter<T> implements Converter<T, RequestBody> {
+  private final ObjectWriter adapter;
+  private final MediaType mediaType;
+
+  BinaryJsonRequestBodyConverter(ObjectWriter adapter, MediaType mediaType) {
+    this.adapter = adapter;
+    this.mediaType = mediaType;
+  }
+
+  @Override public RequestBody convert(final T value) throws IOException {
+    return new RequestBody() {
+      @Override public MediaType contentType() {
+        return mediaType;
+      }
+
+      @Override public void writeTo(BufferedSink sink) throws IOException {
+        // The adapter does not close its target so the sink stays open for the caller.
+        adapter.writeValue(sink.outputStream(), value);
+      }
+    };
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.converter.binaryjson;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Map;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.converter.binaryjson.BinaryJsonConverterFactory.Format;
+
+/** Chooses a reader by the response's {@code Content-Type}, falling back to JSON. */
+final class NegotiatingResponseBodyConverter<T> implements Converter<ResponseBody, T> {
+  private final Map<Format, ObjectReader> readers;
+
+  NegotiatingResponseBodyConverter(Map<Format, ObjectReader> readers) {
+    this.readers = readers;
+  }
+
+  @Override public T convert(ResponseBody value) throws IOException {
+    try {
+      MediaType contentType = value.contentType();
+      Format format = Format.of(contentType);
+      ObjectReader reader = format != null ? readers.get(format) : null;
+      if (reader == null) {
+        reader = readers.get(Format.JSON);
+        format = Format.JSON;
+      }
+      if (format == Format.JSON && contentType != null && contentType.charset() != null) {
+        // Jackson detects the Unicode encodings on its own, but not a declared legacy charset.
+        Charset charset = contentType.charset();
+        if (!charset.name().startsWith("UTF-")) {
+          return reader.readValue(value.charStream());
+        }
+      }
+      return reader.readValue(value.byteStream());
+    } finally {
+      value.close();
+    }
+  }
+}
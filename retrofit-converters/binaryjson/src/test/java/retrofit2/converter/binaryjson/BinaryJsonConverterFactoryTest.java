@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.converter.binaryjson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import org.junit.Rule;
+import org.junit.Test;
+import retrofit2.Call;
+import retrofit2.Retrofit;
+import retrofit2.converter.binaryjson.BinaryJsonConverterFactory.Format;
+import retrofit2.http.Body;
+import retrofit2.http.GET;
+import retrofit2.http.Headers;
+import retrofit2.http.POST;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public final class BinaryJsonConverterFactoryTest {
+  static class Pojo {
+    public String name;
+
+    Pojo() {
+    }
+
+    Pojo(String name) {
+      this.name = name;
+    }
+  }
+
+  interface Service {
+    @GET("/") Call<Pojo> get();
+    @GET("/") @Headers("Accept: application/json") Call<Pojo> getJsonOnly();
+    @POST("/") Call<Pojo> post(@Body Pojo pojo);
+  }
+
+  @Rule public final MockWebServer server = new MockWebServer();
+
+  private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+  private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+
+  private Service service(BinaryJsonConverterFactory factory) {
+    OkHttpClient client = new OkHttpClient.Builder()
+        .addInterceptor(factory.acceptInterceptor())
+        .build();
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .client(client)
+        .addConverterFactory(factory)
+        .build();
+    return retrofit.create(Service.class);
+  }
+
+  @Test public void readsSmile() throws IOException {
+    Service service = service(BinaryJsonConverterFactory.create());
+    server.enqueue(new MockResponse()
+        .setHeader("Content-Type", "application/x-jackson-smile")
+        .setBody(new Buffer().write(smileMapper.writeValueAsBytes(new Pojo("smile")))));
+
+    assertThat(service.get().execute().body().name).isEqualTo("smile");
+  }
+
+  @Test public void readsCbor() throws IOException {
+    Service service = service(BinaryJsonConverterFactory.create());
+    server.enqueue(new MockResponse()
+        .setHeader("Content-Type", "application/cbor")
+        .setBody(new Buffer().write(cborMapper.writeValueAsBytes(new Pojo("cbor")))));
+
+    assertThat(service.get().execute().body().name).isEqualTo("cbor");
+  }
+
+  @Test public void readsJson() throws IOException {
+    Service service = service(BinaryJsonConverterFactory.create());
+    server.enqueue(new MockResponse()
+        .setHeader("Content-Type", "application/json; charset=utf-8")
+        .setBody("{\"name\":\"json\"}"));
+
+    assertThat(service.get().execute().body().name).isEqualTo("json");
+  }
+
+  @Test public void missingOrUnknownContentTypeReadsJson() throws IOException {
+    Service service = service(BinaryJsonConverterFactory.create());
+    server.enqueue(new MockResponse().setBody("{\"name\":\"none\"}"));
+    server.enqueue(new MockResponse()
+        .setHeader("Content-Type", "text/plain")
+        .setBody("{\"name\":\"text\"}"));
+
+    assertThat(service.get().execute().body().name).isEqualTo("none");
+    assertThat(service.get().execute().body().name).isEqualTo("text");
+  }
+
+  @Test public void readsJsonInDeclaredCharset() throws IOException {
+    Service service = service(BinaryJsonConverterFactory.create());
+    server.enqueue(new MockResponse()
+        .setHeader("Content-Type", "application/json; charset=ISO-8859-1")
+        .setBody(new Buffer().writeString("{\"name\":\"caf\u00e9\"}",
+            Charset.forName("ISO-8859-1"))));
+
+    assertThat(service.get().execute().body().name).isEqualTo("caf\u00e9");
+  }
+
+  @Test public void advertisesFormats() throws IOException, InterruptedException {
+    Service service = service(BinaryJsonConverterFactory.create());
+    server.enqueue(new MockResponse().setBody("{}"));
+    server.enqueue(new MockResponse().setBody("{}"));
+
+    service.get().execute();
+    assertThat(server.takeRequest().getHeader("Accept"))
+        .isEqualTo("application/x-jackson-smile, application/cbor, application/json; q=0.5");
+
+    service.getJsonOnly().execute();
+    assertThat(server.takeRequest().getHeader("Accept")).isEqualTo("application/json");
+  }
+
+  @Test public void disabledFormatIsNotAdvertisedOrRead() throws IOException, InterruptedException {
+    BinaryJsonConverterFactory factory = new BinaryJsonConverterFactory.Builder()
+        .disable(Format.SMILE)
+        .build();
+    assertThat(factory.accept()).isEqualTo("application/cbor, application/json; q=0.5");
+
+    Service service = service(factory);
+    server.enqueue(new MockResponse()
+        .setHeader("Content-Type", "application/x-jackson-smile")
+        .setBody("{\"name\":\"json\"}"));
+    assertThat(service.get().execute().body().name).isEqualTo("json");
+  }
+
+  @Test public void writesJsonByDefault() throws IOException, InterruptedException {
+    Service service = service(BinaryJsonConverterFactory.create());
+    server.enqueue(new MockResponse().setBody("{}"));
+
+    service.post(new Pojo("value")).execute();
+
+    RecordedRequest request = server.takeRequest();
+    assertThat(request.getBody().readUtf8()).isEqualTo("{\"name\":\"value\"}");
+    assertThat(request.getHeader("Content-Type")).isEqualTo("application/json; charset=UTF-8");
+    assertThat(request.getHeader("Transfer-Encoding")).isEqualTo("chunked");
+  }
+
+  @Test public void writesConfiguredFormat() throws IOException, InterruptedException {
+    Service service = service(new BinaryJsonConverterFactory.Builder()
+        .requestFormat(Format.SMILE)
+        .build());
+    server.enqueue(new MockResponse().setBody("{}"));
+
+    service.post(new Pojo("value")).execute();
+
+    RecordedRequest request = server.takeRequest();
+    Pojo sent = smileMapper.readValue(request.getBody().readByteArray(), Pojo.class);
+    assertThat(sent.name).isEqualTo("value");
+    assertThat(request.getHeader("Content-Type")).isEqualTo("application/x-jackson-smile");
+    assertThat(request.getHeader("Transfer-Encoding")).isEqualTo("chunked");
+  }
+
+  @Test public void jsonCannotBeDisabled() {
+    try {
+      new BinaryJsonConverterFactory.Builder().disable(Format.JSON);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasMessage("JSON cannot be disabled.");
+    }
+  }
+
+  @Test public void requestFormatMustBeEnabled() {
+    try {
+      new BinaryJsonConverterFactory.Builder()
+          .disable(Format.CBOR)
+          .requestFormat(Format.CBOR)
+          .build();
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(e).hasMessage("Request format CBOR is disabled.");
+    }
+  }
+}
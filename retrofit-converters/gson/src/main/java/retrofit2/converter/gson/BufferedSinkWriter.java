@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.converter.gson;
+
+import java.io.IOException;
+import java.io.Writer;
+import okio.Buffer;
+import okio.BufferedSink;
+
+/**
+ * Encodes UTF-8 directly into a {@link BufferedSink}'s buffer. Unlike an
+ * {@link java.io.OutputStreamWriter} there is no {@code CharsetEncoder} and no intermediate byte
+ * array: ASCII characters are written as single bytes and strings use Okio's UTF-8 encoder.
+ * <p>
+ * Closing this writer emits buffered bytes but does not close the sink.
+ */
+final class BufferedSinkWriter extends Writer {
+  private final BufferedSink sink;
+  /** A high surrogate from the end of the previous write, waiting for its low half. */
+  private char pendingHighSurrogate;
+  private boolean closed;
+
+  BufferedSinkWriter(BufferedSink sink) {
+    this.sink = sink;
+  }
+
+  @Override public void write(int c) throws IOException {
+    checkNotClosed();
+    writeChar(sink.buffer(), (char) c);
+    sink.emitCompleteSegments();
+  }
+
+  @Override public void write(char[] cbuf, int off, int len) throws IOException {
+    if (off < 0 || len < 0 || off + len > cbuf.length) throw new IndexOutOfBoundsException();
+    checkNotClosed();
+    Buffer buffer = sink.buffer();
+    for (int i = off, end = off + len; i < end; i++) {
+      char c = cbuf[i];
+      if (c < 0x80 && pendingHighSurrogate == 0) {
+        buffer.writeByte(c);
+      } else {
+        writeChar(buffer, c);
+      }
+    }
+    sink.emitCompleteSegments();
+  }
+
+  @Override public void write(String str, int off, int len) throws IOException {
+    if (off < 0 || len < 0 || off + len > str.length()) throw new IndexOutOfBoundsException();
+    checkNotClosed();
+    if (len == 0) return;
+    Buffer buffer = sink.buffer();
+    int end = off + len;
+    if (pendingHighSurrogate != 0) {
+      writeChar(buffer, str.charAt(off++));
+    }
+    if (end > off && Character.isHighSurrogate(str.charAt(end - 1))) {
+      pendingHighSurrogate = str.charAt(--end);
+    }
+    if (end > off) {
+      buffer.writeUtf8(str, off, end);
+    }
+    sink.emitCompleteSegments();
+  }
+
+  private void writeChar(Buffer buffer, char c) {
+    if (pendingHighSurrogate != 0) {
+      char high = pendingHighSurrogate;
+      pendingHighSurrogate = 0;
+      if (Character.isLowSurrogate(c)) {
+        buffer.writeUtf8CodePoint(Character.toCodePoint(high, c));
+        return;
+      }
+      buffer.writeByte('?'); // Unpaired surrogate, as encoded by Okio.
+    }
+    if (c < 0x80) {
+      buffer.writeByte(c);
+    } else if (Character.isHighSurrogate(c)) {
+      pendingHighSurrogate = c;
+    } else if (Character.isLowSurrogate(c)) {
+      buffer.writeByte('?');
+    } else {
+      buffer.writeUtf8CodePoint(c);
+    }
+  }
+
+  @Override public void flush() throws IOException {
+    checkNotClosed();
+    sink.flush();
+  }
+
+  @Override public void close() throws IOException {
+    if (closed) return;
+    closed = true;
+    if (pendingHighSurrogate != 0) {
+      pendingHighSurrogate = 0;
+      sink.buffer().writeByte('?');
+    }
+    sink.emit();
+  }
+
+  private void checkNotClosed() throws IOException {
+    if (closed) throw new IOException("closed");
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.converter.gson;
+
+import java.io.IOException;
+import java.io.Reader;
+import okio.Buffer;
+import okio.BufferedSource;
+
+/**
+ * Decodes UTF-8 directly from a {@link BufferedSource}. Unlike an {@link java.io.InputStreamReader}
+ * this neither copies bytes into a private buffer nor runs them through a {@code CharsetDecoder}:
+ * ASCII bytes are widened in place and everything else is decoded a code point at a time.
+ * Malformed input decodes to U+FFFD.
+ */
+final class BufferedSourceReader extends Reader {
+  private static final char REPLACEMENT_CHARACTER = '\ufffd';
+
+  private final BufferedSource source;
+  /** The low half of a surrogate pair whose high half was returned by the previous read. */
+  private char pendingLowSurrogate;
+
+  BufferedSourceReader(BufferedSource source) {
+    this.source = source;
+  }
+
+  @Override public int read(char[] cbuf, int off, int len) throws IOException {
+    if (off < 0 || len < 0 || off + len > cbuf.length) throw new IndexOutOfBoundsException();
+    if (len == 0) return 0;
+
+    int count = 0;
+    if (pendingLowSurrogate != 0) {
+      cbuf[off + count++] = pendingLowSurrogate;
+      pendingLowSurrogate = 0;
+    }
+    // Only block for input if nothing has been decoded yet.
+    if (count == 0 && !source.request(1)) return -1;
+
+    Buffer buffer = source.buffer();
+    while (count < len && buffer.size() > 0) {
+      byte b = buffer.getByte(0);
+      if (b >= 0) {
+        buffer.skip(1);
+        cbuf[off + count++] = (char) b;
+        continue;
+      }
+
+      int byteCount = utf8ByteCount(b);
+      if (buffer.size() < byteCount) {
+        if (count > 0) break; // Return what we have rather than block mid-read.
+        if (!source.request(byteCount)) {
+          buffer.skip(buffer.size()); // Truncated sequence at the end of the stream.
+          cbuf[off + count++] = REPLACEMENT_CHARACTER;
+          continue;
+        }
+      }
+
+      int codePoint = buffer.readUtf8CodePoint();
+      if (codePoint < 0x10000) {
+        cbuf[off + count++] = (char) codePoint;
+      } else {
+        // Split into a surrogate pair by hand. Character.highSurrogate() is not in Java 6.
+        cbuf[off + count++] = (char) (0xd800 + ((codePoint - 0x10000) >>> 10));
+        char low = (char) (0xdc00 + (codePoint & 0x3ff));
+        if (count < len) {
+          cbuf[off + count++] = low;
+        } else {
+          pendingLowSurrogate = low;
+        }
+      }
+    }
+    return count;
+  }
+
+  @Override public boolean ready() throws IOException {
+    return pendingLowSurrogate != 0 || source.buffer().size() > 0;
+  }
+
+  @Override public void close() throws IOException {
+    source.close();
+  }
+
+  private static int utf8ByteCount(byte b) {
+    if ((b & 0xe0) == 0xc0) return 2;
+    if ((b & 0xf0) == 0xe0) return 3;
+    if ((b & 0xf8) == 0xf0) return 4;
+    return 1; // Continuation or invalid lead byte; decodes to U+FFFD.
+  }
+}
@@ -32,6 +32,10 @@ import retrofit2.Retrofit;
  * all types. If you are mixing JSON serialization with something else (such as protocol buffers),
  * you must {@linkplain Retrofit.Builder#addConverterFactory(Converter.Factory) add this instance}
  * last to allow the other converters a chance to see their types.
+ * <p>
+ * {@link retrofit2.http.Streaming @Streaming} methods may declare {@code Iterator<T>} or
+ * {@link retrofit2.CloseableIterator CloseableIterator&lt;T&gt;} as their body type to decode a
+ * top-level JSON array one element at a time.
  */
 public final class GsonConverterFactory extends Converter.Factory {
   /**
@@ -57,9 +61,18 @@ public final class GsonConverterFactory extends Converter.Factory {
     this.gson = gson;
   }
 
+  @Override public boolean isCacheable() {
+    return true;
+  }
+
   @Override
   public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations,
       Retrofit retrofit) {
+    Type elementType = getStreamingElementType(type, annotations);
+    if (elementType != null) {
+      TypeAdapter<?> adapter = gson.getAdapter(TypeToken.get(elementType));
+      return new GsonStreamingResponseBodyConverter<>(gson, adapter);
+    }
     TypeAdapter<?> adapter = gson.getAdapter(TypeToken.get(type));
     return new GsonResponseBodyConverter<>(gson, adapter);
   }
@@ -19,17 +19,14 @@ import com.google.gson.Gson;
 import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonWriter;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
-import java.nio.charset.Charset;
 import okhttp3.MediaType;
 import okhttp3.RequestBody;
 import okio.Buffer;
+import okio.BufferedSink;
 import retrofit2.Converter;
 
 final class GsonRequestBodyConverter<T> implements Converter<T, RequestBody> {
   private static final MediaType MEDIA_TYPE = MediaType.parse("application/json; charset=UTF-8");
-  private static final Charset UTF_8 = Charset.forName("UTF-8");
 
   private final Gson gson;
   private final TypeAdapter<T> adapter;
@@ -41,10 +38,30 @@ final class GsonRequestBodyConverter<T> implements Converter<T, RequestBody> {
 
   @Override public RequestBody convert(T value) throws IOException {
     Buffer buffer = new Buffer();
-    Writer writer = new OutputStreamWriter(buffer.outputStream(), UTF_8);
-    JsonWriter jsonWriter = gson.newJsonWriter(writer);
+    JsonWriter jsonWriter = gson.newJsonWriter(new BufferedSinkWriter(buffer));
     adapter.write(jsonWriter, value);
     jsonWriter.close();
-    return RequestBody.create(MEDIA_TYPE, buffer.readByteString());
+    return new BufferRequestBody(buffer);
+  }
+
+  /** Writes a copy of the serialized body so that it can be written more than once. */
+  static final class BufferRequestBody extends RequestBody {
+    private final Buffer buffer;
+
+    BufferRequestBody(Buffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override public MediaType contentType() {
+      return MEDIA_TYPE;
+    }
+
+    @Override public long contentLength() {
+      return buffer.size();
+    }
+
+    @Override public void writeTo(BufferedSink sink) throws IOException {
+      sink.writeAll(buffer.clone());
+    }
   }
 }
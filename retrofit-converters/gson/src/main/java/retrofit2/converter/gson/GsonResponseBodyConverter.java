@@ -19,10 +19,15 @@ import com.google.gson.Gson;
 import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import okhttp3.MediaType;
 import okhttp3.ResponseBody;
 import retrofit2.Converter;
 
 final class GsonResponseBodyConverter<T> implements Converter<ResponseBody, T> {
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
   private final Gson gson;
   private final TypeAdapter<T> adapter;
 
@@ -32,11 +37,24 @@ final class GsonResponseBodyConverter<T> implements Converter<ResponseBody, T> {
   }
 
   @Override public T convert(ResponseBody value) throws IOException {
-    JsonReader jsonReader = gson.newJsonReader(value.charStream());
+    JsonReader jsonReader = gson.newJsonReader(reader(value));
     try {
       return adapter.read(jsonReader);
     } finally {
       value.close();
     }
   }
+
+  /**
+   * Returns a reader for {@code value}. UTF-8 bodies, including those which declare no charset, are
+   * decoded straight from the body's source.
+   */
+  static Reader reader(ResponseBody value) {
+    MediaType contentType = value.contentType();
+    Charset charset = contentType != null ? contentType.charset(UTF_8) : UTF_8;
+    if (UTF_8.equals(charset)) {
+      return new BufferedSourceReader(value.source());
+    }
+    return value.charStream();
+  }
 }
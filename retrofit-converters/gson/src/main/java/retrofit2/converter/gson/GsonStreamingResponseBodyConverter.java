@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2016 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.converter.gson;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.util.NoSuchElementException;
+import okhttp3.ResponseBody;
+import retrofit2.CloseableIterator;
+import retrofit2.Converter;
+
+final class GsonStreamingResponseBodyConverter<T>
+    implements Converter<ResponseBody, CloseableIterator<T>> {
+  private final Gson gson;
+  private final TypeAdapter<T> adapter;
+
+  GsonStreamingResponseBodyConverter(Gson gson, TypeAdapter<T> adapter) {
+    this.gson = gson;
+    this.adapter = adapter;
+  }
+
+  @Override public CloseableIterator<T> convert(ResponseBody value) throws IOException {
+    JsonReader jsonReader = gson.newJsonReader(GsonResponseBodyConverter.reader(value));
+    try {
+      jsonReader.beginArray();
+    } catch (IOException | RuntimeException e) {
+      value.close();
+      throw e;
+    }
+    return new ElementIterator<>(value, jsonReader, adapter);
+  }
+
+  static final class ElementIterator<T> implements CloseableIterator<T> {
+    private final ResponseBody body;
+    private final JsonReader jsonReader;
+    private final TypeAdapter<T> adapter;
+    private boolean closed;
+
+    ElementIterator(ResponseBody body, JsonReader jsonReader, TypeAdapter<T> adapter) {
+      this.body = body;
+      this.jsonReader = jsonReader;
+      this.adapter = adapter;
+    }
+
+    @Override public boolean hasNext() {
+      if (closed) return false;
+      try {
+        if (jsonReader.peek() != JsonToken.END_ARRAY) {
+          return true;
+        }
+        jsonReader.endArray();
+        close();
+        return false;
+      } catch (IOException e) {
+        close();
+        throw new JsonIOException(e);
+      } catch (RuntimeException e) {
+        close();
+        throw e;
+      }
+    }
+
+    @Override public T next() {
+      if (!hasNext()) throw new NoSuchElementException();
+      try {
+        return adapter.read(jsonReader);
+      } catch (IOException e) {
+        close();
+        throw new JsonIOException(e);
+      } catch (RuntimeException e) {
+        close();
+        throw e;
+      }
+    }
+
+    @Override public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override public void close() {
+      if (!closed) {
+        closed = true;
+        body.close();
+      }
+    }
+  }
+}
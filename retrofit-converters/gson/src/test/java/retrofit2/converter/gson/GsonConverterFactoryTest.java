@@ -22,17 +22,26 @@ import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import okhttp3.RequestBody;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import retrofit2.Call;
+import retrofit2.CloseableIterator;
+import retrofit2.Converter;
 import retrofit2.Response;
 import retrofit2.Retrofit;
 import retrofit2.http.Body;
+import retrofit2.http.GET;
 import retrofit2.http.POST;
+import retrofit2.http.Streaming;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -80,10 +89,13 @@ public final class GsonConverterFactoryTest {
   interface Service {
     @POST("/") Call<AnImplementation> anImplementation(@Body AnImplementation impl);
     @POST("/") Call<AnInterface> anInterface(@Body AnInterface impl);
+    @GET("/") @Streaming Call<Iterator<AnImplementation>> anImplementationIterator();
+    @GET("/") @Streaming Call<CloseableIterator<AnInterface>> anInterfaceIterator();
   }
 
   @Rule public final MockWebServer server = new MockWebServer();
 
+  private Retrofit retrofit;
   private Service service;
 
   @Before public void setUp() {
@@ -91,7 +103,7 @@ public final class GsonConverterFactoryTest {
         .registerTypeAdapter(AnInterface.class, new AnInterfaceAdapter())
         .setLenient()
         .create();
-    Retrofit retrofit = new Retrofit.Builder()
+    retrofit = new Retrofit.Builder()
         .baseUrl(server.url("/"))
         .addConverterFactory(GsonConverterFactory.create(gson))
         .build();
@@ -124,6 +136,20 @@ public final class GsonConverterFactoryTest {
     assertThat(request.getHeader("Content-Type")).isEqualTo("application/json; charset=UTF-8");
   }
 
+  @Test public void requestBodyCanBeWrittenMoreThanOnce() throws IOException {
+    Converter<AnImplementation, RequestBody> converter =
+        retrofit.requestBodyConverter(AnImplementation.class, new Annotation[0], new Annotation[0]);
+    RequestBody body = converter.convert(new AnImplementation("value"));
+    assertThat(body.contentLength()).isEqualTo(19);
+
+    Buffer first = new Buffer();
+    body.writeTo(first);
+    assertThat(first.readUtf8()).isEqualTo("{\"theName\":\"value\"}");
+    Buffer second = new Buffer();
+    body.writeTo(second);
+    assertThat(second.readUtf8()).isEqualTo("{\"theName\":\"value\"}");
+  }
+
   @Test public void serializeUsesConfiguration() throws IOException, InterruptedException {
     server.enqueue(new MockResponse().setBody("{}"));
 
@@ -141,4 +167,53 @@ public final class GsonConverterFactoryTest {
         service.anImplementation(new AnImplementation("value")).execute();
     assertThat(response.body().getName()).isNull();
   }
+
+  @Test public void streamingIterator() throws IOException {
+    server.enqueue(new MockResponse().setBody("[{\"theName\":\"one\"},{\"theName\":\"two\"}]"));
+
+    Iterator<AnImplementation> body = service.anImplementationIterator().execute().body();
+    assertThat(body.hasNext()).isTrue();
+    assertThat(body.next().theName).isEqualTo("one");
+    assertThat(body.next().theName).isEqualTo("two");
+    assertThat(body.hasNext()).isFalse();
+  }
+
+  @Test public void streamingIteratorClosedEarly() throws IOException {
+    server.enqueue(new MockResponse().setBody("[{\"name\":\"one\"},{\"name\":\"two\"}]"));
+
+    CloseableIterator<AnInterface> body = service.anInterfaceIterator().execute().body();
+    assertThat(body.next().getName()).isEqualTo("one");
+    body.close();
+    assertThat(body.hasNext()).isFalse();
+  }
+
+  @Test public void nonAsciiRoundTrip() throws IOException, InterruptedException {
+    // Long enough to span several segments so multi-byte sequences straddle their boundaries.
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 2000; i++) {
+      builder.append("caf\u00e9 \u4e2d\ud83d\ude00 ");
+    }
+    String name = builder.toString();
+    String json = "{\"theName\":\"" + name + "\"}";
+    server.enqueue(new MockResponse().setBody(new Buffer().writeUtf8(json)));
+
+    Response<AnImplementation> response =
+        service.anImplementation(new AnImplementation(name)).execute();
+    assertThat(response.body().theName).isEqualTo(name);
+
+    RecordedRequest request = server.takeRequest();
+    assertThat(request.getBody().readUtf8()).isEqualTo(json);
+  }
+
+  @Test public void deserializeHonorsDeclaredCharset() throws IOException {
+    Buffer latin1 = new Buffer()
+        .writeString("{\"theName\":\"caf\u00e9\"}", Charset.forName("ISO-8859-1"));
+    server.enqueue(new MockResponse()
+        .setHeader("Content-Type", "application/json; charset=ISO-8859-1")
+        .setBody(latin1));
+
+    Response<AnImplementation> response =
+        service.anImplementation(new AnImplementation("value")).execute();
+    assertThat(response.body().theName).isEqualTo("caf\u00e9");
+  }
 }
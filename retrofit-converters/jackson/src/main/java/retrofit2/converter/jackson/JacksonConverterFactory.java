@@ -15,12 +15,15 @@
  */
 package retrofit2.converter.jackson;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import okhttp3.RequestBody;
 import okhttp3.ResponseBody;
 import retrofit2.Converter;
@@ -33,6 +36,17 @@ import retrofit2.Retrofit;
  * handle all types. If you are mixing JSON serialization with something else (such as protocol
  * buffers), you must {@linkplain Retrofit.Builder#addConverterFactory(Converter.Factory) add this
  * instance} last to allow the other converters a chance to see their types.
+ * <p>
+ * {@link retrofit2.http.Streaming @Streaming} methods may declare {@code Iterator<T>} or
+ * {@link retrofit2.CloseableIterator CloseableIterator&lt;T&gt;} as their body type to decode a
+ * top-level JSON array one element at a time.
+ * <p>
+ * Instances from {@link #createDirect()} parse response bodies from their bytes with Jackson's
+ * UTF-8 parser instead of through a decoding {@link java.io.Reader Reader}, unless the body
+ * declares a different charset. They also serialize request bodies straight to the connection
+ * without an intermediate {@code byte[]}. This means request bodies are serialized each time they
+ * are written and have no known length. Serialization errors are reported when the request is
+ * sent rather than when the call is created.
  */
 public final class JacksonConverterFactory extends Converter.Factory {
   /** Create an instance using a default {@link ObjectMapper} instance for conversion. */
@@ -42,29 +56,77 @@ public final class JacksonConverterFactory extends Converter.Factory {
 
   /** Create an instance using {@code mapper} for conversion. */
   public static JacksonConverterFactory create(ObjectMapper mapper) {
-    return new JacksonConverterFactory(mapper);
+    return new JacksonConverterFactory(mapper, false);
+  }
+
+  /**
+   * Create an instance which reads and writes bytes directly using a default {@link ObjectMapper}
+   * instance for conversion.
+   */
+  public static JacksonConverterFactory createDirect() {
+    return createDirect(new ObjectMapper());
+  }
+
+  /** Create an instance which reads and writes bytes directly using {@code mapper}. */
+  public static JacksonConverterFactory createDirect(ObjectMapper mapper) {
+    return new JacksonConverterFactory(mapper, true);
   }
 
   private final ObjectMapper mapper;
+  private final boolean direct;
+  private final ConcurrentMap<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+  private final ConcurrentMap<Type, ObjectWriter> writers = new ConcurrentHashMap<>();
 
-  private JacksonConverterFactory(ObjectMapper mapper) {
+  private JacksonConverterFactory(ObjectMapper mapper, boolean direct) {
     if (mapper == null) throw new NullPointerException("mapper == null");
     this.mapper = mapper;
+    this.direct = direct;
+  }
+
+  @Override public boolean isCacheable() {
+    return true;
   }
 
   @Override
   public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations,
       Retrofit retrofit) {
-    JavaType javaType = mapper.getTypeFactory().constructType(type);
-    ObjectReader reader = mapper.reader(javaType);
-    return new JacksonResponseBodyConverter<>(reader);
+    Type elementType = getStreamingElementType(type, annotations);
+    if (elementType != null) {
+      return new JacksonStreamingResponseBodyConverter<>(reader(elementType), direct);
+    }
+    return new JacksonResponseBodyConverter<>(reader(type), direct);
   }
 
   @Override
   public Converter<?, RequestBody> requestBodyConverter(Type type,
       Annotation[] parameterAnnotations, Annotation[] methodAnnotations, Retrofit retrofit) {
-    JavaType javaType = mapper.getTypeFactory().constructType(type);
-    ObjectWriter writer = mapper.writerWithType(javaType);
-    return new JacksonRequestBodyConverter<>(writer);
+    return new JacksonRequestBodyConverter<>(writer(type), direct);
+  }
+
+  /** Readers are immutable and thread-safe so one is shared by every method which reads a type. */
+  private ObjectReader reader(Type type) {
+    ObjectReader reader = readers.get(type);
+    if (reader == null) {
+      JavaType javaType = mapper.getTypeFactory().constructType(type);
+      reader = mapper.reader(javaType);
+      ObjectReader existing = readers.putIfAbsent(type, reader);
+      if (existing != null) reader = existing;
+    }
+    return reader;
+  }
+
+  private ObjectWriter writer(Type type) {
+    ObjectWriter writer = writers.get(type);
+    if (writer == null) {
+      JavaType javaType = mapper.getTypeFactory().constructType(type);
+      writer = mapper.writerWithType(javaType);
+      if (direct) {
+        // Direct writes target the request's sink, which belongs to the caller.
+        writer = writer.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      }
+      ObjectWriter existing = writers.putIfAbsent(type, writer);
+      if (existing != null) writer = existing;
+    }
+    return writer;
   }
 }
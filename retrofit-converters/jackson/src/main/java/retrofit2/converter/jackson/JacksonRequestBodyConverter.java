@@ -19,18 +19,33 @@ import com.fasterxml.jackson.databind.ObjectWriter;
 import java.io.IOException;
 import okhttp3.MediaType;
 import okhttp3.RequestBody;
+import okio.BufferedSink;
 import retrofit2.Converter;
 
 final class JacksonRequestBodyConverter<T> implements Converter<T, RequestBody> {
   private static final MediaType MEDIA_TYPE = MediaType.parse("application/json; charset=UTF-8");
 
   private final ObjectWriter adapter;
+  private final boolean direct;
 
-  JacksonRequestBodyConverter(ObjectWriter adapter) {
+  JacksonRequestBodyConverter(ObjectWriter adapter, boolean direct) {
     this.adapter = adapter;
+    this.direct = direct;
   }
 
-  @Override public RequestBody convert(T value) throws IOException {
+  @Override public RequestBody convert(final T value) throws IOException {
+    if (direct) {
+      return new RequestBody() {
+        @Override public MediaType contentType() {
+          return MEDIA_TYPE;
+        }
+
+        @Override public void writeTo(BufferedSink sink) throws IOException {
+          // The adapter does not close its target so the sink stays open for the caller.
+          adapter.writeValue(sink.outputStream(), value);
+        }
+      };
+    }
     byte[] bytes = adapter.writeValueAsBytes(value);
     return RequestBody.create(MEDIA_TYPE, bytes);
   }
@@ -17,21 +17,40 @@ package retrofit2.converter.jackson;
 
 import com.fasterxml.jackson.databind.ObjectReader;
 import java.io.IOException;
+import java.nio.charset.Charset;
+import okhttp3.MediaType;
 import okhttp3.ResponseBody;
 import retrofit2.Converter;
 
 final class JacksonResponseBodyConverter<T> implements Converter<ResponseBody, T> {
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
   private final ObjectReader adapter;
+  private final boolean direct;
 
-  JacksonResponseBodyConverter(ObjectReader adapter) {
+  JacksonResponseBodyConverter(ObjectReader adapter, boolean direct) {
     this.adapter = adapter;
+    this.direct = direct;
   }
 
   @Override public T convert(ResponseBody value) throws IOException {
     try {
+      if (direct && isUtf8(value)) {
+        return adapter.readValue(value.byteStream());
+      }
       return adapter.readValue(value.charStream());
     } finally {
       value.close();
     }
   }
+
+  /**
+   * True if the body's bytes can be handed to Jackson's UTF-8 parser. Bodies which declare another
+   * charset are decoded by a reader instead.
+   */
+  static boolean isUtf8(ResponseBody value) {
+    MediaType contentType = value.contentType();
+    Charset charset = contentType != null ? contentType.charset(UTF_8) : UTF_8;
+    return UTF_8.equals(charset);
+  }
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2016 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.converter.jackson;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.util.NoSuchElementException;
+import okhttp3.ResponseBody;
+import retrofit2.CloseableIterator;
+import retrofit2.Converter;
+
+final class JacksonStreamingResponseBodyConverter<T>
+    implements Converter<ResponseBody, CloseableIterator<T>> {
+  private final ObjectReader adapter;
+  private final boolean direct;
+
+  JacksonStreamingResponseBodyConverter(ObjectReader adapter, boolean direct) {
+    this.adapter = adapter;
+    this.direct = direct;
+  }
+
+  @Override public CloseableIterator<T> convert(ResponseBody value) throws IOException {
+    MappingIterator<T> iterator;
+    try {
+      // A top-level array is unwrapped and its elements are read one at a time.
+      iterator = direct && JacksonResponseBodyConverter.isUtf8(value)
+          ? adapter.<T>readValues(value.byteStream())
+          : adapter.<T>readValues(value.charStream());
+    } catch (IOException | RuntimeException e) {
+      value.close();
+      throw e;
+    }
+    return new ElementIterator<>(value, iterator);
+  }
+
+  static final class ElementIterator<T> implements CloseableIterator<T> {
+    private final ResponseBody body;
+    private final MappingIterator<T> delegate;
+    private boolean closed;
+
+    ElementIterator(ResponseBody body, MappingIterator<T> delegate) {
+      this.body = body;
+      this.delegate = delegate;
+    }
+
+    @Override public boolean hasNext() {
+      if (closed) return false;
+      try {
+        if (delegate.hasNext()) {
+          return true;
+        }
+        close();
+        return false;
+      } catch (RuntimeException e) {
+        close();
+        throw e;
+      }
+    }
+
+    @Override public T next() {
+      if (!hasNext()) throw new NoSuchElementException();
+      try {
+        return delegate.next();
+      } catch (RuntimeException e) {
+        close();
+        throw e;
+      }
+    }
+
+    @Override public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override public void close() {
+      if (!closed) {
+        closed = true;
+        try {
+          delegate.close();
+        } catch (IOException ignored) {
+        }
+        body.close();
+      }
+    }
+  }
+}
@@ -27,18 +27,24 @@ import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Iterator;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import retrofit2.Call;
+import retrofit2.CloseableIterator;
 import retrofit2.Response;
 import retrofit2.Retrofit;
 import retrofit2.converter.jackson.JacksonConverterFactory;
 import retrofit2.http.Body;
+import retrofit2.http.GET;
 import retrofit2.http.POST;
+import retrofit2.http.Streaming;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -104,11 +110,14 @@ public class JacksonConverterFactoryTest {
   interface Service {
     @POST("/") Call<AnImplementation> anImplementation(@Body AnImplementation impl);
     @POST("/") Call<AnInterface> anInterface(@Body AnInterface impl);
+    @GET("/") @Streaming Call<Iterator<AnImplementation>> anImplementationIterator();
+    @GET("/") @Streaming Call<CloseableIterator<AnInterface>> anInterfaceIterator();
   }
 
   @Rule public final MockWebServer server = new MockWebServer();
 
   private Service service;
+  private Service directService;
 
   @Before public void setUp() {
     SimpleModule module = new SimpleModule();
@@ -128,6 +137,12 @@ public class JacksonConverterFactoryTest {
         .addConverterFactory(JacksonConverterFactory.create(mapper))
         .build();
     service = retrofit.create(Service.class);
+
+    Retrofit directRetrofit = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(JacksonConverterFactory.createDirect(mapper))
+        .build();
+    directService = directRetrofit.create(Service.class);
   }
 
   @Test public void anInterface() throws IOException, InterruptedException {
@@ -156,4 +171,58 @@ public class JacksonConverterFactoryTest {
     assertThat(request.getBody().readUtf8()).isEqualTo("{\"name\":\"value\"}");
     assertThat(request.getHeader("Content-Type")).isEqualTo("application/json; charset=UTF-8");
   }
+
+  @Test public void streamingIterator() throws IOException {
+    server.enqueue(new MockResponse().setBody("[{\"theName\":\"one\"},{\"theName\":\"two\"}]"));
+
+    Iterator<AnImplementation> body = service.anImplementationIterator().execute().body();
+    assertThat(body.hasNext()).isTrue();
+    assertThat(body.next().theName).isEqualTo("one");
+    assertThat(body.next().theName).isEqualTo("two");
+    assertThat(body.hasNext()).isFalse();
+  }
+
+  @Test public void streamingIteratorClosedEarly() throws IOException {
+    server.enqueue(new MockResponse().setBody("[{\"name\":\"one\"},{\"name\":\"two\"}]"));
+
+    CloseableIterator<AnInterface> body = service.anInterfaceIterator().execute().body();
+    assertThat(body.next().getName()).isEqualTo("one");
+    body.close();
+    assertThat(body.hasNext()).isFalse();
+  }
+
+  @Test public void directAnInterface() throws IOException, InterruptedException {
+    server.enqueue(new MockResponse().setBody("{\"name\":\"value\"}"));
+
+    Call<AnInterface> call = directService.anInterface(new AnImplementation("value"));
+    Response<AnInterface> response = call.execute();
+    AnInterface body = response.body();
+    assertThat(body.getName()).isEqualTo("value");
+
+    RecordedRequest request = server.takeRequest();
+    assertThat(request.getBody().readUtf8()).isEqualTo("{\"name\":\"value\"}");
+    assertThat(request.getHeader("Content-Type")).isEqualTo("application/json; charset=UTF-8");
+    assertThat(request.getHeader("Transfer-Encoding")).isEqualTo("chunked");
+  }
+
+  @Test public void directHonorsDeclaredCharset() throws IOException {
+    Buffer latin1 = new Buffer()
+        .writeString("{\"theName\":\"caf\u00e9\"}", Charset.forName("ISO-8859-1"));
+    server.enqueue(new MockResponse()
+        .setHeader("Content-Type", "application/json; charset=ISO-8859-1")
+        .setBody(latin1));
+
+    Response<AnImplementation> response =
+        directService.anImplementation(new AnImplementation("value")).execute();
+    assertThat(response.body().theName).isEqualTo("caf\u00e9");
+  }
+
+  @Test public void directStreamingIterator() throws IOException {
+    server.enqueue(new MockResponse().setBody("[{\"theName\":\"one\"},{\"theName\":\"two\"}]"));
+
+    Iterator<AnImplementation> body = directService.anImplementationIterator().execute().body();
+    assertThat(body.next().theName).isEqualTo("one");
+    assertThat(body.next().theName).isEqualTo("two");
+    assertThat(body.hasNext()).isFalse();
+  }
 }
@@ -31,6 +31,10 @@ import retrofit2.Retrofit;
  * all types. If you are mixing JSON serialization with something else (such as protocol buffers),
  * you must {@linkplain Retrofit.Builder#addConverterFactory(Converter.Factory) add this instance}
  * last to allow the other converters a chance to see their types.
+ * <p>
+ * {@link retrofit2.http.Streaming @Streaming} methods may declare {@code Iterator<T>} or
+ * {@link retrofit2.CloseableIterator CloseableIterator&lt;T&gt;} as their body type to decode a
+ * top-level JSON array one element at a time.
  */
 public final class MoshiConverterFactory extends Converter.Factory {
   /** Create an instance using a default {@link Moshi} instance for conversion. */
@@ -57,9 +61,18 @@ public final class MoshiConverterFactory extends Converter.Factory {
     return new MoshiConverterFactory(moshi, true);
   }
 
+  @Override public boolean isCacheable() {
+    return true;
+  }
+
   @Override
   public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations,
       Retrofit retrofit) {
+    Type elementType = getStreamingElementType(type, annotations);
+    if (elementType != null) {
+      JsonAdapter<?> adapter = moshi.adapter(elementType);
+      return new MoshiStreamingResponseBodyConverter<>(adapter, lenient);
+    }
     JsonAdapter<?> adapter = moshi.adapter(type);
     if (lenient) {
       adapter = adapter.lenient();
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2016 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.converter.moshi;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import java.io.IOException;
+import java.util.NoSuchElementException;
+import okhttp3.ResponseBody;
+import retrofit2.CloseableIterator;
+import retrofit2.Converter;
+
+final class MoshiStreamingResponseBodyConverter<T>
+    implements Converter<ResponseBody, CloseableIterator<T>> {
+  private final JsonAdapter<T> adapter;
+  private final boolean lenient;
+
+  MoshiStreamingResponseBodyConverter(JsonAdapter<T> adapter, boolean lenient) {
+    this.adapter = adapter;
+    this.lenient = lenient;
+  }
+
+  @Override public CloseableIterator<T> convert(ResponseBody value) throws IOException {
+    JsonReader reader = new JsonReader(value.source());
+    reader.setLenient(lenient);
+    try {
+      reader.beginArray();
+    } catch (IOException | RuntimeException e) {
+      value.close();
+      throw e;
+    }
+    return new ElementIterator<>(value, reader, adapter);
+  }
+
+  static final class ElementIterator<T> implements CloseableIterator<T> {
+    private final ResponseBody body;
+    private final JsonReader reader;
+    private final JsonAdapter<T> adapter;
+    private boolean closed;
+
+    ElementIterator(ResponseBody body, JsonReader reader, JsonAdapter<T> adapter) {
+      this.body = body;
+      this.reader = reader;
+      this.adapter = adapter;
+    }
+
+    @Override public boolean hasNext() {
+      if (closed) return false;
+      try {
+        if (reader.peek() != JsonReader.Token.END_ARRAY) {
+          return true;
+        }
+        reader.endArray();
+        close();
+        return false;
+      } catch (IOException e) {
+        close();
+        throw new RuntimeException(e);
+      } catch (RuntimeException e) {
+        close();
+        throw e;
+      }
+    }
+
+    @Override public T next() {
+      if (!hasNext()) throw new NoSuchElementException();
+      try {
+        return adapter.fromJson(reader);
+      } catch (IOException e) {
+        close();
+        throw new RuntimeException(e);
+      } catch (RuntimeException e) {
+        close();
+        throw e;
+      }
+    }
+
+    @Override public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override public void close() {
+      if (!closed) {
+        closed = true;
+        body.close();
+      }
+    }
+  }
+}
@@ -21,6 +21,7 @@ import com.squareup.moshi.JsonWriter;
 import com.squareup.moshi.Moshi;
 import com.squareup.moshi.ToJson;
 import java.io.IOException;
+import java.util.Iterator;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
@@ -28,10 +29,13 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import retrofit2.Call;
+import retrofit2.CloseableIterator;
 import retrofit2.Response;
 import retrofit2.Retrofit;
 import retrofit2.http.Body;
+import retrofit2.http.GET;
 import retrofit2.http.POST;
+import retrofit2.http.Streaming;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
@@ -81,6 +85,8 @@ public final class MoshiConverterFactoryTest {
   interface Service {
     @POST("/") Call<AnImplementation> anImplementation(@Body AnImplementation impl);
     @POST("/") Call<AnInterface> anInterface(@Body AnInterface impl);
+    @GET("/") @Streaming Call<Iterator<AnImplementation>> anImplementationIterator();
+    @GET("/") @Streaming Call<CloseableIterator<AnInterface>> anInterfaceIterator();
   }
 
   @Rule public final MockWebServer server = new MockWebServer();
@@ -151,4 +157,23 @@ public final class MoshiConverterFactoryTest {
     AnImplementation body = response.body();
     assertThat(body.theName).isEqualTo("value");
   }
+
+  @Test public void streamingIterator() throws IOException {
+    server.enqueue(new MockResponse().setBody("[{\"theName\":\"one\"},{\"theName\":\"two\"}]"));
+
+    Iterator<AnImplementation> body = service.anImplementationIterator().execute().body();
+    assertThat(body.hasNext()).isTrue();
+    assertThat(body.next().theName).isEqualTo("one");
+    assertThat(body.next().theName).isEqualTo("two");
+    assertThat(body.hasNext()).isFalse();
+  }
+
+  @Test public void streamingIteratorClosedEarly() throws IOException {
+    server.enqueue(new MockResponse().setBody("[{\"name\":\"one\"},{\"name\":\"two\"}]"));
+
+    CloseableIterator<AnInterface> body = service.anInterfaceIterator().execute().body();
+    assertThat(body.next().getName()).isEqualTo("one");
+    body.close();
+    assertThat(body.hasNext()).isFalse();
+  }
 }
@@ -20,6 +20,7 @@ import com.google.protobuf.MessageLite;
 import com.google.protobuf.Parser;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import okhttp3.RequestBody;
 import okhttp3.ResponseBody;
@@ -31,6 +32,12 @@ import retrofit2.Retrofit;
  * <p>
  * This converter only applies for types which extend from {@link MessageLite} (or one of its
  * subclasses).
+ * <p>
+ * Streams of length-delimited messages, as written by {@link MessageLite#writeDelimitedTo}, are
+ * also supported. {@link retrofit2.http.Streaming @Streaming} methods may declare
+ * {@code Iterator<T>} or {@link retrofit2.CloseableIterator CloseableIterator&lt;T&gt;} as their
+ * body type to decode one message at a time, and an {@link Iterable} of messages (such as a
+ * {@code List<T>}) is encoded as a delimited stream when used as a request body.
  */
 public final class ProtoConverterFactory extends Converter.Factory {
   public static ProtoConverterFactory create() {
@@ -48,38 +55,54 @@ public final class ProtoConverterFactory extends Converter.Factory {
     this.registry = registry;
   }
 
+  @Override public boolean isCacheable() {
+    return true;
+  }
+
   @Override
   public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations,
       Retrofit retrofit) {
-    if (!(type instanceof Class<?>)) {
-      return null;
+    Type elementType = getStreamingElementType(type, annotations);
+    if (elementType != null) {
+      if (!isMessage(elementType)) {
+        return null;
+      }
+      return new ProtoStreamingResponseBodyConverter<>(parser((Class<?>) elementType), registry);
     }
-    Class<?> c = (Class<?>) type;
-    if (!MessageLite.class.isAssignableFrom(c)) {
+    if (!isMessage(type)) {
       return null;
     }
-
-    Parser<MessageLite> parser;
-    try {
-      Field field = c.getDeclaredField("PARSER");
-      //noinspection unchecked
-      parser = (Parser<MessageLite>) field.get(null);
-    } catch (NoSuchFieldException | IllegalAccessException e) {
-      throw new IllegalArgumentException(
-          "Found a protobuf message but " + c.getName() + " had no PARSER field.");
-    }
-    return new ProtoResponseBodyConverter<>(parser, registry);
+    return new ProtoResponseBodyConverter<>(parser((Class<?>) type), registry);
   }
 
   @Override
   public Converter<?, RequestBody> requestBodyConverter(Type type,
       Annotation[] parameterAnnotations, Annotation[] methodAnnotations, Retrofit retrofit) {
-    if (!(type instanceof Class<?>)) {
-      return null;
+    if (type instanceof ParameterizedType && Iterable.class.isAssignableFrom(getRawType(type))) {
+      Type elementType = getParameterUpperBound(0, (ParameterizedType) type);
+      if (!isMessage(elementType)) {
+        return null;
+      }
+      return new ProtoDelimitedRequestBodyConverter<>();
     }
-    if (!MessageLite.class.isAssignableFrom((Class<?>) type)) {
+    if (!isMessage(type)) {
       return null;
     }
     return new ProtoRequestBodyConverter<>();
   }
+
+  private static boolean isMessage(Type type) {
+    return type instanceof Class<?> && MessageLite.class.isAssignableFrom((Class<?>) type);
+  }
+
+  private static Parser<MessageLite> parser(Class<?> c) {
+    try {
+      Field field = c.getDeclaredField("PARSER");
+      //noinspection unchecked
+      return (Parser<MessageLite>) field.get(null);
+    } catch (NoSuchFieldException | IllegalAccessException e) {
+      throw new IllegalArgumentException(
+          "Found a protobuf message but " + c.getName() + " had no PARSER field.");
+    }
+  }
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.converter.protobuf;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.MessageLite;
+import java.io.IOException;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import retrofit2.Converter;
+
+/**
+ * Encodes an {@link Iterable} of messages as a length-delimited stream. Messages are written as
+ * the body is sent, so the iterable is traversed once each time the request is transmitted and
+ * is never copied.
+ */
+final class ProtoDelimitedRequestBodyConverter<T extends MessageLite>
+    implements Converter<Iterable<T>, RequestBody> {
+  private static final MediaType MEDIA_TYPE = MediaType.parse("application/x-protobuf");
+
+  @Override public RequestBody convert(final Iterable<T> value) throws IOException {
+    return new RequestBody() {
+      @Override public MediaType contentType() {
+        return MEDIA_TYPE;
+      }
+
+      @Override public void writeTo(BufferedSink sink) throws IOException {
+        // One coded stream for the whole body, rather than one per message as writeDelimitedTo uses.
+        CodedOutputStream output = CodedOutputStream.newInstance(sink.outputStream());
+        for (T message : value) {
+          output.writeRawVarint32(message.getSerializedSize());
+          message.writeTo(output);
+        }
+        output.flush();
+      }
+    };
+  }
+}
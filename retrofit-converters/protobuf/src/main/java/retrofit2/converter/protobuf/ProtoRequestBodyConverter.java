@@ -19,13 +19,27 @@ import com.google.protobuf.MessageLite;
 import java.io.IOException;
 import okhttp3.MediaType;
 import okhttp3.RequestBody;
+import okio.BufferedSink;
 import retrofit2.Converter;
 
 final class ProtoRequestBodyConverter<T extends MessageLite> implements Converter<T, RequestBody> {
   private static final MediaType MEDIA_TYPE = MediaType.parse("application/x-protobuf");
 
-  @Override public RequestBody convert(T value) throws IOException {
-    byte[] bytes = value.toByteArray();
-    return RequestBody.create(MEDIA_TYPE, bytes);
+  @Override public RequestBody convert(final T value) throws IOException {
+    // Messages are immutable and memoize their size, so the body is encoded straight into the
+    // sink each time it is written rather than copied into a byte array up front.
+    return new RequestBody() {
+      @Override public MediaType contentType() {
+        return MEDIA_TYPE;
+      }
+
+      @Override public long contentLength() {
+        return value.getSerializedSize();
+      }
+
+      @Override public void writeTo(BufferedSink sink) throws IOException {
+        value.writeTo(sink.outputStream());
+      }
+    };
   }
 }
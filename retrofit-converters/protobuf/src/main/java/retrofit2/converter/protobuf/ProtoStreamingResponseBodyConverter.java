@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.converter.protobuf;
+
+import com.google.protobuf.ExtensionRegistryLite;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.Parser;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.NoSuchElementException;
+import okhttp3.ResponseBody;
+import retrofit2.CloseableIterator;
+import retrofit2.Converter;
+
+/**
+ * Decodes a body of length-delimited messages, as written by
+ * {@link MessageLite#writeDelimitedTo}, one message at a time.
+ */
+final class ProtoStreamingResponseBodyConverter<T extends MessageLite>
+    implements Converter<ResponseBody, CloseableIterator<T>> {
+  private final Parser<T> parser;
+  private final ExtensionRegistryLite registry;
+
+  ProtoStreamingResponseBodyConverter(Parser<T> parser, ExtensionRegistryLite registry) {
+    this.parser = parser;
+    this.registry = registry;
+  }
+
+  @Override public CloseableIterator<T> convert(ResponseBody value) throws IOException {
+    return new ElementIterator<>(value, parser, registry);
+  }
+
+  static final class ElementIterator<T extends MessageLite> implements CloseableIterator<T> {
+    private final ResponseBody body;
+    private final InputStream stream;
+    private final Parser<T> parser;
+    private final ExtensionRegistryLite registry;
+    /** The next message to return, or null if it has not been read yet. */
+    private T next;
+    private boolean closed;
+
+    ElementIterator(ResponseBody body, Parser<T> parser, ExtensionRegistryLite registry) {
+      this.body = body;
+      this.stream = body.byteStream();
+      this.parser = parser;
+      this.registry = registry;
+    }
+
+    @Override public boolean hasNext() {
+      if (next != null) return true;
+      if (closed) return false;
+      try {
+        // Returns null if the stream ends cleanly between messages.
+        next = parser.parseDelimitedFrom(stream, registry);
+      } catch (IOException e) {
+        close();
+        throw new RuntimeException(e);
+      } catch (RuntimeException e) {
+        close();
+        throw e;
+      }
+      if (next == null) {
+        close();
+        return false;
+      }
+      return true;
+    }
+
+    @Override public T next() {
+      if (!hasNext()) throw new NoSuchElementException();
+      T result = next;
+      next = null;
+      return result;
+    }
+
+    @Override public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override public void close() {
+      if (!closed) {
+        closed = true;
+        next = null;
+        body.close();
+      }
+    }
+  }
+}
@@ -18,6 +18,8 @@ package retrofit2.converter.protobuf;
 import com.google.protobuf.ExtensionRegistry;
 import com.google.protobuf.InvalidProtocolBufferException;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
@@ -28,11 +30,13 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import retrofit2.Call;
+import retrofit2.CloseableIterator;
 import retrofit2.Response;
 import retrofit2.Retrofit;
 import retrofit2.http.Body;
 import retrofit2.http.GET;
 import retrofit2.http.POST;
+import retrofit2.http.Streaming;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.fail;
@@ -44,6 +48,9 @@ public final class ProtoConverterFactoryTest {
     @POST("/") Call<Phone> post(@Body Phone impl);
     @GET("/") Call<String> wrongClass();
     @GET("/") Call<List<String>> wrongType();
+    @GET("/") @Streaming Call<Iterator<Phone>> stream();
+    @GET("/") @Streaming Call<CloseableIterator<Phone>> closeableStream();
+    @POST("/") Call<Phone> postAll(@Body List<Phone> phones);
   }
   interface ServiceWithRegistry {
     @GET("/") Call<Phone> get();
@@ -82,6 +89,7 @@ public final class ProtoConverterFactoryTest {
     RecordedRequest request = server.takeRequest();
     assertThat(request.getBody().readByteString()).isEqualTo(encoded);
     assertThat(request.getHeader("Content-Type")).isEqualTo("application/x-protobuf");
+    assertThat(request.getHeader("Content-Length")).isEqualTo(String.valueOf(encoded.size()));
   }
 
   @Test public void deserializeEmpty() throws IOException {
@@ -155,4 +163,51 @@ public final class ProtoConverterFactoryTest {
           .hasMessageContaining("input ended unexpectedly");
     }
   }
+
+  @Test public void deserializeDelimitedStream() throws IOException {
+    Buffer buffer = new Buffer();
+    Phone.newBuilder().setNumber("(519) 867-5309").build().writeDelimitedTo(buffer.outputStream());
+    Phone.newBuilder().setNumber("(416) 555-0199").build().writeDelimitedTo(buffer.outputStream());
+    server.enqueue(new MockResponse().setBody(buffer));
+
+    Iterator<Phone> body = service.stream().execute().body();
+    assertThat(body.hasNext()).isTrue();
+    assertThat(body.next().getNumber()).isEqualTo("(519) 867-5309");
+    assertThat(body.next().getNumber()).isEqualTo("(416) 555-0199");
+    assertThat(body.hasNext()).isFalse();
+  }
+
+  @Test public void deserializeDelimitedStreamClosedEarly() throws IOException {
+    Buffer buffer = new Buffer();
+    Phone.newBuilder().setNumber("(519) 867-5309").build().writeDelimitedTo(buffer.outputStream());
+    Phone.newBuilder().setNumber("(416) 555-0199").build().writeDelimitedTo(buffer.outputStream());
+    server.enqueue(new MockResponse().setBody(buffer));
+
+    CloseableIterator<Phone> body = service.closeableStream().execute().body();
+    assertThat(body.next().getNumber()).isEqualTo("(519) 867-5309");
+    body.close();
+    assertThat(body.hasNext()).isFalse();
+  }
+
+  @Test public void deserializeEmptyDelimitedStream() throws IOException {
+    server.enqueue(new MockResponse());
+
+    Iterator<Phone> body = service.stream().execute().body();
+    assertThat(body.hasNext()).isFalse();
+  }
+
+  @Test public void serializeIterableAsDelimitedStream() throws IOException, InterruptedException {
+    server.enqueue(new MockResponse());
+
+    Phone first = Phone.newBuilder().setNumber("(519) 867-5309").build();
+    Phone second = Phone.newBuilder().setNumber("(416) 555-0199").build();
+    service.postAll(Arrays.asList(first, second)).execute();
+
+    RecordedRequest request = server.takeRequest();
+    Buffer expected = new Buffer();
+    first.writeDelimitedTo(expected.outputStream());
+    second.writeDelimitedTo(expected.outputStream());
+    assertThat(request.getBody().readByteString()).isEqualTo(expected.readByteString());
+    assertThat(request.getHeader("Content-Type")).isEqualTo("application/x-protobuf");
+  }
 }
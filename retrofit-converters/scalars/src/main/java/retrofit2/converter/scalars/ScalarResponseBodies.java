@@ -0,0 +1,314 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.converter.scalars;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+
+/**
+ * Reads primitive values from {@code text/plain} response bodies. Short bodies in an
+ * ASCII-compatible charset are parsed from their bytes without decoding a {@link String} or boxing
+ * the result, which makes these methods suitable for call adapters and converters that want a
+ * primitive. Values are parsed with the same rules as {@link Integer#parseInt},
+ * {@link Double#parseDouble} and friends. Each method closes the body.
+ * <p>
+ * Numeric bodies longer than {@value #MAX_NUMBER_LENGTH} bytes are rejected without being read
+ * into memory.
+ */
+public final class ScalarResponseBodies {
+  /** Longer than any number Java prints. Longer bodies can only be padding or garbage. */
+  static final int MAX_NUMBER_LENGTH = 1024;
+  /** Fits a sign and 18 digits, which cannot overflow a long. */
+  private static final int MAX_FAST_INTEGER_LENGTH = 19;
+  /** Fits a sign, 15 digits, a point, and an exponent, which the fast path below can parse. */
+  private static final int MAX_FAST_DECIMAL_LENGTH = 24;
+  /** Returned by {@link #parseDecimal} for input it cannot parse exactly. */
+  private static final long NOT_DECIMAL = Long.MIN_VALUE;
+
+  /** Powers of ten which are exactly representable as a double. */
+  private static final double[] POWERS_OF_TEN = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+      1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+  /** Powers of ten which are exactly representable as a float. */
+  private static final float[] FLOAT_POWERS_OF_TEN = {
+      1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+  };
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final Charset US_ASCII = Charset.forName("US-ASCII");
+  private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+  private ScalarResponseBodies() {
+    throw new AssertionError("No instances.");
+  }
+
+  /** Returns true if the body is {@code true}, ignoring case, like {@link Boolean#parseBoolean}. */
+  public static boolean readBoolean(ResponseBody body) throws IOException {
+    try {
+      if (!isAsciiCompatible(body)) {
+        return Boolean.parseBoolean(body.string());
+      }
+      BufferedSource source = body.source();
+      if (source.request(5)) {
+        return false; // Longer than "true".
+      }
+      Buffer buffer = source.buffer();
+      return buffer.size() == 4
+          && (buffer.getByte(0) | 0x20) == 't'
+          && (buffer.getByte(1) | 0x20) == 'r'
+          && (buffer.getByte(2) | 0x20) == 'u'
+          && (buffer.getByte(3) | 0x20) == 'e';
+    } finally {
+      body.close();
+    }
+  }
+
+  public static byte readByte(ResponseBody body) throws IOException {
+    try {
+      long value = fastInteger(body);
+      if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+        return (byte) value;
+      }
+      return Byte.parseByte(text(body));
+    } finally {
+      body.close();
+    }
+  }
+
+  public static short readShort(ResponseBody body) throws IOException {
+    try {
+      long value = fastInteger(body);
+      if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+        return (short) value;
+      }
+      return Short.parseShort(text(body));
+    } finally {
+      body.close();
+    }
+  }
+
+  public static int readInt(ResponseBody body) throws IOException {
+    try {
+      long value = fastInteger(body);
+      if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+        return (int) value;
+      }
+      return Integer.parseInt(text(body));
+    } finally {
+      body.close();
+    }
+  }
+
+  public static long readLong(ResponseBody body) throws IOException {
+    try {
+      long value = fastInteger(body);
+      if (value != NOT_DECIMAL) {
+        return value;
+      }
+      return Long.parseLong(text(body));
+    } finally {
+      body.close();
+    }
+  }
+
+  public static float readFloat(ResponseBody body) throws IOException {
+    try {
+      Buffer buffer = fastBuffer(body, MAX_FAST_DECIMAL_LENGTH);
+      if (buffer != null) {
+        long packed = parseDecimal(buffer, 7);
+        if (packed != NOT_DECIMAL) {
+          // The significand and power of ten are exact floats, so one operation rounds correctly.
+          int exponent = exponent(packed);
+          if (exponent >= -10 && exponent <= 10) {
+            float significand = significand(packed);
+            float result = exponent >= 0
+                ? significand * FLOAT_POWERS_OF_TEN[exponent]
+                : significand / FLOAT_POWERS_OF_TEN[-exponent];
+            return isNegative(buffer) ? -result : result;
+          }
+        }
+      }
+      return Float.parseFloat(text(body));
+    } finally {
+      body.close();
+    }
+  }
+
+  public static double readDouble(ResponseBody body) throws IOException {
+    try {
+      Buffer buffer = fastBuffer(body, MAX_FAST_DECIMAL_LENGTH);
+      if (buffer != null) {
+        long packed = parseDecimal(buffer, 15);
+        if (packed != NOT_DECIMAL) {
+          // The significand and power of ten are exact doubles, so one operation rounds correctly.
+          int exponent = exponent(packed);
+          if (exponent >= -22 && exponent <= 22) {
+            double significand = significand(packed);
+            double result = exponent >= 0
+                ? significand * POWERS_OF_TEN[exponent]
+                : significand / POWERS_OF_TEN[-exponent];
+            return isNegative(buffer) ? -result : result;
+          }
+        }
+      }
+      return Double.parseDouble(text(body));
+    } finally {
+      body.close();
+    }
+  }
+
+  /**
+   * Returns the body's value if it is a short decimal integer, or {@link #NOT_DECIMAL} if it must
+   * be parsed from text. Nothing is consumed from the body.
+   */
+  private static long fastInteger(ResponseBody body) throws IOException {
+    Buffer buffer = fastBuffer(body, MAX_FAST_INTEGER_LENGTH);
+    if (buffer == null) {
+      return NOT_DECIMAL;
+    }
+    long size = buffer.size();
+    int i = 0;
+    boolean negative = false;
+    if (size > 0) {
+      byte first = buffer.getByte(0);
+      if (first == '-') {
+        negative = true;
+        i++;
+      } else if (first == '+') {
+        i++;
+      }
+    }
+    if (i == size || size - i > 18) {
+      return NOT_DECIMAL; // No digits, or enough that the value might overflow.
+    }
+    long value = 0;
+    for (; i < size; i++) {
+      int digit = buffer.getByte(i) - '0';
+      if (digit < 0 || digit > 9) {
+        return NOT_DECIMAL;
+      }
+      value = value * 10 + digit;
+    }
+    return negative ? -value : value;
+  }
+
+  /**
+   * Parses {@code [+-]digits[.digits][(e|E)[+-]digits]} with at most {@code maxDigits} digits in
+   * the significand. Returns the significand and the power of ten packed by {@link #pack}, or
+   * {@link #NOT_DECIMAL} for anything else. The sign is reported by {@link #isNegative}.
+   */
+  private static long parseDecimal(Buffer buffer, int maxDigits) {
+    long size = buffer.size();
+    int i = 0;
+    if (size > 0) {
+      byte first = buffer.getByte(0);
+      if (first == '-' || first == '+') i++;
+    }
+    long significand = 0;
+    int digits = 0;
+    int fractionDigits = 0;
+    boolean point = false;
+    for (; i < size; i++) {
+      byte b = buffer.getByte(i);
+      if (b >= '0' && b <= '9') {
+        if (++digits > maxDigits) return NOT_DECIMAL;
+        significand = significand * 10 + (b - '0');
+        if (point) fractionDigits++;
+      } else if (b == '.' && !point) {
+        point = true;
+      } else {
+        break;
+      }
+    }
+    if (digits == 0) {
+      return NOT_DECIMAL;
+    }
+    int exponent = 0;
+    if (i < size) {
+      byte b = buffer.getByte(i++);
+      if (b != 'e' && b != 'E') return NOT_DECIMAL;
+      boolean negativeExponent = false;
+      if (i < size) {
+        byte sign = buffer.getByte(i);
+        if (sign == '-' || sign == '+') {
+          negativeExponent = sign == '-';
+          i++;
+        }
+      }
+      if (i == size) return NOT_DECIMAL;
+      for (; i < size; i++) {
+        int digit = buffer.getByte(i) - '0';
+        if (digit < 0 || digit > 9) return NOT_DECIMAL;
+        exponent = exponent * 10 + digit;
+        if (exponent > 999) return NOT_DECIMAL; // Far outside the exact range; keeps pack() valid.
+      }
+      if (negativeExponent) exponent = -exponent;
+    }
+    return pack(significand, exponent - fractionDigits);
+  }
+
+  /** Packs a significand below 10^15 with a small power of ten into one long. */
+  private static long pack(long significand, int exponent) {
+    return significand << 12 | (exponent & 0xfff);
+  }
+
+  private static long significand(long packed) {
+    return packed >>> 12;
+  }
+
+  private static int exponent(long packed) {
+    return (int) (packed << 52 >> 52); // Sign-extend the low 12 bits.
+  }
+
+  private static boolean isNegative(Buffer buffer) {
+    return buffer.getByte(0) == '-';
+  }
+
+  /**
+   * Returns the buffer holding the entire body if the body is in an ASCII-compatible charset and
+   * no longer than {@code maxLength} bytes, or null otherwise.
+   */
+  private static Buffer fastBuffer(ResponseBody body, int maxLength) throws IOException {
+    if (!isAsciiCompatible(body)) {
+      return null;
+    }
+    BufferedSource source = body.source();
+    if (source.request(maxLength + 1)) {
+      return null;
+    }
+    return source.buffer();
+  }
+
+  /** Decodes the body for the platform's parsers, refusing bodies too long to be a number. */
+  private static String text(ResponseBody body) throws IOException {
+    if (body.source().request(MAX_NUMBER_LENGTH + 1)) {
+      throw new NumberFormatException(
+          "Expected a number but body was longer than " + MAX_NUMBER_LENGTH + " bytes");
+    }
+    return body.string();
+  }
+
+  private static boolean isAsciiCompatible(ResponseBody body) {
+    MediaType contentType = body.contentType();
+    Charset charset = contentType != null ? contentType.charset(UTF_8) : UTF_8;
+    return UTF_8.equals(charset) || US_ASCII.equals(charset) || ISO_8859_1.equals(charset);
+  }
+}
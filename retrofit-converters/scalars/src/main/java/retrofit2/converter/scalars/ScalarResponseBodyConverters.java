@@ -35,7 +35,7 @@ final class ScalarResponseBodyConverters {
     static final BooleanResponseBodyConverter INSTANCE = new BooleanResponseBodyConverter();
 
     @Override public Boolean convert(ResponseBody value) throws IOException {
-      return Boolean.valueOf(value.string());
+      return ScalarResponseBodies.readBoolean(value);
     }
   }
 
@@ -43,7 +43,7 @@ final class ScalarResponseBodyConverters {
     static final ByteResponseBodyConverter INSTANCE = new ByteResponseBodyConverter();
 
     @Override public Byte convert(ResponseBody value) throws IOException {
-      return Byte.valueOf(value.string());
+      return ScalarResponseBodies.readByte(value);
     }
   }
 
@@ -64,7 +64,7 @@ final class ScalarResponseBodyConverters {
     static final DoubleResponseBodyConverter INSTANCE = new DoubleResponseBodyConverter();
 
     @Override public Double convert(ResponseBody value) throws IOException {
-      return Double.valueOf(value.string());
+      return ScalarResponseBodies.readDouble(value);
     }
   }
 
@@ -72,7 +72,7 @@ final class ScalarResponseBodyConverters {
     static final FloatResponseBodyConverter INSTANCE = new FloatResponseBodyConverter();
 
     @Override public Float convert(ResponseBody value) throws IOException {
-      return Float.valueOf(value.string());
+      return ScalarResponseBodies.readFloat(value);
     }
   }
 
@@ -80,7 +80,7 @@ final class ScalarResponseBodyConverters {
     static final IntegerResponseBodyConverter INSTANCE = new IntegerResponseBodyConverter();
 
     @Override public Integer convert(ResponseBody value) throws IOException {
-      return Integer.valueOf(value.string());
+      return ScalarResponseBodies.readInt(value);
     }
   }
 
@@ -88,7 +88,7 @@ final class ScalarResponseBodyConverters {
     static final LongResponseBodyConverter INSTANCE = new LongResponseBodyConverter();
 
     @Override public Long convert(ResponseBody value) throws IOException {
-      return Long.valueOf(value.string());
+      return ScalarResponseBodies.readLong(value);
     }
   }
 
@@ -96,7 +96,7 @@ final class ScalarResponseBodyConverters {
     static final ShortResponseBodyConverter INSTANCE = new ShortResponseBodyConverter();
 
     @Override public Short convert(ResponseBody value) throws IOException {
-      return Short.valueOf(value.string());
+      return ScalarResponseBodies.readShort(value);
     }
   }
 }
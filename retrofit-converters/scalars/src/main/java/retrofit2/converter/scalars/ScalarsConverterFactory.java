@@ -43,6 +43,10 @@ public final class ScalarsConverterFactory extends Converter.Factory {
   private ScalarsConverterFactory() {
   }
 
+  @Override public boolean isCacheable() {
+    return true;
+  }
+
   @Override public Converter<?, RequestBody> requestBodyConverter(Type type,
       Annotation[] parameterAnnotations, Annotation[] methodAnnotations, Retrofit retrofit) {
     if (type == String.class
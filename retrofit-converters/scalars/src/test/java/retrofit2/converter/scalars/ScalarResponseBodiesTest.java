@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.converter.scalars;
+
+import java.io.IOException;
+import java.util.Random;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public final class ScalarResponseBodiesTest {
+  private static final MediaType TEXT = MediaType.parse("text/plain");
+
+  private static final String[] INPUTS = {
+      "", "0", "-0", "+0", "7", "-7", "+7", "127", "128", "-128", "-129", "32767", "32768",
+      "2147483647", "2147483648", "-2147483648", "-2147483649", "9223372036854775807",
+      "9223372036854775808", "-9223372036854775808", "000000000000000000000000000042", "-", "+",
+      "+-1", "1-", "1 ", " 1", "1\n", "0x10", "1e3", "1E-3", "1.", ".5", ".", "-.5e+2", "13.13",
+      "0.1", "3.4028235e38", "1.7976931348623157e308", "4.9e-324", "1e400", "1e-400", "1e99999",
+      "123456789012345", "1234567890123456", "12345678.9", "1d", "1f", "NaN", "-Infinity", "abc",
+      "true", "TRUE", "tRuE", "true ", "yes", "false",
+  };
+
+  @Test public void matchesPlatformParsers() throws IOException {
+    for (String input : INPUTS) {
+      check(input);
+    }
+  }
+
+  @Test public void matchesPlatformParsersForRandomDecimals() throws IOException {
+    Random random = new Random(0);
+    for (int i = 0; i < 10000; i++) {
+      StringBuilder builder = new StringBuilder();
+      if (random.nextBoolean()) builder.append(random.nextBoolean() ? '-' : '+');
+      for (int digits = random.nextInt(20); digits >= 0; digits--) {
+        builder.append((char) ('0' + random.nextInt(10)));
+      }
+      if (random.nextBoolean()) {
+        builder.append('.');
+        for (int digits = random.nextInt(10); digits >= 0; digits--) {
+          builder.append((char) ('0' + random.nextInt(10)));
+        }
+      }
+      if (random.nextInt(4) == 0) {
+        builder.append('e').append(random.nextInt(60) - 30);
+      }
+      check(builder.toString());
+    }
+  }
+
+  @Test public void nonAsciiCharsetDecodesText() throws IOException {
+    MediaType utf16 = MediaType.parse("text/plain; charset=UTF-16BE");
+    assertThat(ScalarResponseBodies.readInt(ResponseBody.create(utf16, "-42"))).isEqualTo(-42);
+    assertThat(ScalarResponseBodies.readDouble(ResponseBody.create(utf16, "0.5"))).isEqualTo(0.5);
+    assertThat(ScalarResponseBodies.readBoolean(ResponseBody.create(utf16, "true"))).isTrue();
+  }
+
+  @Test public void oversizedNumberIsRejectedWithoutDecoding() throws IOException {
+    Buffer buffer = new Buffer();
+    for (int i = 0; i < 10000; i++) {
+      buffer.writeUtf8("0000000000");
+    }
+    ResponseBody body = ResponseBody.create(TEXT, buffer.size(), buffer);
+    try {
+      ScalarResponseBodies.readLong(body);
+      fail();
+    } catch (NumberFormatException e) {
+      assertThat(e).hasMessage("Expected a number but body was longer than 1024 bytes");
+    }
+  }
+
+  @Test public void longBooleanIsFalse() throws IOException {
+    Buffer buffer = new Buffer();
+    for (int i = 0; i < 10000; i++) {
+      buffer.writeUtf8("true");
+    }
+    ResponseBody body = ResponseBody.create(TEXT, buffer.size(), buffer);
+    assertThat(ScalarResponseBodies.readBoolean(body)).isFalse();
+  }
+
+  /** Asserts that each method agrees with the platform's parser, including on failure. */
+  private static void check(String input) throws IOException {
+    assertThat(ScalarResponseBodies.readBoolean(body(input)))
+        .overridingErrorMessage("boolean %s", input)
+        .isEqualTo(Boolean.parseBoolean(input));
+    assertParse(input, new Parser() {
+      @Override public Object platform(String input) {
+        return Byte.parseByte(input);
+      }
+
+      @Override public Object direct(ResponseBody body) throws IOException {
+        return ScalarResponseBodies.readByte(body);
+      }
+    });
+    assertParse(input, new Parser() {
+      @Override public Object platform(String input) {
+        return Short.parseShort(input);
+      }
+
+      @Override public Object direct(ResponseBody body) throws IOException {
+        return ScalarResponseBodies.readShort(body);
+      }
+    });
+    assertParse(input, new Parser() {
+      @Override public Object platform(String input) {
+        return Integer.parseInt(input);
+      }
+
+      @Override public Object direct(ResponseBody body) throws IOException {
+        return ScalarResponseBodies.readInt(body);
+      }
+    });
+    assertParse(input, new Parser() {
+      @Override public Object platform(String input) {
+        return Long.parseLong(input);
+      }
+
+      @Override public Object direct(ResponseBody body) throws IOException {
+        return ScalarResponseBodies.readLong(body);
+      }
+    });
+    assertParse(input, new Parser() {
+      @Override public Object platform(String input) {
+        return Float.parseFloat(input);
+      }
+
+      @Override public Object direct(ResponseBody body) throws IOException {
+        return ScalarResponseBodies.readFloat(body);
+      }
+    });
+    assertParse(input, new Parser() {
+      @Override public Object platform(String input) {
+        return Double.parseDouble(input);
+      }
+
+      @Override public Object direct(ResponseBody body) throws IOException {
+        return ScalarResponseBodies.readDouble(body);
+      }
+    });
+  }
+
+  interface Parser {
+    Object platform(String input);
+
+    Object direct(ResponseBody body) throws IOException;
+  }
+
+  private static void assertParse(String input, Parser parser) throws IOException {
+    Object expected;
+    try {
+      expected = parser.platform(input);
+    } catch (NumberFormatException e) {
+      try {
+        parser.direct(body(input));
+        fail("Expected failure for \"" + input + "\"");
+      } catch (NumberFormatException actual) {
+        assertThat(actual).hasMessage(e.getMessage());
+      }
+      return;
+    }
+    // Boxed comparison distinguishes -0.0 from 0.0 and compares NaN equal to itself.
+    assertThat(parser.direct(body(input)))
+        .overridingErrorMessage("\"%s\"", input)
+        .isEqualTo(expected);
+  }
+
+  private static ResponseBody body(String input) {
+    return ResponseBody.create(TEXT, input);
+  }
+}
@@ -64,6 +64,10 @@ public final class SimpleXmlConverterFactory extends Converter.Factory {
     return strict;
   }
 
+  @Override public boolean isCacheable() {
+    return true;
+  }
+
   @Override
   public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations,
       Retrofit retrofit) {
@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.converter.stax;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+/** Reads and writes values of type {@code T} as XML elements using StAX. */
+public interface StaxAdapter<T> {
+  /**
+   * Read a value from the element on which {@code reader} is positioned. When called the reader's
+   * current event is the element's {@code START_ELEMENT}. Implementations must consume the entire
+   * element and leave the reader on its matching {@code END_ELEMENT}.
+   */
+  T read(XMLStreamReader reader) throws XMLStreamException;
+
+  /** Write {@code value} to {@code writer} as a single complete element. */
+  void write(XMLStreamWriter writer, T value) throws XMLStreamException;
+}
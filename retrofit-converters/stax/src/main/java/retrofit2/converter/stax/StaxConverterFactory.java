@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.converter.stax;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * A {@linkplain Converter.Factory converter} which uses StAX pull parsing for XML.
+ * <p>
+ * This converter only applies for types which have a {@link StaxAdapter} registered with
+ * {@link Builder#add}. Documents are read and written incrementally without building a tree of
+ * the whole document.
+ * <p>
+ * {@link retrofit2.http.Streaming @Streaming} methods may declare {@code Iterator<T>} or
+ * {@link retrofit2.CloseableIterator CloseableIterator&lt;T&gt;} as their body type to decode the
+ * children of the document's root element one at a time. Request bodies are serialized while the
+ * request is sent and so have no known length.
+ */
+public final class StaxConverterFactory extends Converter.Factory {
+  private final Map<Type, StaxAdapter<?>> adapters;
+  private final XMLInputFactory inputFactory;
+  private final XMLOutputFactory outputFactory;
+
+  private StaxConverterFactory(Map<Type, StaxAdapter<?>> adapters, XMLInputFactory inputFactory,
+      XMLOutputFactory outputFactory) {
+    this.adapters = adapters;
+    this.inputFactory = inputFactory;
+    this.outputFactory = outputFactory;
+  }
+
+  @Override public boolean isCacheable() {
+    return true;
+  }
+
+  @Override
+  public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations,
+      Retrofit retrofit) {
+    Type elementType = getStreamingElementType(type, annotations);
+    if (elementType != null) {
+      StaxAdapter<?> adapter = adapters.get(elementType);
+      if (adapter == null) {
+        return null;
+      }
+      return new StaxStreamingResponseBodyConverter<>(inputFactory, adapter);
+    }
+    StaxAdapter<?> adapter = adapters.get(type);
+    if (adapter == null) {
+      return null;
+    }
+    return new StaxResponseBodyConverter<>(inputFactory, adapter);
+  }
+
+  @Override
+  public Converter<?, RequestBody> requestBodyConverter(Type type,
+      Annotation[] parameterAnnotations, Annotation[] methodAnnotations, Retrofit retrofit) {
+    StaxAdapter<?> adapter = adapters.get(type);
+    if (adapter == null) {
+      return null;
+    }
+    return new StaxRequestBodyConverter<>(outputFactory, adapter);
+  }
+
+  /** Build a new {@link StaxConverterFactory}. */
+  public static final class Builder {
+    private final Map<Type, StaxAdapter<?>> adapters = new LinkedHashMap<>();
+    private XMLInputFactory inputFactory;
+    private XMLOutputFactory outputFactory;
+
+    /** Use {@code adapter} to read and write values of {@code type}. */
+    public <T> Builder add(Class<T> type, StaxAdapter<T> adapter) {
+      if (type == null) throw new NullPointerException("type == null");
+      if (adapter == null) throw new NullPointerException("adapter == null");
+      adapters.put(type, adapter);
+      return this;
+    }
+
+    /**
+     * The factory used to create readers for response bodies. By default the platform's factory
+     * is used with DTDs and external entities disabled.
+     */
+    public Builder inputFactory(XMLInputFactory inputFactory) {
+      if (inputFactory == null) throw new NullPointerException("inputFactory == null");
+      this.inputFactory = inputFactory;
+      return this;
+    }
+
+    /** The factory used to create writers for request bodies. */
+    public Builder outputFactory(XMLOutputFactory outputFactory) {
+      if (outputFactory == null) throw new NullPointerException("outputFactory == null");
+      this.outputFactory = outputFactory;
+      return this;
+    }
+
+    public StaxConverterFactory build() {
+      XMLInputFactory inputFactory = this.inputFactory;
+      if (inputFactory == null) {
+        inputFactory = XMLInputFactory.newInstance();
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+      }
+      XMLOutputFactory outputFactory = this.outputFactory;
+      if (outputFactory == null) {
+        outputFactory = XMLOutputFactory.newInstance();
+      }
+      Map<Type, StaxAdapter<?>> adapters =
+          Collections.unmodifiableMap(new LinkedHashMap<>(this.adapters));
+      return new StaxConverterFactory(adapters, inputFactory, outputFactory);
+    }
+  }
+}
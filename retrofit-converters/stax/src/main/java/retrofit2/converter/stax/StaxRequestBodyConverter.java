@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.converter.stax;
+
+import java.io.IOException;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import retrofit2.Converter;
+
+final class StaxRequestBodyConverter<T> implements Converter<T, RequestBody> {
+  private static final MediaType MEDIA_TYPE = MediaType.parse("application/xml; charset=UTF-8");
+  private static final String CHARSET = "UTF-8";
+
+  private final XMLOutputFactory outputFactory;
+  private final StaxAdapter<T> adapter;
+
+  StaxRequestBodyConverter(XMLOutputFactory outputFactory, StaxAdapter<T> adapter) {
+    this.outputFactory = outputFactory;
+    this.adapter = adapter;
+  }
+
+  @Override public RequestBody convert(final T value) throws IOException {
+    return new RequestBody() {
+      @Override public MediaType contentType() {
+        return MEDIA_TYPE;
+      }
+
+      @Override public void writeTo(BufferedSink sink) throws IOException {
+        try {
+          XMLStreamWriter writer =
+              outputFactory.createXMLStreamWriter(sink.outputStream(), CHARSET);
+          adapter.write(writer, value);
+          writer.writeEndDocument();
+          writer.flush();
+          writer.close(); // Does not close the sink.
+        } catch (XMLStreamException e) {
+          // Thrown while the request is being sent, where only I/O failures are expected.
+          throw new IOException(e);
+        }
+      }
+    };
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.converter.stax;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+
+final class StaxResponseBodyConverter<T> implements Converter<ResponseBody, T> {
+  private final XMLInputFactory inputFactory;
+  private final StaxAdapter<T> adapter;
+
+  StaxResponseBodyConverter(XMLInputFactory inputFactory, StaxAdapter<T> adapter) {
+    this.inputFactory = inputFactory;
+    this.adapter = adapter;
+  }
+
+  @Override public T convert(ResponseBody value) throws IOException {
+    XMLStreamReader reader = null;
+    try {
+      reader = newReader(inputFactory, value);
+      reader.nextTag(); // Move to the root element.
+      return adapter.read(reader);
+    } catch (XMLStreamException e) {
+      throw rethrow(e);
+    } finally {
+      closeQuietly(reader);
+      value.close();
+    }
+  }
+
+  /**
+   * Create a reader positioned at the start of {@code value}. The parser reads bytes so that an
+   * encoding in the XML declaration is honored, but a charset in the Content-Type takes precedence.
+   */
+  static XMLStreamReader newReader(XMLInputFactory inputFactory, ResponseBody value)
+      throws XMLStreamException {
+    MediaType contentType = value.contentType();
+    Charset charset = contentType != null ? contentType.charset(null) : null;
+    if (charset != null) {
+      return inputFactory.createXMLStreamReader(value.byteStream(), charset.name());
+    }
+    return inputFactory.createXMLStreamReader(value.byteStream());
+  }
+
+  /**
+   * Returns the I/O failure underlying {@code e} to be thrown, or throws an unchecked exception if
+   * the document was malformed. Despite its checked type, that is data mismatch.
+   */
+  static IOException rethrow(XMLStreamException e) {
+    if (e.getNestedException() instanceof IOException) {
+      return (IOException) e.getNestedException();
+    }
+    throw new RuntimeException(e);
+  }
+
+  static void closeQuietly(XMLStreamReader reader) {
+    if (reader == null) return;
+    try {
+      reader.close();
+    } catch (XMLStreamException ignored) {
+    }
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.converter.stax;
+
+import java.io.IOException;
+import java.util.NoSuchElementException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import okhttp3.ResponseBody;
+import retrofit2.CloseableIterator;
+import retrofit2.Converter;
+
+import static retrofit2.converter.stax.StaxResponseBodyConverter.closeQuietly;
+import static retrofit2.converter.stax.StaxResponseBodyConverter.newReader;
+import static retrofit2.converter.stax.StaxResponseBodyConverter.rethrow;
+
+/** Decodes each child element of the document's root element as it is requested. */
+final class StaxStreamingResponseBodyConverter<T>
+    implements Converter<ResponseBody, CloseableIterator<T>> {
+  private final XMLInputFactory inputFactory;
+  private final StaxAdapter<T> adapter;
+
+  StaxStreamingResponseBodyConverter(XMLInputFactory inputFactory, StaxAdapter<T> adapter) {
+    this.inputFactory = inputFactory;
+    this.adapter = adapter;
+  }
+
+  @Override public CloseableIterator<T> convert(ResponseBody value) throws IOException {
+    XMLStreamReader reader = null;
+    try {
+      reader = newReader(inputFactory, value);
+      reader.nextTag(); // Move to the root element.
+    } catch (XMLStreamException e) {
+      closeQuietly(reader);
+      value.close();
+      throw rethrow(e);
+    } catch (RuntimeException e) {
+      closeQuietly(reader);
+      value.close();
+      throw e;
+    }
+    return new ElementIterator<>(value, reader, adapter);
+  }
+
+  static final class ElementIterator<T> implements CloseableIterator<T> {
+    private final ResponseBody body;
+    private final XMLStreamReader reader;
+    private final StaxAdapter<T> adapter;
+    /** True if the reader is positioned on the start of a child which has not been read. */
+    private boolean hasChild;
+    private boolean closed;
+
+    ElementIterator(ResponseBody body, XMLStreamReader reader, StaxAdapter<T> adapter) {
+      this.body = body;
+      this.reader = reader;
+      this.adapter = adapter;
+    }
+
+    @Override public boolean hasNext() {
+      if (hasChild) return true;
+      if (closed) return false;
+      try {
+        while (true) {
+          switch (reader.next()) {
+            case XMLStreamConstants.START_ELEMENT:
+              hasChild = true;
+              return true;
+            case XMLStreamConstants.END_ELEMENT: // The root element, as children are consumed.
+            case XMLStreamConstants.END_DOCUMENT:
+              close();
+              return false;
+            default:
+              // Skip whitespace, comments, and processing instructions between children.
+          }
+        }
+      } catch (XMLStreamException e) {
+        close();
+        throw new RuntimeException(e);
+      } catch (RuntimeException e) {
+        close();
+        throw e;
+      }
+    }
+
+    @Override public T next() {
+      if (!hasNext()) throw new NoSuchElementException();
+      hasChild = false;
+      try {
+        return adapter.read(reader);
+      } catch (XMLStreamException e) {
+        close();
+        throw new RuntimeException(e);
+      } catch (RuntimeException e) {
+        close();
+        throw e;
+      }
+    }
+
+    @Override public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override public void close() {
+      if (!closed) {
+        closed = true;
+        hasChild = false;
+        closeQuietly(reader);
+        body.close();
+      }
+    }
+  }
+}
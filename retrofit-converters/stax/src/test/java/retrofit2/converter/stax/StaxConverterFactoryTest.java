@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.converter.stax;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import retrofit2.Call;
+import retrofit2.CloseableIterator;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.http.Body;
+import retrofit2.http.GET;
+import retrofit2.http.POST;
+import retrofit2.http.Streaming;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public final class StaxConverterFactoryTest {
+  static final class Item {
+    final String name;
+    final int count;
+
+    Item(String name, int count) {
+      this.name = name;
+      this.count = count;
+    }
+  }
+
+  static final class ItemAdapter implements StaxAdapter<Item> {
+    @Override public Item read(XMLStreamReader reader) throws XMLStreamException {
+      String name = reader.getAttributeValue(null, "name");
+      int count = Integer.parseInt(reader.getElementText()); // Leaves the reader on END_ELEMENT.
+      return new Item(name, count);
+    }
+
+    @Override public void write(XMLStreamWriter writer, Item value) throws XMLStreamException {
+      writer.writeStartElement("item");
+      writer.writeAttribute("name", value.name);
+      writer.writeCharacters(String.valueOf(value.count));
+      writer.writeEndElement();
+    }
+  }
+
+  interface Service {
+    @GET("/") Call<Item> get();
+    @POST("/") Call<Item> post(@Body Item item);
+    @GET("/") @Streaming Call<Iterator<Item>> items();
+    @GET("/") @Streaming Call<CloseableIterator<Item>> closeableItems();
+    @GET("/") Call<String> wrongClass();
+  }
+
+  @Rule public final MockWebServer server = new MockWebServer();
+
+  private Service service;
+
+  @Before public void setUp() {
+    StaxConverterFactory factory = new StaxConverterFactory.Builder()
+        .add(Item.class, new ItemAdapter())
+        .build();
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(factory)
+        .build();
+    service = retrofit.create(Service.class);
+  }
+
+  @Test public void serializeAndDeserialize() throws IOException, InterruptedException {
+    server.enqueue(new MockResponse().setBody("<item name=\"hello\">10</item>"));
+
+    Call<Item> call = service.post(new Item("world", 20));
+    Response<Item> response = call.execute();
+    Item body = response.body();
+    assertThat(body.name).isEqualTo("hello");
+    assertThat(body.count).isEqualTo(10);
+
+    RecordedRequest request = server.takeRequest();
+    assertThat(request.getBody().readUtf8()).isEqualTo("<item name=\"world\">20</item>");
+    assertThat(request.getHeader("Content-Type")).isEqualTo("application/xml; charset=UTF-8");
+  }
+
+  @Test public void deserializeSkipsPrologue() throws IOException {
+    server.enqueue(new MockResponse().setBody(""
+        + "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+        + "<!-- A comment. -->\n"
+        + "<item name=\"hello\">10</item>\n"));
+
+    Item body = service.get().execute().body();
+    assertThat(body.name).isEqualTo("hello");
+  }
+
+  @Test public void honorsCharacterEncoding() throws IOException {
+    Buffer buffer = new Buffer()
+        .writeString("<item name=\"caf\u00e9\">1</item>", Charset.forName("ISO-8859-1"));
+    server.enqueue(new MockResponse()
+        .setHeader("Content-Type", "application/xml; charset=ISO-8859-1")
+        .setBody(buffer));
+
+    Item body = service.get().execute().body();
+    assertThat(body.name).isEqualTo("caf\u00e9");
+  }
+
+  @Test public void streamingChildren() throws IOException {
+    server.enqueue(new MockResponse().setBody(""
+        + "<items>\n"
+        + "  <item name=\"one\">1</item>\n"
+        + "  <!-- A comment. -->\n"
+        + "  <item name=\"two\">2</item>\n"
+        + "</items>\n"));
+
+    Iterator<Item> body = service.items().execute().body();
+    assertThat(body.hasNext()).isTrue();
+    assertThat(body.next().name).isEqualTo("one");
+    Item second = body.next();
+    assertThat(second.name).isEqualTo("two");
+    assertThat(second.count).isEqualTo(2);
+    assertThat(body.hasNext()).isFalse();
+  }
+
+  @Test public void streamingEmptyRoot() throws IOException {
+    server.enqueue(new MockResponse().setBody("<items/>"));
+
+    Iterator<Item> body = service.items().execute().body();
+    assertThat(body.hasNext()).isFalse();
+  }
+
+  @Test public void streamingClosedEarly() throws IOException {
+    server.enqueue(new MockResponse().setBody(
+        "<items><item name=\"one\">1</item><item name=\"two\">2</item></items>"));
+
+    CloseableIterator<Item> body = service.closeableItems().execute().body();
+    assertThat(body.next().name).isEqualTo("one");
+    body.close();
+    assertThat(body.hasNext()).isFalse();
+  }
+
+  @Test public void deserializeMalformed() throws IOException {
+    server.enqueue(new MockResponse().setBody("<item name=\"hello\">10</it"));
+
+    Call<Item> call = service.get();
+    try {
+      call.execute();
+      fail();
+    } catch (RuntimeException e) {
+      assertThat(e.getCause()).isInstanceOf(XMLStreamException.class);
+    }
+  }
+
+  @Test public void unregisteredType() {
+    try {
+      service.wrongClass();
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasMessage(""
+          + "Unable to create converter for class java.lang.String\n"
+          + "    for method Service.wrongClass");
+      assertThat(e.getCause()).hasMessage(""
+          + "Could not locate ResponseBody converter for class java.lang.String.\n"
+          + "  Tried:\n"
+          + "   * retrofit2.BuiltInConverters\n"
+          + "   * retrofit2.converter.stax.StaxConverterFactory");
+    }
+  }
+}
@@ -37,6 +37,10 @@ public final class WireConverterFactory extends Converter.Factory {
   private WireConverterFactory() {
   }
 
+  @Override public boolean isCacheable() {
+    return true;
+  }
+
   @Override
   public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations,
       Retrofit retrofit) {
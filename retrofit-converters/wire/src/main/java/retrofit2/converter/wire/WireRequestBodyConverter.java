@@ -20,7 +20,7 @@ import com.squareup.wire.ProtoAdapter;
 import java.io.IOException;
 import okhttp3.MediaType;
 import okhttp3.RequestBody;
-import okio.Buffer;
+import okio.BufferedSink;
 import retrofit2.Converter;
 
 final class WireRequestBodyConverter<T extends Message<T, ?>> implements Converter<T, RequestBody> {
@@ -32,9 +32,21 @@ final class WireRequestBodyConverter<T extends Message<T, ?>> implements Convert
     this.adapter = adapter;
   }
 
-  @Override public RequestBody convert(T value) throws IOException {
-    Buffer buffer = new Buffer();
-    adapter.encode(buffer, value);
-    return RequestBody.create(MEDIA_TYPE, buffer.snapshot());
+  @Override public RequestBody convert(final T value) throws IOException {
+    // Messages are immutable, so the body is encoded straight into the sink each time it is
+    // written rather than copied into a buffer up front.
+    return new RequestBody() {
+      @Override public MediaType contentType() {
+        return MEDIA_TYPE;
+      }
+
+      @Override public long contentLength() {
+        return adapter.encodedSize(value);
+      }
+
+      @Override public void writeTo(BufferedSink sink) throws IOException {
+        adapter.encode(sink, value);
+      }
+    };
   }
 }
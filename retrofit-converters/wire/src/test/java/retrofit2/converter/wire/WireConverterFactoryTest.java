@@ -68,6 +68,7 @@ public final class WireConverterFactoryTest {
     RecordedRequest request = server.takeRequest();
     assertThat(request.getBody().readByteString()).isEqualTo(encoded);
     assertThat(request.getHeader("Content-Type")).isEqualTo("application/x-protobuf");
+    assertThat(request.getHeader("Content-Length")).isEqualTo(String.valueOf(encoded.size()));
   }
 
   @Test public void deserializeEmpty() throws IOException {
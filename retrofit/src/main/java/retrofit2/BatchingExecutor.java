@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * An executor which coalesces tasks into batches, each run as a single task on its delegate. A
+ * batch holds the tasks submitted while it waits to run, plus those submitted within an optional
+ * window after its first task. Tasks run in submission order. Tasks submitted while a batch runs
+ * form the next batch so that a steady stream of tasks still yields the delegate between batches.
+ */
+final class BatchingExecutor implements Executor {
+  final Executor delegate;
+  final long windowNanos;
+  private final ScheduledExecutorService timer;
+  private final Runnable drain = new Runnable() {
+    @Override public void run() {
+      drain();
+    }
+  };
+  private final Runnable handoff = new Runnable() {
+    @Override public void run() {
+      handoff();
+    }
+  };
+
+  // All guarded by this.
+  private ArrayDeque<Runnable> queue = new ArrayDeque<>();
+  private boolean scheduled;
+
+  BatchingExecutor(Executor delegate) {
+    this(delegate, 0L, null);
+  }
+
+  BatchingExecutor(Executor delegate, long windowNanos) {
+    this(delegate, windowNanos, windowNanos > 0L ? Timer.INSTANCE : null);
+  }
+
+  BatchingExecutor(Executor delegate, long windowNanos, ScheduledExecutorService timer) {
+    this.delegate = delegate;
+    this.windowNanos = windowNanos;
+    this.timer = timer;
+  }
+
+  @Override public void execute(Runnable command) {
+    if (command == null) throw new NullPointerException("command == null");
+    synchronized (this) {
+      queue.add(command);
+      if (scheduled) return;
+      scheduled = true;
+    }
+    if (windowNanos > 0L) {
+      try {
+        timer.schedule(handoff, windowNanos, NANOSECONDS);
+      } catch (RuntimeException e) {
+        rejected();
+        throw e;
+      }
+    } else {
+      handoff();
+    }
+  }
+
+  /** Submit the pending batch to the delegate. */
+  void handoff() {
+    try {
+      delegate.execute(drain);
+    } catch (RuntimeException e) {
+      rejected();
+      throw e;
+    }
+  }
+
+  /**
+   * Nothing will drain the queue. Drop every queued task, including those whose submitters have
+   * already returned, rather than leave them waiting for a batch which will never run.
+   */
+  private synchronized void rejected() {
+    queue.clear();
+    scheduled = false;
+  }
+
+  void drain() {
+    ArrayDeque<Runnable> batch;
+    synchronized (this) {
+      batch = queue;
+      queue = new ArrayDeque<>();
+    }
+    try {
+      for (Runnable next; (next = batch.poll()) != null; ) {
+        next.run();
+      }
+    } finally {
+      // If a task threw, leave the exception to the delegate. The rest of this batch runs first in
+      // the next one, ahead of the tasks submitted in the meantime.
+      boolean more;
+      synchronized (this) {
+        if (!batch.isEmpty()) {
+          batch.addAll(queue);
+          queue = batch;
+        }
+        more = !queue.isEmpty();
+        scheduled = more;
+      }
+      if (more) {
+        handoff();
+      }
+    }
+  }
+
+  /** Delays the handoff of windowed batches. Its thread is a daemon and is started on demand. */
+  private static final class Timer {
+    static final ScheduledExecutorService INSTANCE =
+        new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+          @Override public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "Retrofit callback batching");
+            thread.setDaemon(true);
+            return thread;
+          }
+        });
+  }
+}
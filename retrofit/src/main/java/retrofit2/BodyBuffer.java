@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2016 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2;
+
+import java.io.File;
+import java.io.IOException;
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+/**
+ * Reads response bodies in their entirety so the connection can be released. Bodies are held in
+ * memory, counted against an optional {@link BufferBudget}, unless they exceed the spill threshold
+ * in which case they are written to a temporary file that is deleted when the body is closed.
+ */
+final class BodyBuffer {
+  static final BodyBuffer DEFAULT = new BodyBuffer(null, -1L, null);
+
+  private final BufferBudget budget;
+  private final long spillThreshold;
+  private final File spillDirectory;
+
+  /**
+   * @param budget the budget for bodies held in memory, or null for no limit.
+   * @param spillThreshold the largest body held in memory. Ignored without a directory.
+   * @param spillDirectory the directory for spilled bodies, or null to never spill.
+   */
+  BodyBuffer(BufferBudget budget, long spillThreshold, File spillDirectory) {
+    this.budget = budget;
+    this.spillThreshold = spillThreshold;
+    this.spillDirectory = spillDirectory;
+  }
+
+  /** Read all of {@code body} so that it no longer needs the connection. It is not closed. */
+  ResponseBody buffer(ResponseBody body) throws IOException {
+    if (spillDirectory != null && exceedsSpillThreshold(body)) {
+      return spill(body);
+    }
+    return budget != null ? budget.buffer(body) : Utils.buffer(body);
+  }
+
+  private boolean exceedsSpillThreshold(ResponseBody body) throws IOException {
+    long contentLength = body.contentLength();
+    if (contentLength != -1L) {
+      return contentLength > spillThreshold;
+    }
+    // Without a declared length, look for one byte more than the threshold. At most the threshold
+    // is held in memory to decide.
+    return spillThreshold != Long.MAX_VALUE && body.source().request(spillThreshold + 1);
+  }
+
+  private ResponseBody spill(ResponseBody body) throws IOException {
+    File file = File.createTempFile("retrofit", ".body", spillDirectory);
+    BufferedSource fileSource = null;
+    try {
+      BufferedSink sink = Okio.buffer(Okio.sink(file));
+      try {
+        sink.writeAll(body.source());
+      } finally {
+        sink.close();
+      }
+      fileSource = Okio.buffer(new DeletingSource(file));
+    } finally {
+      if (fileSource == null && !file.delete()) {
+        file.deleteOnExit();
+      }
+    }
+    return ResponseBody.create(body.contentType(), body.contentLength(), fileSource);
+  }
+
+  /** Reads a spilled body from {@code file} and deletes it once closed. */
+  private static final class DeletingSource extends ForwardingSource {
+    private final File file;
+
+    DeletingSource(File file) throws IOException {
+      super(Okio.source(file));
+      this.file = file;
+    }
+
+    @Override public void close() throws IOException {
+      try {
+        super.close();
+      } finally {
+        if (!file.delete()) {
+          file.deleteOnExit();
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+/**
+ * A limit on the total number of bytes of response bodies held in memory by Retrofit. Bodies are
+ * buffered when a method returns {@link ResponseBody} and is not
+ * {@link retrofit2.http.Streaming @Streaming}, for {@linkplain Response#errorBody() error bodies},
+ * and for conversion on a {@linkplain Retrofit.Builder#converterExecutor converter executor}. A
+ * single instance may be shared by any number of {@link Retrofit} instances to bound the whole
+ * process.
+ * <p>
+ * A body's bytes count against the budget from when they are read until they are consumed or the
+ * body is closed. Bodies which are neither read nor closed hold their bytes indefinitely.
+ * <p>
+ * When a body does not fit, a {@linkplain #create blocking} budget makes the reading thread wait
+ * for space, and a {@linkplain #createFailFast fail-fast} budget fails the call with an
+ * {@link IOException}. A body with no declared length is budgeted as it is read, so it may wait
+ * while already holding part of the budget. Waits are bounded by a timeout after which the call
+ * fails with an {@link InterruptedIOException}; partially read bodies waiting on one another, or
+ * bodies that are never closed, therefore fail calls instead of stalling them forever. A body
+ * larger than the whole budget always fails.
+ */
+public final class BufferBudget {
+  /** How much an unknown-length body reserves at a time. */
+  private static final long CHUNK_SIZE = 8192L;
+  /** How long a blocking budget waits for space by default. */
+  private static final long DEFAULT_TIMEOUT_MILLIS = 10000L;
+
+  /** Create a budget of {@code maxBytes} which makes readers wait up to 10 seconds for space. */
+  public static BufferBudget create(long maxBytes) {
+    return create(maxBytes, DEFAULT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /** Create a budget of {@code maxBytes} which makes readers wait up to {@code timeout}. */
+  public static BufferBudget create(long maxBytes, long timeout, TimeUnit unit) {
+    if (timeout < 1) throw new IllegalArgumentException("timeout < 1: " + timeout);
+    if (unit == null) throw new NullPointerException("unit == null");
+    return new BufferBudget(maxBytes, false, unit.toNanos(timeout));
+  }
+
+  /** Create a budget of {@code maxBytes} which fails calls when there is no space. */
+  public static BufferBudget createFailFast(long maxBytes) {
+    return new BufferBudget(maxBytes, true, 0L);
+  }
+
+  private final long maxBytes;
+  private final boolean failFast;
+  private final long timeoutNanos;
+  private long usedBytes; // Guarded by this.
+  private long peakBytes; // Guarded by this.
+
+  private BufferBudget(long maxBytes, boolean failFast, long timeoutNanos) {
+    if (maxBytes < 1) throw new IllegalArgumentException("maxBytes < 1: " + maxBytes);
+    this.maxBytes = maxBytes;
+    this.failFast = failFast;
+    this.timeoutNanos = timeoutNanos;
+  }
+
+  /** The most bytes which may be buffered at once. */
+  public long maxBytes() {
+    return maxBytes;
+  }
+
+  /** True if calls fail rather than wait when there is not enough space. */
+  public boolean isFailFast() {
+    return failFast;
+  }
+
+  /** The number of bytes currently buffered. */
+  public synchronized long usedBytes() {
+    return usedBytes;
+  }
+
+  /** The largest number of bytes which have been buffered at once. */
+  public synchronized long peakBytes() {
+    return peakBytes;
+  }
+
+  /**
+   * Read all of {@code body} into memory, counting its bytes against this budget. The returned
+   * body gives the bytes back as they are read and when it is closed. {@code body} is not closed.
+   */
+  ResponseBody buffer(ResponseBody body) throws IOException {
+    long contentLength = body.contentLength();
+    BufferedSource source = body.source();
+    Buffer buffer = new Buffer();
+    long reserved = 0L;
+    try {
+      if (contentLength != -1L) {
+        if (contentLength > maxBytes) {
+          throw new IOException("Response body of "
+              + contentLength + " bytes exceeds buffer budget of " + maxBytes);
+        }
+        reserve(contentLength);
+        reserved = contentLength;
+      }
+      while (true) {
+        if (buffer.size() == reserved) {
+          if (source.exhausted()) break;
+          if (reserved == maxBytes) {
+            throw new IOException("Response body of more than "
+                + maxBytes + " bytes exceeds buffer budget of " + maxBytes);
+          }
+          long chunk = Math.min(CHUNK_SIZE, maxBytes - reserved);
+          reserve(chunk);
+          reserved += chunk;
+        }
+        if (source.read(buffer, reserved - buffer.size()) == -1L) break;
+      }
+    } catch (IOException | RuntimeException e) {
+      release(reserved);
+      throw e;
+    }
+    release(reserved - buffer.size());
+    BufferedSource budgeted = Okio.buffer(new BudgetedSource(buffer));
+    return ResponseBody.create(body.contentType(), contentLength, budgeted);
+  }
+
+  private synchronized void reserve(long byteCount) throws IOException {
+    long deadline = System.nanoTime() + timeoutNanos;
+    while (usedBytes + byteCount > maxBytes) {
+      if (failFast) {
+        throw new IOException("Buffer budget exhausted: " + usedBytes + " of " + maxBytes
+            + " bytes in use, " + byteCount + " more needed");
+      }
+      long remainingNanos = deadline - System.nanoTime();
+      if (remainingNanos <= 0L) {
+        throw new InterruptedIOException("Timed out waiting for buffer budget: " + usedBytes
+            + " of " + maxBytes + " bytes in use, " + byteCount + " more needed");
+      }
+      try {
+        TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted waiting for buffer budget");
+      }
+    }
+    usedBytes += byteCount;
+    if (usedBytes > peakBytes) {
+      peakBytes = usedBytes;
+    }
+  }
+
+  private synchronized void release(long byteCount) {
+    if (byteCount == 0L) return;
+    usedBytes -= byteCount;
+    notifyAll();
+  }
+
+  /** Gives bytes back to the budget as they leave {@code buffer}. */
+  private final class BudgetedSource extends ForwardingSource {
+    private long held;
+
+    BudgetedSource(Buffer buffer) {
+      super(buffer);
+      this.held = buffer.size();
+    }
+
+    @Override public long read(Buffer sink, long byteCount) throws IOException {
+      long read = super.read(sink, byteCount);
+      if (read == -1L) {
+        releaseHeld();
+      } else {
+        held -= read;
+        release(read);
+      }
+      return read;
+    }
+
+    @Override public void close() throws IOException {
+      releaseHeld();
+      super.close();
+    }
+
+    private void releaseHeld() {
+      long held = this.held;
+      this.held = 0L;
+      release(held);
+    }
+  }
+}
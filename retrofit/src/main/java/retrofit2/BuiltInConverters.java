@@ -23,6 +23,10 @@ import okhttp3.ResponseBody;
 import retrofit2.http.Streaming;
 
 final class BuiltInConverters extends Converter.Factory {
+  @Override public boolean isCacheable() {
+    return true;
+  }
+
   @Override
   public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations,
       Retrofit retrofit) {
@@ -30,7 +34,10 @@ final class BuiltInConverters extends Converter.Factory {
       if (Utils.isAnnotationPresent(annotations, Streaming.class)) {
         return StreamingResponseBodyConverter.INSTANCE;
       }
-      return BufferingResponseBodyConverter.INSTANCE;
+      BodyBuffer bodyBuffer = retrofit.bodyBuffer();
+      return bodyBuffer != BodyBuffer.DEFAULT
+          ? new BufferingResponseBodyConverter(bodyBuffer)
+          : BufferingResponseBodyConverter.INSTANCE;
     }
     if (type == Void.class) {
       return VoidResponseBodyConverter.INSTANCE;
@@ -91,12 +98,19 @@ final class BuiltInConverters extends Converter.Factory {
 
   static final class BufferingResponseBodyConverter
       implements Converter<ResponseBody, ResponseBody> {
-    static final BufferingResponseBodyConverter INSTANCE = new BufferingResponseBodyConverter();
+    static final BufferingResponseBodyConverter INSTANCE =
+        new BufferingResponseBodyConverter(BodyBuffer.DEFAULT);
+
+    private final BodyBuffer bodyBuffer;
+
+    BufferingResponseBodyConverter(BodyBuffer bodyBuffer) {
+      this.bodyBuffer = bodyBuffer;
+    }
 
     @Override public ResponseBody convert(ResponseBody value) throws IOException {
       try {
         // Buffer the entire body to avoid future I/O.
-        return Utils.buffer(value);
+        return bodyBuffer.buffer(value);
       } finally {
         value.close();
       }
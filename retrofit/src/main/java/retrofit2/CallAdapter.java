@@ -66,6 +66,20 @@ public interface CallAdapter<T> {
     public abstract CallAdapter<?> get(Type returnType, Annotation[] annotations,
         Retrofit retrofit);
 
+    /**
+     * Returns true if this factory's results depend only on the type and annotations they are
+     * requested for, and on the {@link Retrofit} instance's fixed configuration. Retrofit then
+     * remembers them, including the absence of a result, and does not ask this factory again for
+     * other methods which share the type and annotations. Annotations which only describe the
+     * request, such as {@link retrofit2.http.GET @GET}, are not taken into account.
+     * <p>
+     * A lookup is only remembered if every factory consulted for it is cacheable. Factories
+     * whose results can change over time must return false, which is the default.
+     */
+    public boolean isCacheable() {
+      return false;
+    }
+
     /**
      * Extract the upper bound of the generic parameter at {@code index} from {@code type}. For
      * example, index 1 of {@code Map<String, ? extends Runnable>} returns {@code Runnable}.
@@ -74,6 +88,15 @@ public interface CallAdapter<T> {
       return Utils.getParameterUpperBound(index, type);
     }
 
+    /**
+     * Returns the type {@link CloseableIterator CloseableIterator&lt;elementType&gt;}. Adapters
+     * which emit a body one element at a time report this as their {@linkplain
+     * CallAdapter#responseType() response type}.
+     */
+    protected static ParameterizedType getStreamingIteratorType(Type elementType) {
+      return Utils.closeableIteratorOf(elementType);
+    }
+
     /**
      * Extract the raw class type from {@code type}. For example, the type representing
      * {@code List<? extends Runnable>} returns {@code List.class}.
@@ -0,0 +1,424 @@
+/*
+ * Copyright (C) 2016 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static retrofit2.Utils.checkNotNull;
+
+/**
+ * Runs a group of {@link Call calls} concurrently with a bound on how many are in flight at once.
+ * <p>
+ * Results are available either in the order the calls were added, from {@link #execute()}, or in
+ * the order they complete, from the {@link Listener} passed to {@link #enqueue(Listener)}.
+ * <pre><code>
+ * CallGroup&lt;Shard&gt; group = new CallGroup.Builder&lt;Shard&gt;()
+ *     .addAll(calls)
+ *     .maxConcurrency(8)
+ *     .deadline(30, SECONDS)
+ *     .build();
+ * List&lt;CallGroup.Result&lt;Shard&gt;&gt; results = group.execute();
+ * </code></pre>
+ * Calls are enqueued as-is rather than cloned, so each may only belong to one group. As with
+ * {@link Callback}, an HTTP response is a result even when it is not {@linkplain
+ * Response#isSuccessful() successful}; only a thrown exception is considered a failure.
+ * <p>
+ * A group may be executed or enqueued only once. {@linkplain #cancel() Canceling} it cancels
+ * every outstanding call and prevents the remaining calls from being started.
+ */
+public final class CallGroup<T> {
+  private static Timer deadlineTimer;
+
+  private final List<Call<T>> calls;
+  private final int maxConcurrency;
+  private final boolean failFast;
+  private final long deadlineMillis;
+
+  // All guarded by this.
+  private final List<Result<T>> results;
+  private final boolean[] started;
+  private int nextIndex;
+  private int running;
+  private int completed;
+  private boolean draining;
+  private boolean executed;
+  private boolean canceled;
+  private boolean finished;
+  private Listener<T> listener;
+  private TimerTask deadlineTask;
+
+  CallGroup(Builder<T> builder) {
+    this.calls = Collections.unmodifiableList(new ArrayList<>(builder.calls));
+    this.maxConcurrency = builder.maxConcurrency;
+    this.failFast = builder.failFast;
+    this.deadlineMillis = builder.deadlineMillis;
+    this.results = new ArrayList<>(Collections.<Result<T>>nCopies(calls.size(), null));
+    this.started = new boolean[calls.size()];
+  }
+
+  /** The calls in this group, in the order they were added. */
+  public List<Call<T>> calls() {
+    return calls;
+  }
+
+  /**
+   * Synchronously run every call in the group and return their results in the order the calls
+   * were added.
+   *
+   * @throws IOException if the group was {@linkplain #cancel() canceled}, its deadline elapsed
+   * ({@link InterruptedIOException}), or, when {@linkplain Builder#failFast(boolean) failing
+   * fast}, the first call to fail did so with an {@link IOException}.
+   * @throws RuntimeException if the first call to fail when failing fast did so with an unexpected
+   * error creating the request or decoding the response.
+   */
+  public List<Result<T>> execute() throws IOException {
+    final CountDownLatch latch = new CountDownLatch(1);
+    final AtomicReference<List<Result<T>>> resultsRef = new AtomicReference<>();
+    final AtomicReference<Throwable> failureRef = new AtomicReference<>();
+    enqueue(new Listener<T>() {
+      @Override public void onResult(CallGroup<T> group, Result<T> result) {
+      }
+
+      @Override public void onComplete(CallGroup<T> group, List<Result<T>> results) {
+        resultsRef.set(results);
+        latch.countDown();
+      }
+
+      @Override public void onFailure(CallGroup<T> group, Throwable t) {
+        failureRef.set(t);
+        latch.countDown();
+      }
+    });
+
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      cancel();
+      throw new InterruptedIOException("Interrupted");
+    }
+
+    List<Result<T>> results = resultsRef.get();
+    if (results != null) return results;
+    Throwable failure = failureRef.get();
+    if (failure instanceof IOException) throw (IOException) failure;
+    if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+    if (failure instanceof Error) throw (Error) failure;
+    throw new RuntimeException(failure);
+  }
+
+  /**
+   * Asynchronously run every call in the group, notifying {@code listener} of each result as it
+   * completes and once more when the whole group completes or fails.
+   */
+  public void enqueue(Listener<T> listener) {
+    checkNotNull(listener, "listener == null");
+    boolean empty;
+    synchronized (this) {
+      if (executed) throw new IllegalStateException("Already executed.");
+      executed = true;
+      this.listener = listener;
+      empty = calls.isEmpty();
+      if (!empty && deadlineMillis > 0) {
+        deadlineTask = new TimerTask() {
+          @Override public void run() {
+            finish(new InterruptedIOException("Deadline exceeded"));
+          }
+        };
+        deadlineTimer().schedule(deadlineTask, deadlineMillis);
+      }
+    }
+    if (empty) {
+      listener.onComplete(this, Collections.<Result<T>>emptyList());
+      return;
+    }
+    drain();
+  }
+
+  /** Returns true if this group has been either {@linkplain #execute() executed} or enqueued. */
+  public synchronized boolean isExecuted() {
+    return executed;
+  }
+
+  /**
+   * Cancel every outstanding call in this group. Calls which have not yet been started never will
+   * be, and the group fails with an {@link IOException}.
+   */
+  public void cancel() {
+    synchronized (this) {
+      executed = true; // A canceled group can no longer be run.
+      canceled = true;
+    }
+    finish(new IOException("Canceled"));
+  }
+
+  /** True if {@link #cancel()} was called. */
+  public synchronized boolean isCanceled() {
+    return canceled;
+  }
+
+  /** Starts calls until the concurrency bound is reached or there are none left to start. */
+  private void drain() {
+    synchronized (this) {
+      if (draining) return; // The draining thread will pick up any newly-available slots.
+      draining = true;
+    }
+    while (true) {
+      final int index;
+      synchronized (this) {
+        if (finished || nextIndex == calls.size() || running == maxConcurrency) {
+          draining = false;
+          return;
+        }
+        index = nextIndex++;
+        started[index] = true;
+        running++;
+      }
+
+      Call<T> call = calls.get(index);
+      try {
+        call.enqueue(new Callback<T>() {
+          @Override public void onResponse(Call<T> call, Response<T> response) {
+            complete(new Result<>(index, call, response, null));
+          }
+
+          @Override public void onFailure(Call<T> call, Throwable t) {
+            complete(new Result<T>(index, call, null, t));
+          }
+        });
+      } catch (Throwable t) {
+        // The call could not be enqueued, most likely because it was already executed.
+        complete(new Result<T>(index, call, null, t));
+      }
+    }
+  }
+
+  private void complete(Result<T> result) {
+    Listener<T> listener;
+    boolean groupDone;
+    synchronized (this) {
+      if (finished) return; // Late result from a call canceled by the group.
+      results.set(result.index, result);
+      running--;
+      completed++;
+      listener = this.listener;
+      groupDone = completed == calls.size();
+    }
+
+    try {
+      listener.onResult(this, result);
+    } catch (Throwable t) {
+      t.printStackTrace();
+    }
+
+    if (failFast && result.isError()) {
+      finish(result.error());
+    } else if (groupDone) {
+      finish(null);
+    } else {
+      drain();
+    }
+  }
+
+  /**
+   * Marks this group as finished, canceling all outstanding calls. The listener is notified of
+   * {@code failure} if non-null or of the complete results otherwise.
+   */
+  private void finish(Throwable failure) {
+    Listener<T> listener;
+    List<Call<T>> outstanding = new ArrayList<>();
+    List<Result<T>> results;
+    synchronized (this) {
+      if (finished) return;
+      finished = true;
+      listener = this.listener;
+      if (deadlineTask != null) {
+        deadlineTask.cancel();
+        deadlineTask = null;
+      }
+      for (int i = 0, count = calls.size(); i < count; i++) {
+        if (started[i] && this.results.get(i) == null) {
+          outstanding.add(calls.get(i));
+        }
+      }
+      results = Collections.unmodifiableList(new ArrayList<>(this.results));
+    }
+
+    for (int i = 0, count = outstanding.size(); i < count; i++) {
+      outstanding.get(i).cancel();
+    }
+
+    if (listener == null) return;
+    try {
+      if (failure != null) {
+        listener.onFailure(this, failure);
+      } else {
+        listener.onComplete(this, results);
+      }
+    } catch (Throwable t) {
+      t.printStackTrace();
+    }
+  }
+
+  private static synchronized Timer deadlineTimer() {
+    if (deadlineTimer == null) {
+      deadlineTimer = new Timer("Retrofit CallGroup Deadline", true);
+    }
+    return deadlineTimer;
+  }
+
+  /**
+   * Receives the results of a {@link CallGroup}. {@link #onResult} is invoked for each call as it
+   * completes followed by exactly one invocation of either {@link #onComplete} or
+   * {@link #onFailure}.
+   * <p>
+   * Methods are invoked on the thread which completed the underlying call.
+   */
+  public interface Listener<T> {
+    /** Invoked for each call in the order that they complete. */
+    void onResult(CallGroup<T> group, Result<T> result);
+
+    /**
+     * Invoked once every call has completed. {@code results} are in the order the calls were
+     * added to the group.
+     */
+    void onComplete(CallGroup<T> group, List<Result<T>> results);
+
+    /**
+     * Invoked when the group was canceled, its deadline elapsed, or, when failing fast, a call
+     * failed. All outstanding calls have been canceled.
+     */
+    void onFailure(CallGroup<T> group, Throwable t);
+  }
+
+  /** The outcome of a single call in a {@link CallGroup}. */
+  public static final class Result<T> {
+    private final int index;
+    private final Call<T> call;
+    private final Response<T> response;
+    private final Throwable error;
+
+    Result(int index, Call<T> call, Response<T> response, Throwable error) {
+      this.index = index;
+      this.call = call;
+      this.response = response;
+      this.error = error;
+    }
+
+    /** The position of {@link #call()} in the group. */
+    public int index() {
+      return index;
+    }
+
+    public Call<T> call() {
+      return call;
+    }
+
+    /**
+     * The response received from executing the call. If {@link #isError()} is true, this will be
+     * null.
+     */
+    public Response<T> response() {
+      return response;
+    }
+
+    /**
+     * The error experienced while attempting to execute the call. If {@link #isError()} is false,
+     * this will be null.
+     */
+    public Throwable error() {
+      return error;
+    }
+
+    /** True if the call failed with an exception rather than producing a response. */
+    public boolean isError() {
+      return error != null;
+    }
+  }
+
+  /**
+   * Build a new {@link CallGroup}.
+   * <p>
+   * By default every call is started at once, the group collects all results regardless of
+   * failures, and there is no deadline.
+   */
+  public static final class Builder<T> {
+    private final List<Call<T>> calls = new ArrayList<>();
+    private int maxConcurrency = Integer.MAX_VALUE;
+    private boolean failFast;
+    private long deadlineMillis;
+
+    /** Add {@code call} to the group. */
+    public Builder<T> add(Call<T> call) {
+      calls.add(checkNotNull(call, "call == null"));
+      return this;
+    }
+
+    /** Add each of {@code calls} to the group. */
+    public Builder<T> addAll(Collection<? extends Call<T>> calls) {
+      checkNotNull(calls, "calls == null");
+      for (Call<T> call : calls) {
+        add(call);
+      }
+      return this;
+    }
+
+    /** The maximum number of calls in flight at once. */
+    public Builder<T> maxConcurrency(int maxConcurrency) {
+      if (maxConcurrency < 1) {
+        throw new IllegalArgumentException("maxConcurrency < 1: " + maxConcurrency);
+      }
+      this.maxConcurrency = maxConcurrency;
+      return this;
+    }
+
+    /**
+     * When true, the first call to fail cancels every outstanding call and fails the group. When
+     * false, failures are collected as {@linkplain Result#isError() error results} alongside the
+     * responses.
+     */
+    public Builder<T> failFast(boolean failFast) {
+      this.failFast = failFast;
+      return this;
+    }
+
+    /**
+     * The time allowed for the entire group to complete, measured from when it is executed or
+     * enqueued. Once elapsed, every outstanding call is canceled and the group fails with an
+     * {@link InterruptedIOException}.
+     */
+    public Builder<T> deadline(long timeout, TimeUnit unit) {
+      checkNotNull(unit, "unit == null");
+      if (timeout <= 0) throw new IllegalArgumentException("timeout <= 0: " + timeout);
+      long millis = unit.toMillis(timeout);
+      this.deadlineMillis = millis > 0 ? millis : 1;
+      return this;
+    }
+
+    public CallGroup<T> build() {
+      return new CallGroup<>(this);
+    }
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * An iterator over the elements of a response body which are decoded one at a time as they are
+ * requested.
+ * <p>
+ * Converters produce this type for {@link retrofit2.http.Streaming @Streaming} service methods
+ * which declare {@code Iterator<T>} or {@code CloseableIterator<T>} as their body type, for
+ * example:
+ * <pre><code>
+ * &#64;Streaming
+ * &#64;GET("/events")
+ * Call&lt;Iterator&lt;Event&gt;&gt; events();
+ * </code></pre>
+ * The iterator holds the HTTP connection until it is either exhausted or {@linkplain #close()
+ * closed}. Callers which stop iterating early must close it to release the connection. Failures
+ * to read the body are rethrown from {@link #hasNext()} and {@link #next()} as unchecked
+ * exceptions and also release the connection.
+ */
+public interface CloseableIterator<T> extends Iterator<T>, Closeable {
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2016 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a response body cannot be converted by a {@link Converter} outside of a call's
+ * {@link Call#execute() execute} or {@link Callback callback} methods. For example, by
+ * {@link Response#body()} when a {@linkplain Retrofit.Builder#lazyConversion lazily converted}
+ * body fails. The cause is the {@link IOException} thrown by the converter.
+ */
+public final class ConversionException extends RuntimeException {
+  private static final long serialVersionUID = 0L;
+
+  public ConversionException(String message, IOException cause) {
+    super(message, cause);
+  }
+}
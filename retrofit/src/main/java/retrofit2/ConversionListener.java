@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2;
+
+import okhttp3.Request;
+
+/**
+ * Observes how long successful response bodies wait for and spend in their {@link Converter}.
+ * Register an instance with {@link Retrofit.Builder#conversionListener}.
+ * <p>
+ * Methods are invoked on the thread which performed the conversion and must not block.
+ */
+public interface ConversionListener {
+  /**
+   * Invoked after the body of a response to {@code request} was converted, whether or not the
+   * conversion succeeded.
+   *
+   * @param queueNanos time the buffered body waited for the {@linkplain
+   * Retrofit#converterExecutor() converter executor}. Zero when conversion ran on the thread which
+   * read the response.
+   * @param conversionNanos time spent in the converter.
+   */
+  void onConversion(Request request, long queueNanos, long conversionNanos);
+}
@@ -17,7 +17,9 @@ package retrofit2;
 
 import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.Iterator;
 import okhttp3.RequestBody;
 import okhttp3.ResponseBody;
 import retrofit2.http.Body;
@@ -29,6 +31,7 @@ import retrofit2.http.PartMap;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
 import retrofit2.http.QueryMap;
+import retrofit2.http.Streaming;
 
 /**
  * Convert objects to and from their representation in HTTP. Instances are created by {@linkplain
@@ -73,5 +76,61 @@ public interface Converter<F, T> {
         Retrofit retrofit) {
       return null;
     }
+
+    /**
+     * Returns true if this factory's results depend only on the type and annotations they are
+     * requested for, and on the {@link Retrofit} instance's fixed configuration. Retrofit then
+     * remembers them, including the absence of a result, and does not ask this factory again for
+     * other methods which share the type and annotations. Annotations which only describe the
+     * request, such as {@link retrofit2.http.GET @GET}, are not taken into account.
+     * <p>
+     * A lookup is only remembered if every factory consulted for it is cacheable. Factories
+     * whose results can change over time must return false, which is the default.
+     */
+    public boolean isCacheable() {
+      return false;
+    }
+
+    /**
+     * Returns the element type {@code T} if {@code type} is an {@link Iterator Iterator&lt;T&gt;}
+     * or {@link CloseableIterator CloseableIterator&lt;T&gt;} and {@code annotations} contains
+     * {@link Streaming @Streaming}, or null otherwise. Factories which can decode a body one
+     * element at a time use this to recognize requests for a {@link CloseableIterator}.
+     */
+    protected static Type getStreamingElementType(Type type, Annotation[] annotations) {
+      if (!(type instanceof ParameterizedType)
+          || !Utils.isAnnotationPresent(annotations, Streaming.class)) {
+        return null;
+      }
+      Class<?> rawType = Utils.getRawType(type);
+      if (rawType != Iterator.class && rawType != CloseableIterator.class) {
+        return null;
+      }
+      return Utils.getParameterUpperBound(0, (ParameterizedType) type);
+    }
+
+    /**
+     * Returns the type {@link CloseableIterator CloseableIterator&lt;elementType&gt;}. Factories
+     * which adapt a body decoded one element at a time ask the next converter for this type.
+     */
+    protected static ParameterizedType getStreamingIteratorType(Type elementType) {
+      return Utils.closeableIteratorOf(elementType);
+    }
+
+    /**
+     * Extract the upper bound of the generic parameter at {@code index} from {@code type}. For
+     * example, index 1 of {@code Map<String, ? extends Runnable>} returns {@code Runnable}.
+     */
+    protected static Type getParameterUpperBound(int index, ParameterizedType type) {
+      return Utils.getParameterUpperBound(index, type);
+    }
+
+    /**
+     * Extract the raw class type from {@code type}. For example, the type representing
+     * {@code List<? extends Runnable>} returns {@code List.class}.
+     */
+    protected static Class<?> getRawType(Type type) {
+      return Utils.getRawType(type);
+    }
   }
 }
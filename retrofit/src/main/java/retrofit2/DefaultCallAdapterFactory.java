@@ -26,6 +26,10 @@ import java.lang.reflect.Type;
 final class DefaultCallAdapterFactory extends CallAdapter.Factory {
   static final CallAdapter.Factory INSTANCE = new DefaultCallAdapterFactory();
 
+  @Override public boolean isCacheable() {
+    return true;
+  }
+
   @Override
   public CallAdapter<?> get(Type returnType, Annotation[] annotations, Retrofit retrofit) {
     if (getRawType(returnType) != Call.class) {
@@ -0,0 +1,529 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+
+/**
+ * A download of a response body directly into a file. Declare it as the return type of a service
+ * method:
+ * <pre><code>
+ * &#64;GET("artifacts/{name}")
+ * Download artifact(@Path("name") String name);
+ * </code></pre>
+ * and then write the body to its destination:
+ * <pre><code>
+ * Response&lt;File&gt; response = service.artifact("nightly.tar")
+ *     .syncPolicy(Download.SyncPolicy.every(64 * 1024 * 1024))
+ *     .execute(new File("nightly.tar"));
+ * </code></pre>
+ * The body is copied from the connection to the file segment by segment and is never held in
+ * memory as a whole.
+ * <p>
+ * If the destination already contains a prefix of the resource, for example from an earlier
+ * download which failed part way through, only the remainder is requested with a {@code Range}
+ * header. A partial response is appended only if its {@code Content-Range} starts at the end of
+ * the existing file. If the server ignores the range and sends the entire resource, the
+ * destination is overwritten.
+ * <p>
+ * Large resources can be fetched over several connections at once by calling {@link
+ * #segments(int)}. A first request for a single byte reveals the length of the resource, the file
+ * is preallocated, and each segment's range is fetched concurrently and written at its own offset.
+ * A segment whose connection fails is requested again from where it stopped, up to the number of
+ * {@linkplain #retries(int) retries}.
+ * <p>
+ * Like {@link Call}, each instance can only be executed once.
+ */
+public final class Download {
+  private static final Pattern CONTENT_RANGE =
+      Pattern.compile("bytes (\\d+)-(\\d+)/(\\d+|\\*)", Pattern.CASE_INSENSITIVE);
+  private static final Pattern UNSATISFIED_CONTENT_RANGE =
+      Pattern.compile("bytes \\*/(\\d+)", Pattern.CASE_INSENSITIVE);
+  private static final long SEGMENT_SIZE = 64 * 1024;
+
+  private final Call<?> call;
+  private final Retrofit retrofit;
+  private SyncPolicy syncPolicy = SyncPolicy.AT_END;
+  private int segments = 1;
+  private int retries;
+
+  private volatile boolean canceled;
+
+  // All guarded by this.
+  private final List<okhttp3.Call> rawCalls = new ArrayList<>();
+  private boolean executed;
+
+  Download(Call<?> call, Retrofit retrofit) {
+    this.call = call;
+    this.retrofit = retrofit;
+  }
+
+  /** The HTTP request for the entire resource. */
+  public Request request() {
+    return call.request();
+  }
+
+  /**
+   * Set when written data is forced to the storage device. By default this happens once after the
+   * download completes.
+   */
+  public Download syncPolicy(SyncPolicy syncPolicy) {
+    this.syncPolicy = Utils.checkNotNull(syncPolicy, "syncPolicy == null");
+    return this;
+  }
+
+  /**
+   * Fetch the resource as {@code count} byte ranges over concurrent connections. The default is a
+   * single connection.
+   * <p>
+   * Segmented downloads always start from the beginning and overwrite the destination. If the
+   * server does not support range requests the resource is downloaded over one connection. The
+   * number of concurrent connections is also bounded by the HTTP client, for example by OkHttp's
+   * {@link okhttp3.Dispatcher#setMaxRequestsPerHost(int) per-host limit}. The returned
+   * {@link Response} is that of the first request.
+   */
+  public Download segments(int count) {
+    if (count < 1) throw new IllegalArgumentException("count < 1: " + count);
+    this.segments = count;
+    return this;
+  }
+
+  /**
+   * Resume up to {@code count} times when the connection fails part way through the body. With
+   * {@linkplain #segments(int) segments} each one is retried independently, including when the
+   * server answers a segment's request with a server error. The default is zero.
+   * <p>
+   * A response which does not match its request, such as one with a {@code Content-Range} other
+   * than the one requested, a body of the wrong length, or a status other than 206 or a server
+   * error, is never retried since the server would answer the same way.
+   */
+  public Download retries(int count) {
+    if (count < 0) throw new IllegalArgumentException("count < 0: " + count);
+    this.retries = count;
+    return this;
+  }
+
+  /**
+   * Synchronously download the resource to {@code destination}, resuming from its current length
+   * if it already exists.
+   * <p>
+   * A successful response's body is {@code destination}. An unsuccessful response leaves the
+   * destination unmodified and carries the server's {@linkplain Response#errorBody() error body},
+   * which is subject to the {@linkplain Retrofit.Builder#errorBodyBufferLimit buffer limit} like
+   * that of any other call.
+   *
+   * @throws IOException if the connection fails, the download is canceled, or the server sends a
+   * range other than the one requested. The bytes written before the failure remain in
+   * {@code destination} so that a later download can resume.
+   */
+  public Response<File> execute(File destination) throws IOException {
+    Utils.checkNotNull(destination, "destination == null");
+    synchronized (this) {
+      if (executed) throw new IllegalStateException("Already executed.");
+      executed = true;
+    }
+
+    if (segments > 1) {
+      return executeSegmented(destination);
+    }
+    for (int attempt = 0; ; attempt++) {
+      try {
+        return executeOnce(destination);
+      } catch (UnexpectedResponseException e) {
+        throw e; // The same request would fail the same way.
+      } catch (IOException e) {
+        if (canceled || attempt >= retries) throw e;
+      }
+    }
+  }
+
+  private Response<File> executeOnce(File destination) throws IOException {
+    long existing = destination.isFile() ? destination.length() : 0;
+    Request request = call.request();
+    if (existing > 0) {
+      request = request.newBuilder().header("Range", "bytes=" + existing + "-").build();
+    }
+
+    okhttp3.Response rawResponse = newRawCall(request).execute();
+    ResponseBody rawBody = rawResponse.body();
+    boolean closeBody = true;
+    try {
+      int code = rawResponse.code();
+      if (code == 416 && existing > 0) {
+        // The range starts at or beyond the end of the resource. If the destination is exactly as
+        // long as the resource, it is already complete.
+        Matcher matcher = UNSATISFIED_CONTENT_RANGE.matcher(headerOrEmpty(rawResponse));
+        if (matcher.matches() && Long.parseLong(matcher.group(1)) == existing) {
+          return Response.converted(destination, rawResponse.newBuilder()
+              .code(200)
+              .message("OK")
+              .build());
+        }
+      }
+      if (code < 200 || code >= 300) {
+        closeBody = false; // Closed by the error response unless the caller must close it.
+        return errorResponse(rawBody, rawResponse);
+      }
+
+      long offset = 0;
+      long expectedFileLength = rawBody.contentLength();
+      if (code == 206) {
+        Matcher matcher = contentRange(rawResponse);
+        offset = Long.parseLong(matcher.group(1));
+        if (offset != existing) {
+          throw new UnexpectedResponseException("Requested range from " + existing
+              + " but Content-Range was " + rawResponse.header("Content-Range"));
+        }
+        expectedFileLength =
+            "*".equals(matcher.group(3)) ? -1 : Long.parseLong(matcher.group(3));
+      }
+
+      write(rawBody.source(), destination, offset != 0);
+
+      if (expectedFileLength != -1 && destination.length() != expectedFileLength) {
+        throw new UnexpectedResponseException("Expected " + expectedFileLength + " bytes but "
+            + destination + " has " + destination.length());
+      }
+      return Response.converted(destination, rawResponse);
+    } finally {
+      if (closeBody) {
+        rawBody.close();
+      }
+    }
+  }
+
+  private Response<File> executeSegmented(File destination) throws IOException {
+    // Ask for the first byte to learn whether ranges are supported and how long the resource is.
+    Request probe = call.request().newBuilder().header("Range", "bytes=0-0").build();
+    okhttp3.Response rawResponse = newRawCall(probe).execute();
+    ResponseBody rawBody = rawResponse.body();
+    boolean closeBody = true;
+    long length;
+    try {
+      int code = rawResponse.code();
+      if (code == 416) {
+        // Even the first byte is out of range if the resource is empty.
+        Matcher matcher = UNSATISFIED_CONTENT_RANGE.matcher(headerOrEmpty(rawResponse));
+        if (matcher.matches() && Long.parseLong(matcher.group(1)) == 0) {
+          new FileOutputStream(destination).close();
+          return Response.converted(destination, rawResponse.newBuilder()
+              .code(200)
+              .message("OK")
+              .build());
+        }
+      }
+      if (code < 200 || code >= 300) {
+        closeBody = false; // Closed by the error response unless the caller must close it.
+        return errorResponse(rawBody, rawResponse);
+      }
+      if (code != 206) {
+        // Ranges are not supported. This response carries the entire resource.
+        write(rawBody.source(), destination, false);
+        return Response.converted(destination, rawResponse);
+      }
+      Matcher matcher = contentRange(rawResponse);
+      if ("*".equals(matcher.group(3))) {
+        throw new UnexpectedResponseException(
+            "Unknown length: " + rawResponse.header("Content-Range"));
+      }
+      length = Long.parseLong(matcher.group(3));
+    } finally {
+      if (closeBody) {
+        rawBody.close();
+      }
+    }
+
+    RandomAccessFile file = new RandomAccessFile(destination, "rw");
+    try {
+      file.setLength(length);
+      FileChannel channel = file.getChannel();
+
+      long segmentLength = (length + segments - 1) / segments;
+      int count = (int) ((length + segmentLength - 1) / segmentLength);
+      SegmentedWrite write = new SegmentedWrite(channel, count);
+      for (long start = 0; start < length; start += segmentLength) {
+        write.start(new Segment(write, start, Math.min(start + segmentLength, length) - 1));
+      }
+      write.await();
+
+      if (syncPolicy != SyncPolicy.NEVER) {
+        channel.force(false);
+      }
+    } finally {
+      file.close();
+    }
+    return Response.converted(destination, rawResponse);
+  }
+
+  /** Carries the error body like any other call of the same {@link Retrofit} instance. */
+  private Response<File> errorResponse(ResponseBody rawBody, okhttp3.Response rawResponse)
+      throws IOException {
+    return OkHttpCall.parseErrorResponse(rawBody, rawResponse, retrofit.errorBodyBufferLimit(),
+        retrofit.lazyErrorBodies(), retrofit.bodyBuffer());
+  }
+
+  private void write(BufferedSource source, File destination, boolean append)
+      throws IOException {
+    SyncPolicy syncPolicy = this.syncPolicy;
+    FileOutputStream out = new FileOutputStream(destination, append);
+    try {
+      Buffer buffer = new Buffer();
+      long unsynced = 0;
+      for (long read; (read = source.read(buffer, SEGMENT_SIZE)) != -1; ) {
+        if (canceled) throw new IOException("Canceled");
+        // Hands Okio's segments to the file without copying them into another heap buffer.
+        buffer.writeTo(out);
+        unsynced += read;
+        if (syncPolicy.byteCount > 0 && unsynced >= syncPolicy.byteCount) {
+          out.getFD().sync();
+          unsynced = 0;
+        }
+      }
+      if (syncPolicy != SyncPolicy.NEVER && unsynced > 0) {
+        out.getFD().sync();
+      }
+    } finally {
+      out.close();
+    }
+  }
+
+  private okhttp3.Call newRawCall(Request request) {
+    okhttp3.Call rawCall = retrofit.callFactory().newCall(request);
+    synchronized (this) {
+      rawCalls.add(rawCall);
+    }
+    if (canceled) {
+      rawCall.cancel();
+    }
+    return rawCall;
+  }
+
+  private static Matcher contentRange(okhttp3.Response response)
+      throws UnexpectedResponseException {
+    Matcher matcher = CONTENT_RANGE.matcher(headerOrEmpty(response));
+    if (!matcher.matches()) {
+      throw new UnexpectedResponseException(
+          "Unexpected Content-Range: " + response.header("Content-Range"));
+    }
+    return matcher;
+  }
+
+  private static String headerOrEmpty(okhttp3.Response response) {
+    String value = response.header("Content-Range");
+    return value != null ? value.trim() : "";
+  }
+
+  /** Cancel this download. An in-progress {@link #execute} will throw an {@link IOException}. */
+  public void cancel() {
+    canceled = true;
+    cancelRawCalls();
+  }
+
+  private void cancelRawCalls() {
+    List<okhttp3.Call> calls;
+    synchronized (this) {
+      calls = new ArrayList<>(rawCalls);
+    }
+    for (okhttp3.Call call : calls) {
+      call.cancel();
+    }
+  }
+
+  /** True if {@link #cancel()} was called. */
+  public boolean isCanceled() {
+    return canceled;
+  }
+
+  /** The shared state of the segments of one download. */
+  final class SegmentedWrite {
+    final FileChannel channel;
+    final CountDownLatch remaining;
+    final AtomicLong unsynced = new AtomicLong();
+    volatile Throwable failure;
+
+    SegmentedWrite(FileChannel channel, int count) {
+      this.channel = channel;
+      this.remaining = new CountDownLatch(count);
+    }
+
+    void start(final Segment segment) {
+      Request request = call.request().newBuilder()
+          .header("Range", "bytes=" + segment.position + "-" + segment.end)
+          .build();
+      newRawCall(request).enqueue(new okhttp3.Callback() {
+        @Override public void onResponse(okhttp3.Call call, okhttp3.Response response) {
+          try {
+            segment.read(response);
+            remaining.countDown();
+          } catch (Throwable t) {
+            retryOrFail(segment, t);
+          } finally {
+            response.body().close();
+          }
+        }
+
+        @Override public void onFailure(okhttp3.Call call, IOException e) {
+          retryOrFail(segment, e);
+        }
+      });
+    }
+
+    void retryOrFail(Segment segment, Throwable t) {
+      if (t instanceof IOException && !(t instanceof UnexpectedResponseException)
+          && !canceled && failure == null && segment.attempts++ < retries) {
+        start(segment);
+        return;
+      }
+      if (failure == null) {
+        failure = t;
+        cancelRawCalls(); // Stop the other segments.
+      }
+      remaining.countDown();
+    }
+
+    void await() throws IOException {
+      try {
+        remaining.await();
+      } catch (InterruptedException e) {
+        cancel();
+        throw new InterruptedIOException();
+      }
+      Throwable failure = this.failure;
+      if (failure instanceof IOException) throw (IOException) failure;
+      if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+      if (failure instanceof Error) throw (Error) failure;
+      if (failure != null) throw new IOException(failure);
+    }
+
+    void written(long byteCount) throws IOException {
+      if (syncPolicy.byteCount > 0 && unsynced.addAndGet(byteCount) >= syncPolicy.byteCount) {
+        unsynced.set(0);
+        channel.force(false);
+      }
+    }
+  }
+
+  /** A byte range of the resource, and how much of it has been written. */
+  final class Segment {
+    final SegmentedWrite write;
+    final long end;
+    long position;
+    int attempts;
+
+    Segment(SegmentedWrite write, long start, long end) {
+      this.write = write;
+      this.position = start;
+      this.end = end;
+    }
+
+    void read(okhttp3.Response response) throws IOException {
+      if (response.code() != 206) {
+        String message = "Expected HTTP 206 for range " + position + "-" + end + " but was "
+            + response.code();
+        // Only server errors may be transient. Anything else will be the same when retried.
+        if (response.code() >= 500) throw new IOException(message);
+        throw new UnexpectedResponseException(message);
+      }
+      Matcher matcher = contentRange(response);
+      if (Long.parseLong(matcher.group(1)) != position) {
+        throw new UnexpectedResponseException("Requested range from " + position
+            + " but Content-Range was " + response.header("Content-Range"));
+      }
+
+      BufferedSource source = response.body().source();
+      Buffer buffer = new Buffer();
+      OutputStream out = new ChannelOutputStream();
+      for (long read; position <= end
+          && (read = source.read(buffer, Math.min(SEGMENT_SIZE, end - position + 1))) != -1; ) {
+        if (canceled || write.failure != null) throw new IOException("Canceled");
+        // Hands Okio's segments to the channel without copying them into another heap buffer.
+        buffer.writeTo(out);
+        write.written(read);
+      }
+      if (position <= end) {
+        throw new IOException("Range " + position + "-" + end + " ended early");
+      }
+    }
+
+    /** Writes to the file at this segment's position, and advances it. */
+    final class ChannelOutputStream extends OutputStream {
+      @Override public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+      }
+
+      @Override public void write(byte[] data, int offset, int byteCount) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data, offset, byteCount);
+        while (buffer.hasRemaining()) {
+          position += write.channel.write(buffer, position);
+        }
+      }
+    }
+  }
+
+  /**
+   * Thrown when a response does not match its request. Unlike the {@link ProtocolException}s of a
+   * connection which fails part way through, these are not retried.
+   */
+  static final class UnexpectedResponseException extends ProtocolException {
+    private static final long serialVersionUID = 0L;
+
+    UnexpectedResponseException(String message) {
+      super(message);
+    }
+  }
+
+  /** Controls when downloaded bytes are forced from the operating system to the storage device. */
+  public static final class SyncPolicy {
+    /** Never sync. The operating system writes the data back on its own schedule. */
+    public static final SyncPolicy NEVER = new SyncPolicy(-1);
+
+    /** Sync once after the last byte has been written. */
+    public static final SyncPolicy AT_END = new SyncPolicy(0);
+
+    /**
+     * Sync each time {@code byteCount} bytes have been written, and after the last byte. This
+     * bounds how much of a download is lost if the machine fails.
+     */
+    public static SyncPolicy every(long byteCount) {
+      if (byteCount < 1) throw new IllegalArgumentException("byteCount < 1: " + byteCount);
+      return new SyncPolicy(byteCount);
+    }
+
+    final long byteCount;
+
+    private SyncPolicy(long byteCount) {
+      this.byteCount = byteCount;
+    }
+  }
+}
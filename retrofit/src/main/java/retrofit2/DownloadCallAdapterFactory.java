@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import okhttp3.ResponseBody;
+
+/** Adapts service methods which return {@link Download}. */
+final class DownloadCallAdapterFactory extends CallAdapter.Factory {
+  static final CallAdapter.Factory INSTANCE = new DownloadCallAdapterFactory();
+
+  @Override public boolean isCacheable() {
+    return true;
+  }
+
+  @Override
+  public CallAdapter<Download> get(Type returnType, Annotation[] annotations,
+      final Retrofit retrofit) {
+    if (returnType != Download.class) {
+      return null;
+    }
+    return new CallAdapter<Download>() {
+      @Override public Type responseType() {
+        // The body is written by the download itself rather than by a converter.
+        return ResponseBody.class;
+      }
+
+      @Override public <R> Download adapt(Call<R> call) {
+        return new Download(call, retrofit);
+      }
+    };
+  }
+}
@@ -30,6 +30,10 @@ final class ExecutorCallAdapterFactory extends CallAdapter.Factory {
     this.callbackExecutor = callbackExecutor;
   }
 
+  @Override public boolean isCacheable() {
+    return true;
+  }
+
   @Override
   public CallAdapter<Call<?>> get(Type returnType, Annotation[] annotations, Retrofit retrofit) {
     if (getRawType(returnType) != Call.class) {
@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2016 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2;
+
+import java.io.IOException;
+
+/**
+ * A response body which is converted on first access. The outcome of that conversion, whether a
+ * value or a failure, is returned by every later access.
+ */
+abstract class LazyBody<T> {
+  private boolean converted; // Guarded by this.
+  private T value; // Guarded by this.
+  private RuntimeException failure; // Guarded by this.
+
+  synchronized T get() {
+    if (!converted) {
+      try {
+        value = convert();
+      } catch (IOException e) {
+        failure = new ConversionException("Unable to convert response body", e);
+      } catch (RuntimeException e) {
+        failure = e;
+      }
+      converted = true;
+    }
+    if (failure != null) throw failure;
+    return value;
+  }
+
+  abstract T convert() throws IOException;
+}
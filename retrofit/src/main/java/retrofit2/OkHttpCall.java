@@ -25,6 +25,8 @@ import okio.ForwardingSource;
 import okio.Okio;
 
 import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 final class OkHttpCall<T> implements Call<T> {
   private final ServiceMethod<T> serviceMethod;
@@ -36,6 +38,8 @@ final class OkHttpCall<T> implements Call<T> {
   private okhttp3.Call rawCall;
   private Throwable creationFailure; // Either a RuntimeException or IOException.
   private boolean executed;
+  private ValidatorCache.Key validatorKey;
+  private ValidatorCache.Entry validatorEntry; // Non-null if validators were sent.
 
   OkHttpCall(ServiceMethod<T> serviceMethod, Object[] args) {
     this.serviceMethod = serviceMethod;
@@ -107,9 +111,39 @@ final class OkHttpCall<T> implements Call<T> {
     call.enqueue(new okhttp3.Callback() {
       @Override public void onResponse(okhttp3.Call call, okhttp3.Response rawResponse)
           throws IOException {
+        Executor converterExecutor = serviceMethod.converterExecutor;
+        int code = rawResponse.code();
+        if (converterExecutor == null || code < 200 || code >= 300 || code == 204 || code == 205) {
+          deliver(rawResponse, 0L);
+          return;
+        }
+
+        // Read the body on this thread and release it. Conversion happens on the executor.
+        final okhttp3.Response bufferedResponse;
+        try {
+          bufferedResponse = bufferBody(rawResponse, serviceMethod.bodyBuffer);
+        } catch (Throwable e) {
+          callFailure(e);
+          return;
+        }
+        final long enqueuedAt = System.nanoTime();
+        try {
+          converterExecutor.execute(new Runnable() {
+            @Override public void run() {
+              deliver(bufferedResponse, System.nanoTime() - enqueuedAt);
+            }
+          });
+        } catch (RejectedExecutionException e) {
+          // Release the buffered bytes, or delete them if they were spilled to disk.
+          bufferedResponse.body().close();
+          callFailure(e);
+        }
+      }
+
+      private void deliver(okhttp3.Response rawResponse, long queueNanos) {
         Response<T> response;
         try {
-          response = parseResponse(rawResponse);
+          response = parseResponse(rawResponse, queueNanos);
         } catch (Throwable e) {
           callFailure(e);
           return;
@@ -189,6 +223,21 @@ final class OkHttpCall<T> implements Call<T> {
     if (cacheControl != null) {
       request = request.newBuilder().cacheControl(cacheControl).build();
     }
+    ValidatorCache validatorCache = serviceMethod.validatorCache;
+    if (validatorCache != null) {
+      validatorKey = new ValidatorCache.Key(serviceMethod, request);
+      ValidatorCache.Entry entry = validatorCache.get(validatorKey);
+      // Leave requests which the caller already made conditional alone.
+      if (entry != null
+          && request.header("If-None-Match") == null
+          && request.header("If-Modified-Since") == null) {
+        Request.Builder builder = request.newBuilder();
+        if (entry.etag != null) builder.header("If-None-Match", entry.etag);
+        if (entry.lastModified != null) builder.header("If-Modified-Since", entry.lastModified);
+        request = builder.build();
+        validatorEntry = entry;
+      }
+    }
     okhttp3.Call call = serviceMethod.callFactory.newCall(request);
     if (call == null) {
       throw new NullPointerException("Call.Factory returned null.");
@@ -197,37 +246,163 @@ final class OkHttpCall<T> implements Call<T> {
   }
 
   Response<T> parseResponse(okhttp3.Response rawResponse) throws IOException {
-    ResponseBody rawBody = rawResponse.body();
+    return parseResponse(rawResponse, 0L);
+  }
 
-    // Remove the body's source (the only stateful object) so we can pass the response along.
-    rawResponse = rawResponse.newBuilder()
-        .body(new NoContentResponseBody(rawBody.contentType(), rawBody.contentLength()))
-        .build();
+  private Response<T> parseResponse(okhttp3.Response rawResponse, long queueNanos)
+      throws IOException {
+    // The response keeps its body. Response.raw() hides it on demand, sparing responses whose
+    // raw form is never inspected a copy.
+    ResponseBody rawBody = rawResponse.body();
 
     int code = rawResponse.code();
+    if (code == 304 && validatorEntry != null) {
+      rawBody.close();
+      return notModifiedResponse(validatorEntry, rawResponse);
+    }
+
     if (code < 200 || code >= 300) {
-      try {
-        // Buffer the entire body to avoid future I/O.
-        ResponseBody bufferedBody = Utils.buffer(rawBody);
-        return Response.error(bufferedBody, rawResponse);
-      } finally {
-        rawBody.close();
-      }
+      return parseErrorResponse(rawBody, rawResponse);
     }
 
     if (code == 204 || code == 205) {
-      return Response.success(null, rawResponse);
+      rawBody.close();
+      return Response.converted(null, rawResponse);
+    }
+
+    if (serviceMethod.lazyConversion) {
+      return lazyResponse(rawBody, rawResponse);
+    }
+
+    return Response.converted(convertBody(rawBody, rawResponse, queueNanos), rawResponse);
+  }
+
+  /** Holds the bytes of {@code rawBody} to be converted on first access, and closes it. */
+  private Response<T> lazyResponse(ResponseBody rawBody, final okhttp3.Response rawResponse)
+      throws IOException {
+    final ResponseBody bufferedBody;
+    try {
+      bufferedBody = Utils.buffer(rawBody);
+    } finally {
+      rawBody.close();
+    }
+    if (validatorKey != null) {
+      // Forget the previous body now. Its replacement is remembered if and when it is converted.
+      serviceMethod.validatorCache.remove(validatorKey);
     }
+    return Response.convertedLazily(new LazyBody<T>() {
+      @Override T convert() throws IOException {
+        try {
+          return convertBody(bufferedBody, rawResponse, 0L);
+        } finally {
+          bufferedBody.close();
+        }
+      }
+    }, rawResponse);
+  }
 
-    ExceptionCatchingRequestBody catchingBody = new ExceptionCatchingRequestBody(rawBody);
+  private T convertBody(ResponseBody rawBody, okhttp3.Response rawResponse, long queueNanos)
+      throws IOException {
+    ExceptionCatchingResponseBody catchingBody = new ExceptionCatchingResponseBody(rawBody);
+    ConversionListener conversionListener = serviceMethod.conversionListener;
+    long conversionStart = conversionListener != null ? System.nanoTime() : 0L;
     try {
       T body = serviceMethod.toResponse(catchingBody);
-      return Response.success(body, rawResponse);
+      if (validatorKey != null) {
+        rememberValidators(body, rawResponse);
+      }
+      return body;
     } catch (RuntimeException e) {
       // If the underlying source threw an exception, propagate that rather than indicating it was
       // a runtime exception.
       catchingBody.throwIfCaught();
       throw e;
+    } finally {
+      if (conversionListener != null) {
+        conversionListener.onConversion(rawResponse.request(), queueNanos,
+            System.nanoTime() - conversionStart);
+      }
+    }
+  }
+
+  private static okhttp3.Response bufferBody(okhttp3.Response rawResponse, BodyBuffer bodyBuffer)
+      throws IOException {
+    ResponseBody rawBody = rawResponse.body();
+    try {
+      return rawResponse.newBuilder().body(bodyBuffer.buffer(rawBody)).build();
+    } finally {
+      rawBody.close();
+    }
+  }
+
+  /** Answers a 304 with the body converted from an earlier response. */
+  private Response<T> notModifiedResponse(ValidatorCache.Entry entry,
+      okhttp3.Response rawResponse) {
+    // A 304 may carry updated validators. Keep the ones it omits.
+    String etag = rawResponse.header("ETag");
+    String lastModified = rawResponse.header("Last-Modified");
+    if (etag != null || lastModified != null) {
+      serviceMethod.validatorCache.put(validatorKey, new ValidatorCache.Entry(
+          etag != null ? etag : entry.etag,
+          lastModified != null ? lastModified : entry.lastModified,
+          entry.body));
+    }
+
+    @SuppressWarnings("unchecked") // Entries are keyed by service method and thus by type.
+    T body = (T) entry.body;
+    okhttp3.Response notModified = rawResponse.newBuilder()
+        .code(200)
+        .message("OK")
+        .build();
+    return Response.converted(body, notModified);
+  }
+
+  private void rememberValidators(T body, okhttp3.Response rawResponse) {
+    String etag = rawResponse.header("ETag");
+    String lastModified = rawResponse.header("Last-Modified");
+    if (body == null
+        || (etag == null && lastModified == null)
+        || rawResponse.cacheControl().noStore()) {
+      serviceMethod.validatorCache.remove(validatorKey);
+    } else {
+      serviceMethod.validatorCache.put(validatorKey,
+          new ValidatorCache.Entry(etag, lastModified, body));
+    }
+  }
+
+  private Response<T> parseErrorResponse(ResponseBody rawBody, okhttp3.Response rawResponse)
+      throws IOException {
+    return parseErrorResponse(rawBody, rawResponse, serviceMethod.errorBodyBufferLimit,
+        serviceMethod.lazyErrorBodies, serviceMethod.bodyBuffer);
+  }
+
+  /**
+   * Returns an error response carrying up to {@code limit} bytes of {@code rawBody}, buffered by
+   * {@code bodyBuffer}. The raw body is closed unless {@code lazyErrorBodies} hands it to the
+   * caller.
+   */
+  static <T> Response<T> parseErrorResponse(ResponseBody rawBody, okhttp3.Response rawResponse,
+      long limit, boolean lazyErrorBodies, BodyBuffer bodyBuffer) throws IOException {
+    boolean keepConnection = false;
+    try {
+      BufferedSource source = rawBody.source();
+      if (limit == Long.MAX_VALUE || !source.request(limit + 1)) {
+        // The entire body fits. Buffer it to avoid future I/O.
+        return Response.error(bodyBuffer.buffer(rawBody), rawResponse, false);
+      }
+      if (lazyErrorBodies) {
+        // The first 'limit' bytes are already buffered. The rest is read on demand by the caller.
+        keepConnection = true;
+        return Response.error(rawBody, rawResponse, false);
+      }
+      Buffer buffer = new Buffer();
+      buffer.write(source.buffer(), limit);
+      ResponseBody truncatedBody = ResponseBody.create(rawBody.contentType(), limit, buffer);
+      return Response.error(truncatedBody, rawResponse, true);
+    } finally {
+      if (!keepConnection) {
+        rawBody.close();
+      }
     }
   }
 
@@ -269,11 +444,12 @@ final class OkHttpCall<T> implements Call<T> {
     }
   }
 
-  static final class ExceptionCatchingRequestBody extends ResponseBody {
+  static final class ExceptionCatchingResponseBody extends ResponseBody {
     private final ResponseBody delegate;
+    private BufferedSource delegateSource;
     IOException thrownException;
 
-    ExceptionCatchingRequestBody(ResponseBody delegate) {
+    ExceptionCatchingResponseBody(ResponseBody delegate) {
       this.delegate = delegate;
     }
 
@@ -286,16 +462,22 @@ final class OkHttpCall<T> implements Call<T> {
     }
 
     @Override public BufferedSource source() {
-      return Okio.buffer(new ForwardingSource(delegate.source()) {
-        @Override public long read(Buffer sink, long byteCount) throws IOException {
-          try {
-            return super.read(sink, byteCount);
-          } catch (IOException e) {
-            thrownException = e;
-            throw e;
+      // Created on first use and then reused so that repeated calls neither allocate nor lose any
+      // bytes already buffered by a previous source.
+      BufferedSource source = delegateSource;
+      if (source == null) {
+        source = delegateSource = Okio.buffer(new ForwardingSource(delegate.source()) {
+          @Override public long read(Buffer sink, long byteCount) throws IOException {
+            try {
+              return super.read(sink, byteCount);
+            } catch (IOException e) {
+              thrownException = e;
+              throw e;
+            }
           }
-        }
-      });
+        });
+      }
+      return source;
     }
 
     @Override public void close() {
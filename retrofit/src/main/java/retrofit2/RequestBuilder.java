@@ -24,8 +24,15 @@ import okhttp3.Request;
 import okhttp3.RequestBody;
 import okio.Buffer;
 import okio.BufferedSink;
+import okio.DeflaterSink;
+import okio.ForwardingSink;
+import okio.GzipSink;
+import okio.Okio;
+import okio.Sink;
+import retrofit2.http.Compress;
 
 import java.io.IOException;
+import java.util.zip.Deflater;
 
 final class RequestBuilder {
   private static final char[] HEX_DIGITS =
@@ -46,15 +53,18 @@ final class RequestBuilder {
   private MultipartBody.Builder multipartBuilder;
   private FormBody.Builder formBuilder;
   private RequestBody body;
+  private final Compress compress;
 
   RequestBuilder(String method, HttpUrl baseUrl, String relativeUrl, Headers headers,
-      MediaType contentType, boolean hasBody, boolean isFormEncoded, boolean isMultipart) {
+      MediaType contentType, boolean hasBody, boolean isFormEncoded, boolean isMultipart,
+      Compress compress) {
     this.method = method;
     this.baseUrl = baseUrl;
     this.relativeUrl = relativeUrl;
     this.requestBuilder = new Request.Builder();
     this.contentType = contentType;
     this.hasBody = hasBody;
+    this.compress = compress;
 
     if (headers != null) {
       requestBuilder.headers(headers);
@@ -233,6 +243,19 @@ final class RequestBuilder {
       }
     }
 
+    if (compress != null && body != null) {
+      long contentLength;
+      try {
+        contentLength = body.contentLength();
+      } catch (IOException e) {
+        contentLength = -1L;
+      }
+      if (contentLength == -1L || contentLength >= compress.minimumSize()) {
+        body = new CompressingRequestBody(body, compress.value());
+        requestBuilder.header("Content-Encoding", compress.value().headerValue());
+      }
+    }
+
     return requestBuilder
         .url(url)
         .method(method, body)
@@ -260,4 +283,37 @@ final class RequestBuilder {
       delegate.writeTo(sink);
     }
   }
+
+  private static class CompressingRequestBody extends RequestBody {
+    private final RequestBody delegate;
+    private final Compress.Encoding encoding;
+
+    CompressingRequestBody(RequestBody delegate, Compress.Encoding encoding) {
+      this.delegate = delegate;
+      this.encoding = encoding;
+    }
+
+    @Override public MediaType contentType() {
+      return delegate.contentType();
+    }
+
+    @Override public long contentLength() {
+      return -1; // Unknown until the body has been compressed.
+    }
+
+    @Override public void writeTo(BufferedSink sink) throws IOException {
+      // Closing the compressing sink writes its trailer but must leave the request's sink open.
+      Sink uncloseable = new ForwardingSink(sink) {
+        @Override public void close() throws IOException {
+          flush();
+        }
+      };
+      Sink compressing = encoding == Compress.Encoding.GZIP
+          ? new GzipSink(uncloseable)
+          : new DeflaterSink(uncloseable, new Deflater());
+      BufferedSink compressed = Okio.buffer(compressing);
+      delegate.writeTo(compressed);
+      compressed.close();
+    }
+  }
 }
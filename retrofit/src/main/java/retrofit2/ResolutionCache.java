@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import retrofit2.http.Compress;
+import retrofit2.http.DELETE;
+import retrofit2.http.FormUrlEncoded;
+import retrofit2.http.GET;
+import retrofit2.http.HEAD;
+import retrofit2.http.HTTP;
+import retrofit2.http.Headers;
+import retrofit2.http.Multipart;
+import retrofit2.http.OPTIONS;
+import retrofit2.http.PATCH;
+import retrofit2.http.POST;
+import retrofit2.http.PUT;
+
+/**
+ * Memoizes the converters and call adapters resolved from {@linkplain Converter.Factory#isCacheable
+ * cacheable} factories, including lookups which found nothing.
+ */
+final class ResolutionCache {
+  static final int CALL_ADAPTER = 0;
+  static final int REQUEST_BODY_CONVERTER = 1;
+  static final int RESPONSE_BODY_CONVERTER = 2;
+  static final int STRING_CONVERTER = 3;
+
+  /** The cached result of a lookup which no factory could satisfy. */
+  static final Object NO_MATCH = new Object();
+
+  /**
+   * Annotations which describe the request and are not consulted by factories. Omitting them from
+   * keys lets methods with different paths share their lookups.
+   */
+  private static final List<Class<? extends Annotation>> REQUEST_ANNOTATIONS =
+      Arrays.<Class<? extends Annotation>>asList(DELETE.class, GET.class, HEAD.class,
+          OPTIONS.class, PATCH.class, POST.class, PUT.class, HTTP.class, Headers.class,
+          FormUrlEncoded.class, Multipart.class, Compress.class);
+
+  private final Map<Key, Object> results = new LinkedHashMap<>();
+
+  /** Returns the cached result for {@code key}, {@link #NO_MATCH}, or null if none is cached. */
+  synchronized Object get(Key key) {
+    return results.get(key);
+  }
+
+  synchronized void put(Key key, Object result) {
+    results.put(key, result);
+  }
+
+  synchronized int size() {
+    return results.size();
+  }
+
+  static Key key(int kind, Object skipPast, Type type, Annotation[] annotations,
+      Annotation[] otherAnnotations) {
+    return new Key(kind, skipPast, type, relevant(annotations),
+        otherAnnotations != null ? relevant(otherAnnotations) : null);
+  }
+
+  private static Annotation[] relevant(Annotation[] annotations) {
+    List<Annotation> result = null;
+    for (int i = 0; i < annotations.length; i++) {
+      Annotation annotation = annotations[i];
+      if (annotation != null && REQUEST_ANNOTATIONS.contains(annotation.annotationType())) {
+        if (result == null) {
+          result = new ArrayList<>(Arrays.asList(annotations).subList(0, i));
+        }
+      } else if (result != null) {
+        result.add(annotation);
+      }
+    }
+    return result != null ? result.toArray(new Annotation[result.size()]) : annotations;
+  }
+
+  static final class Key {
+    private final int kind;
+    private final Object skipPast;
+    private final Type type;
+    private final Annotation[] annotations;
+    private final Annotation[] otherAnnotations;
+
+    Key(int kind, Object skipPast, Type type, Annotation[] annotations,
+        Annotation[] otherAnnotations) {
+      this.kind = kind;
+      this.skipPast = skipPast;
+      this.type = type;
+      this.annotations = annotations;
+      this.otherAnnotations = otherAnnotations;
+    }
+
+    @Override public boolean equals(Object other) {
+      if (!(other instanceof Key)) return false;
+      Key that = (Key) other;
+      return kind == that.kind
+          && skipPast == that.skipPast
+          && type.equals(that.type)
+          && Arrays.equals(annotations, that.annotations)
+          && Arrays.equals(otherAnnotations, that.otherAnnotations);
+    }
+
+    @Override public int hashCode() {
+      int result = kind;
+      result = 31 * result + System.identityHashCode(skipPast);
+      result = 31 * result + type.hashCode();
+      result = 31 * result + Arrays.hashCode(annotations);
+      result = 31 * result + Arrays.hashCode(otherAnnotations);
+      return result;
+    }
+  }
+}
@@ -52,11 +52,33 @@ public final class Response<T> {
    * body.
    */
   public static <T> Response<T> success(T body, okhttp3.Response rawResponse) {
+    checkSuccessful(rawResponse);
+    return new Response<>(rawResponse, false, body, null, null, false);
+  }
+
+  /**
+   * Create a successful response from {@code rawResponse} whose own body was consumed to produce
+   * {@code body}. That body is hidden from {@link #raw()}.
+   */
+  static <T> Response<T> converted(T body, okhttp3.Response rawResponse) {
+    checkSuccessful(rawResponse);
+    return new Response<>(rawResponse, true, body, null, null, false);
+  }
+
+  /**
+   * Create a successful response from {@code rawResponse} whose body is converted by {@code body}
+   * on first access. The body of {@code rawResponse} is hidden from {@link #raw()}.
+   */
+  static <T> Response<T> convertedLazily(LazyBody<T> body, okhttp3.Response rawResponse) {
+    checkSuccessful(rawResponse);
+    return new Response<>(rawResponse, true, null, body, null, false);
+  }
+
+  private static void checkSuccessful(okhttp3.Response rawResponse) {
     if (rawResponse == null) throw new NullPointerException("rawResponse == null");
     if (!rawResponse.isSuccessful()) {
       throw new IllegalArgumentException("rawResponse must be successful response");
     }
-    return new Response<>(rawResponse, body, null);
   }
 
   /**
@@ -74,27 +96,65 @@ public final class Response<T> {
 
   /** Create an error response from {@code rawResponse} with {@code body} as the error body. */
   public static <T> Response<T> error(ResponseBody body, okhttp3.Response rawResponse) {
+    checkError(body, rawResponse);
+    return new Response<>(rawResponse, false, null, null, body, false);
+  }
+
+  /**
+   * Create an error response from {@code rawResponse} whose own body was consumed to produce
+   * {@code body}. That body is hidden from {@link #raw()}. If {@code truncated} is true, {@code
+   * body} holds only a prefix of the body which was sent.
+   */
+  static <T> Response<T> error(ResponseBody body, okhttp3.Response rawResponse,
+      boolean truncated) {
+    checkError(body, rawResponse);
+    return new Response<>(rawResponse, true, null, null, body, truncated);
+  }
+
+  private static void checkError(ResponseBody body, okhttp3.Response rawResponse) {
     if (body == null) throw new NullPointerException("body == null");
     if (rawResponse == null) throw new NullPointerException("rawResponse == null");
     if (rawResponse.isSuccessful()) {
       throw new IllegalArgumentException("rawResponse should not be successful response");
     }
-    return new Response<>(rawResponse, null, body);
   }
 
   private final okhttp3.Response rawResponse;
+  private final boolean hideRawBody;
   private final T body;
+  private final LazyBody<T> lazyBody;
   private final ResponseBody errorBody;
+  private final boolean errorBodyTruncated;
+  /**
+   * {@code rawResponse} without its body, created on first use of {@link #raw()}. Racy but safe
+   * because every thread computes an equivalent immutable value.
+   */
+  private okhttp3.Response bodylessRawResponse;
 
-  private Response(okhttp3.Response rawResponse, T body, ResponseBody errorBody) {
+  private Response(okhttp3.Response rawResponse, boolean hideRawBody, T body,
+      LazyBody<T> lazyBody, ResponseBody errorBody, boolean errorBodyTruncated) {
     this.rawResponse = rawResponse;
+    this.hideRawBody = hideRawBody;
     this.body = body;
+    this.lazyBody = lazyBody;
     this.errorBody = errorBody;
+    this.errorBodyTruncated = errorBodyTruncated;
   }
 
   /** The raw response from the HTTP client. */
   public okhttp3.Response raw() {
-    return rawResponse;
+    if (!hideRawBody) return rawResponse;
+    okhttp3.Response result = bodylessRawResponse;
+    if (result == null) {
+      // Replace the body's source (the only stateful object) so the response can be passed along.
+      ResponseBody rawBody = rawResponse.body();
+      result = rawResponse.newBuilder()
+          .body(new OkHttpCall.NoContentResponseBody(rawBody.contentType(),
+              rawBody.contentLength()))
+          .build();
+      bodylessRawResponse = result;
+    }
+    return result;
   }
 
   /** HTTP status code. */
@@ -117,13 +177,29 @@ public final class Response<T> {
     return rawResponse.isSuccessful();
   }
 
-  /** The deserialized response body of a {@linkplain #isSuccessful() successful} response. */
+  /**
+   * The deserialized response body of a {@linkplain #isSuccessful() successful} response.
+   * <p>
+   * With {@linkplain Retrofit.Builder#lazyConversion lazy conversion} the body is converted by the
+   * first call to this method. Later calls return the same instance.
+   *
+   * @throws ConversionException if the body was converted lazily and the converter failed with an
+   * {@link java.io.IOException}. Runtime exceptions thrown by the converter are rethrown as-is.
+   */
   public T body() {
-    return body;
+    return lazyBody != null ? lazyBody.get() : body;
   }
 
   /** The raw response body of an {@linkplain #isSuccessful() unsuccessful} response. */
   public ResponseBody errorBody() {
     return errorBody;
   }
+
+  /**
+   * Returns true if {@link #errorBody()} holds only a prefix of the body sent by the server
+   * because it exceeded the {@linkplain Retrofit.Builder#errorBodyBufferLimit buffer limit}.
+   */
+  public boolean isErrorBodyTruncated() {
+    return errorBodyTruncated;
+  }
 }
@@ -24,6 +24,7 @@ import retrofit2.http.HTTP;
 import retrofit2.http.Header;
 import retrofit2.http.Url;
 
+import java.io.File;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
@@ -34,6 +35,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import static java.util.Collections.unmodifiableList;
 import static retrofit2.Utils.checkNotNull;
@@ -60,6 +62,7 @@ import static retrofit2.Utils.checkNotNull;
 public final class Retrofit {
   private final Map<Method, ServiceMethod> serviceMethodCache = new LinkedHashMap<>();
   private final Map<Type, ParameterHandler[]> typeCommonHandlersCache = new LinkedHashMap<>();
+  private final ResolutionCache resolutionCache = new ResolutionCache();
 
   private final okhttp3.Call.Factory callFactory;
   private final HttpUrl baseUrl;
@@ -67,25 +70,51 @@ public final class Retrofit {
   private final List<CallAdapter.Factory> adapterFactories;
   private final Executor callbackExecutor;
   private final boolean validateEagerly;
+  private final long errorBodyBufferLimit;
+  private final boolean lazyErrorBodies;
+  private final ValidatorCache validatorCache;
+  private final Executor converterExecutor;
+  private final ConversionListener conversionListener;
+  private final BufferBudget bufferBudget;
+  private final long spillThreshold;
+  private final File spillDirectory;
+  private final BodyBuffer bodyBuffer;
+  private final boolean lazyConversion;
   private ParamProvider paramProvider;
 
   Retrofit(okhttp3.Call.Factory callFactory, HttpUrl baseUrl,
       List<Converter.Factory> converterFactories, List<CallAdapter.Factory> adapterFactories,
       Executor callbackExecutor, boolean validateEagerly) {
+    this(callFactory, baseUrl, converterFactories, adapterFactories, callbackExecutor,
+        validateEagerly, null, Long.MAX_VALUE, false, null, null, null, null, -1L, null, false);
+  }
+
+  Retrofit(okhttp3.Call.Factory callFactory, HttpUrl baseUrl,
+           List<Converter.Factory> converterFactories, List<CallAdapter.Factory> adapterFactories,
+           Executor callbackExecutor, boolean validateEagerly, ParamProvider paramProvider,
+           long errorBodyBufferLimit, boolean lazyErrorBodies, ValidatorCache validatorCache,
+           Executor converterExecutor, ConversionListener conversionListener,
+           BufferBudget bufferBudget, long spillThreshold, File spillDirectory,
+           boolean lazyConversion) {
     this.callFactory = callFactory;
     this.baseUrl = baseUrl;
     this.converterFactories = unmodifiableList(converterFactories); // Defensive copy at call site.
     this.adapterFactories = unmodifiableList(adapterFactories); // Defensive copy at call site.
     this.callbackExecutor = callbackExecutor;
     this.validateEagerly = validateEagerly;
-  }
-
-  Retrofit(okhttp3.Call.Factory callFactory, HttpUrl baseUrl,
-           List<Converter.Factory> converterFactories, List<CallAdapter.Factory> adapterFactories,
-           Executor callbackExecutor, boolean validateEagerly, ParamProvider paramProvider) {
-    this(callFactory, baseUrl, converterFactories, adapterFactories, callbackExecutor,
-        validateEagerly);
     this.paramProvider = paramProvider;
+    this.errorBodyBufferLimit = errorBodyBufferLimit;
+    this.lazyErrorBodies = lazyErrorBodies;
+    this.validatorCache = validatorCache;
+    this.converterExecutor = converterExecutor;
+    this.conversionListener = conversionListener;
+    this.bufferBudget = bufferBudget;
+    this.spillThreshold = spillThreshold;
+    this.spillDirectory = spillDirectory;
+    this.bodyBuffer = bufferBudget != null || spillDirectory != null
+        ? new BodyBuffer(bufferBudget, spillThreshold, spillDirectory)
+        : BodyBuffer.DEFAULT;
+    this.lazyConversion = lazyConversion;
   }
 
   /**
@@ -247,12 +276,26 @@ public final class Retrofit {
     checkNotNull(returnType, "returnType == null");
     checkNotNull(annotations, "annotations == null");
 
+    ResolutionCache.Key key = ResolutionCache.key(ResolutionCache.CALL_ADAPTER, skipPast,
+        returnType, annotations, null);
+    Object cached = resolutionCache.get(key);
+    if (cached instanceof CallAdapter) {
+      return (CallAdapter<?>) cached;
+    }
+
     int start = adapterFactories.indexOf(skipPast) + 1;
-    for (int i = start, count = adapterFactories.size(); i < count; i++) {
-      CallAdapter<?> adapter = adapterFactories.get(i).get(returnType, annotations, this);
-      if (adapter != null) {
-        return adapter;
+    if (cached == null) {
+      boolean cacheable = true;
+      for (int i = start, count = adapterFactories.size(); i < count; i++) {
+        CallAdapter.Factory factory = adapterFactories.get(i);
+        cacheable &= factory.isCacheable();
+        CallAdapter<?> adapter = factory.get(returnType, annotations, this);
+        if (adapter != null) {
+          if (cacheable) resolutionCache.put(key, adapter);
+          return adapter;
+        }
       }
+      if (cacheable) resolutionCache.put(key, ResolutionCache.NO_MATCH);
     }
 
     StringBuilder builder = new StringBuilder("Could not locate call adapter for ")
@@ -305,15 +348,29 @@ public final class Retrofit {
     checkNotNull(parameterAnnotations, "parameterAnnotations == null");
     checkNotNull(methodAnnotations, "methodAnnotations == null");
 
+    ResolutionCache.Key key = ResolutionCache.key(ResolutionCache.REQUEST_BODY_CONVERTER,
+        skipPast, type, parameterAnnotations, methodAnnotations);
+    Object cached = resolutionCache.get(key);
+    if (cached instanceof Converter) {
+      //noinspection unchecked
+      return (Converter<T, RequestBody>) cached;
+    }
+
     int start = converterFactories.indexOf(skipPast) + 1;
-    for (int i = start, count = converterFactories.size(); i < count; i++) {
-      Converter.Factory factory = converterFactories.get(i);
-      Converter<?, RequestBody> converter =
-          factory.requestBodyConverter(type, parameterAnnotations, methodAnnotations, this);
-      if (converter != null) {
-        //noinspection unchecked
-        return (Converter<T, RequestBody>) converter;
+    if (cached == null) {
+      boolean cacheable = true;
+      for (int i = start, count = converterFactories.size(); i < count; i++) {
+        Converter.Factory factory = converterFactories.get(i);
+        cacheable &= factory.isCacheable();
+        Converter<?, RequestBody> converter =
+            factory.requestBodyConverter(type, parameterAnnotations, methodAnnotations, this);
+        if (converter != null) {
+          if (cacheable) resolutionCache.put(key, converter);
+          //noinspection unchecked
+          return (Converter<T, RequestBody>) converter;
+        }
       }
+      if (cacheable) resolutionCache.put(key, ResolutionCache.NO_MATCH);
     }
 
     StringBuilder builder = new StringBuilder("Could not locate RequestBody converter for ")
@@ -354,14 +411,29 @@ public final class Retrofit {
     checkNotNull(type, "type == null");
     checkNotNull(annotations, "annotations == null");
 
+    ResolutionCache.Key key = ResolutionCache.key(ResolutionCache.RESPONSE_BODY_CONVERTER,
+        skipPast, type, annotations, null);
+    Object cached = resolutionCache.get(key);
+    if (cached instanceof Converter) {
+      //noinspection unchecked
+      return (Converter<ResponseBody, T>) cached;
+    }
+
     int start = converterFactories.indexOf(skipPast) + 1;
-    for (int i = start, count = converterFactories.size(); i < count; i++) {
-      Converter<ResponseBody, ?> converter =
-          converterFactories.get(i).responseBodyConverter(type, annotations, this);
-      if (converter != null) {
-        //noinspection unchecked
-        return (Converter<ResponseBody, T>) converter;
+    if (cached == null) {
+      boolean cacheable = true;
+      for (int i = start, count = converterFactories.size(); i < count; i++) {
+        Converter.Factory factory = converterFactories.get(i);
+        cacheable &= factory.isCacheable();
+        Converter<ResponseBody, ?> converter =
+            factory.responseBodyConverter(type, annotations, this);
+        if (converter != null) {
+          if (cacheable) resolutionCache.put(key, converter);
+          //noinspection unchecked
+          return (Converter<ResponseBody, T>) converter;
+        }
       }
+      if (cacheable) resolutionCache.put(key, ResolutionCache.NO_MATCH);
     }
 
     StringBuilder builder = new StringBuilder("Could not locate ResponseBody converter for ")
@@ -389,16 +461,28 @@ public final class Retrofit {
     checkNotNull(type, "type == null");
     checkNotNull(annotations, "annotations == null");
 
+    ResolutionCache.Key key =
+        ResolutionCache.key(ResolutionCache.STRING_CONVERTER, null, type, annotations, null);
+    Object cached = resolutionCache.get(key);
+    if (cached != null) {
+      //noinspection unchecked
+      return (Converter<T, String>) cached;
+    }
+
+    boolean cacheable = true;
     for (int i = 0, count = converterFactories.size(); i < count; i++) {
-      Converter<?, String> converter =
-          converterFactories.get(i).stringConverter(type, annotations, this);
+      Converter.Factory factory = converterFactories.get(i);
+      cacheable &= factory.isCacheable();
+      Converter<?, String> converter = factory.stringConverter(type, annotations, this);
       if (converter != null) {
+        if (cacheable) resolutionCache.put(key, converter);
         //noinspection unchecked
         return (Converter<T, String>) converter;
       }
     }
 
     // Nothing matched. Resort to default converter which just calls toString().
+    if (cacheable) resolutionCache.put(key, BuiltInConverters.ToStringConverter.INSTANCE);
     //noinspection unchecked
     return (Converter<T, String>) BuiltInConverters.ToStringConverter.INSTANCE;
   }
@@ -411,6 +495,69 @@ public final class Retrofit {
     return callbackExecutor;
   }
 
+  /**
+   * The maximum number of bytes of an unsuccessful response's body which will be held in memory.
+   * This is {@link Long#MAX_VALUE} unless a limit was configured.
+   */
+  public long errorBodyBufferLimit() {
+    return errorBodyBufferLimit;
+  }
+
+  /**
+   * True if error bodies larger than {@link #errorBodyBufferLimit()} are streamed from the
+   * connection instead of being truncated.
+   */
+  public boolean lazyErrorBodies() {
+    return lazyErrorBodies;
+  }
+
+  /**
+   * The executor on which successful response bodies are converted for {@linkplain
+   * Call#enqueue asynchronous} calls. This may be {@code null}, in which case bodies are converted
+   * on the thread which read the response.
+   */
+  public Executor converterExecutor() {
+    return converterExecutor;
+  }
+
+  /** The listener notified of response body conversions. This may be {@code null}. */
+  public ConversionListener conversionListener() {
+    return conversionListener;
+  }
+
+  /** The budget for buffered response bodies. This may be {@code null} for no limit. */
+  public BufferBudget bufferBudget() {
+    return bufferBudget;
+  }
+
+  /**
+   * The size above which buffered response bodies are written to {@link #spillDirectory()}, or -1
+   * if bodies are always held in memory.
+   */
+  public long spillThreshold() {
+    return spillThreshold;
+  }
+
+  /** The directory for response bodies too large to buffer in memory. This may be {@code null}. */
+  public File spillDirectory() {
+    return spillDirectory;
+  }
+
+  /** True if successful response bodies are converted on first access rather than eagerly. */
+  public boolean lazyConversion() {
+    return lazyConversion;
+  }
+
+  /** Buffers response bodies according to the budget and spill settings. */
+  BodyBuffer bodyBuffer() {
+    return bodyBuffer;
+  }
+
+  /** The store of response validators, or null if conditional requests are not made. */
+  ValidatorCache validatorCache() {
+    return validatorCache;
+  }
+
   /**
    * Build a new {@link Retrofit}.
    * <p>
@@ -426,6 +573,17 @@ public final class Retrofit {
     private Executor callbackExecutor;
     private boolean validateEagerly;
     private ParamProvider paramProvider;
+    private long errorBodyBufferLimit = Long.MAX_VALUE;
+    private boolean lazyErrorBodies;
+    private int validatorCacheSize;
+    private Executor converterExecutor;
+    private ConversionListener conversionListener;
+    private boolean batchCallbacks;
+    private long batchWindowNanos;
+    private BufferBudget bufferBudget;
+    private long spillThreshold = -1L;
+    private File spillDirectory;
+    private boolean lazyConversion;
 
     Builder(Platform platform) {
       this.platform = platform;
@@ -579,6 +737,149 @@ public final class Retrofit {
       return this;
     }
 
+    /**
+     * Hold at most {@code byteCount} bytes of an unsuccessful response's body in memory. By
+     * default error bodies are buffered in their entirety.
+     * <p>
+     * Bytes beyond the limit are discarded and {@link Response#isErrorBodyTruncated()} will
+     * report {@code true}, unless {@linkplain #lazyErrorBodies lazy error bodies} are enabled.
+     */
+    public Builder errorBodyBufferLimit(long byteCount) {
+      if (byteCount < 0) throw new IllegalArgumentException("byteCount < 0: " + byteCount);
+      this.errorBodyBufferLimit = byteCount;
+      return this;
+    }
+
+    /**
+     * Instead of discarding the bytes of an error body which exceed the {@linkplain
+     * #errorBodyBufferLimit buffer limit}, leave them on the connection to be read on demand.
+     * <p>
+     * Note: When enabled, an {@linkplain Response#errorBody() error body} larger than the limit
+     * holds the underlying connection and <em>must</em> be closed by the caller.
+     */
+    public Builder lazyErrorBodies(boolean lazyErrorBodies) {
+      this.lazyErrorBodies = lazyErrorBodies;
+      return this;
+    }
+
+    /**
+     * Remember the {@code ETag} and {@code Last-Modified} validators of up to {@code maxEntries}
+     * successful {@code GET} responses along with their converted bodies. Later requests for the
+     * same service method, URL, and headers are made conditional with {@code If-None-Match} and
+     * {@code If-Modified-Since}. A {@code 304 Not Modified} response is then answered with the
+     * previously converted body, which is neither read nor converted again, and a {@code 200}
+     * status.
+     * <p>
+     * Note: The same body instance is returned to every call which is answered from this store.
+     * Bodies should therefore be treated as immutable. Methods annotated with {@link
+     * retrofit2.http.Streaming @Streaming} or which return a {@link ResponseBody} are never
+     * stored.
+     */
+    public Builder validatorCache(int maxEntries) {
+      if (maxEntries < 1) throw new IllegalArgumentException("maxEntries < 1: " + maxEntries);
+      this.validatorCacheSize = maxEntries;
+      return this;
+    }
+
+    /**
+     * Deliver callbacks which complete while an earlier callback is still waiting for the
+     * {@linkplain #callbackExecutor callback executor} together in a single task, in completion
+     * order. This reduces handoffs to single-threaded executors such as Android's main thread
+     * when many responses arrive in a burst.
+     * <p>
+     * Note: This has no effect when there is no callback executor.
+     */
+    public Builder batchCallbacks(boolean batchCallbacks) {
+      this.batchCallbacks = batchCallbacks;
+      this.batchWindowNanos = 0L;
+      return this;
+    }
+
+    /**
+     * {@linkplain #batchCallbacks(boolean) Batch callbacks}, additionally holding each batch for
+     * {@code window} after its first callback completes so that callbacks completing within the
+     * window share its task. This trades up to {@code window} of callback latency for fewer
+     * handoffs.
+     */
+    public Builder batchCallbacks(long window, TimeUnit unit) {
+      if (window < 0) throw new IllegalArgumentException("window < 0: " + window);
+      checkNotNull(unit, "unit == null");
+      this.batchCallbacks = true;
+      this.batchWindowNanos = unit.toNanos(window);
+      return this;
+    }
+
+    /**
+     * The executor on which successful response bodies of {@linkplain Call#enqueue asynchronous}
+     * calls are converted. The body is read in its entirety on the HTTP client's thread, which is
+     * then released, and is converted on {@code executor}. This keeps CPU-heavy conversion from
+     * occupying threads which perform network I/O.
+     * <p>
+     * Bodies of methods annotated with {@link retrofit2.http.Streaming @Streaming} are always
+     * converted on the thread which read the response because they cannot be buffered. Methods
+     * returning {@link ResponseBody} or {@link Void} have nothing to convert and also stay on that
+     * thread.
+     */
+    public Builder converterExecutor(Executor executor) {
+      this.converterExecutor = checkNotNull(executor, "executor == null");
+      return this;
+    }
+
+    /** Notify {@code listener} of the queueing and conversion time of every response body. */
+    public Builder conversionListener(ConversionListener listener) {
+      this.conversionListener = checkNotNull(listener, "listener == null");
+      return this;
+    }
+
+    /**
+     * Count the response bodies which Retrofit buffers in memory against {@code budget}. Share one
+     * budget between {@link Retrofit} instances to bound their combined use.
+     */
+    public Builder bufferBudget(BufferBudget budget) {
+      this.bufferBudget = checkNotNull(budget, "budget == null");
+      return this;
+    }
+
+    /**
+     * Write response bodies which Retrofit buffers and which are larger than {@code byteCount} to
+     * temporary files in {@code directory} instead of holding them in memory. This applies to
+     * {@link ResponseBody} results, {@linkplain Response#errorBody() error bodies}, and bodies
+     * converted on a {@linkplain #converterExecutor converter executor}. Spilled bodies do not
+     * count against the {@linkplain #bufferBudget buffer budget}.
+     * <p>
+     * A body's file is deleted when the body is closed. Converters close the bodies they consume,
+     * but callers <em>must</em> close {@link ResponseBody} results and error bodies.
+     */
+    public Builder spillToDisk(long byteCount, File directory) {
+      if (byteCount < 0) throw new IllegalArgumentException("byteCount < 0: " + byteCount);
+      this.spillThreshold = byteCount;
+      this.spillDirectory = checkNotNull(directory, "directory == null");
+      return this;
+    }
+
+    /**
+     * Convert successful response bodies on the first call to {@link Response#body()} instead of
+     * when the response arrives. Until then the body's bytes are held in memory. This avoids
+     * conversion entirely for callers which only inspect the status code or headers.
+     * <p>
+     * Held bytes could not be counted against a {@linkplain #bufferBudget buffer budget} nor
+     * {@linkplain #spillToDisk spilled to disk}, since a body which is never accessed has no
+     * point at which it could release them, so {@link #build()} rejects those options in
+     * combination with this one. Methods annotated with {@link
+     * retrofit2.http.Streaming @Streaming}, whose converters read from the open connection, and
+     * methods returning {@link ResponseBody} or {@link Void} are always converted eagerly. A
+     * lazily converted body is converted on the thread which first accesses it, never on the
+     * {@linkplain #converterExecutor converter executor}.
+     * <p>
+     * {@link Response#body()} throws {@link ConversionException} when such a body cannot be
+     * converted, so only use this with call adapters which either expose the {@link Response} or
+     * report exceptions thrown by {@code body()} to their caller, as the built-in adapters do.
+     */
+    public Builder lazyConversion(boolean lazyConversion) {
+      this.lazyConversion = lazyConversion;
+      return this;
+    }
+
     /**
      * Create the {@link Retrofit} instance using the configured values.
      * <p>
@@ -589,6 +890,10 @@ public final class Retrofit {
       if (baseUrl == null) {
         throw new IllegalStateException("Base URL required.");
       }
+      if (lazyConversion && (bufferBudget != null || spillDirectory != null)) {
+        throw new IllegalStateException(
+            "Lazy conversion cannot be combined with a buffer budget or spilling to disk.");
+      }
 
       okhttp3.Call.Factory callFactory = this.callFactory;
       if (callFactory == null) {
@@ -599,16 +904,23 @@ public final class Retrofit {
       if (callbackExecutor == null) {
         callbackExecutor = platform.defaultCallbackExecutor();
       }
+      if (batchCallbacks && callbackExecutor != null) {
+        callbackExecutor = new BatchingExecutor(callbackExecutor, batchWindowNanos);
+      }
 
-      // Make a defensive copy of the adapters and add the default Call adapter.
+      // Make a defensive copy of the adapters and add the built-in Download and Call adapters.
       List<CallAdapter.Factory> adapterFactories = new ArrayList<>(this.adapterFactories);
+      adapterFactories.add(DownloadCallAdapterFactory.INSTANCE);
       adapterFactories.add(platform.defaultCallAdapterFactory(callbackExecutor));
 
       // Make a defensive copy of the converters.
       List<Converter.Factory> converterFactories = new ArrayList<>(this.converterFactories);
 
       return new Retrofit(callFactory, baseUrl, converterFactories, adapterFactories,
-          callbackExecutor, validateEagerly, paramProvider);
+          callbackExecutor, validateEagerly, paramProvider, errorBodyBufferLimit, lazyErrorBodies,
+          validatorCacheSize > 0 ? new ValidatorCache(validatorCacheSize) : null,
+          converterExecutor, conversionListener, bufferBudget, spillThreshold, spillDirectory,
+          lazyConversion);
     }
   }
 }
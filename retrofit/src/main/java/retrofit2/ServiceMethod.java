@@ -23,6 +23,7 @@ import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.ResponseBody;
 import retrofit2.http.Body;
+import retrofit2.http.Compress;
 import retrofit2.http.DELETE;
 import retrofit2.http.Field;
 import retrofit2.http.FieldMap;
@@ -42,6 +43,7 @@ import retrofit2.http.PartMap;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
 import retrofit2.http.QueryMap;
+import retrofit2.http.Streaming;
 import retrofit2.http.Url;
 
 import java.io.IOException;
@@ -53,6 +55,7 @@ import java.net.URI;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -66,6 +69,13 @@ final class ServiceMethod<T> {
 
   final okhttp3.Call.Factory callFactory;
   final CallAdapter<?> callAdapter;
+  final long errorBodyBufferLimit;
+  final boolean lazyErrorBodies;
+  final ValidatorCache validatorCache;
+  final Executor converterExecutor;
+  final ConversionListener conversionListener;
+  final BodyBuffer bodyBuffer;
+  final boolean lazyConversion;
 
   private final HttpUrl baseUrl;
   private final Converter<ResponseBody, T> responseConverter;
@@ -76,6 +86,7 @@ final class ServiceMethod<T> {
   private final boolean hasBody;
   private final boolean isFormEncoded;
   private final boolean isMultipart;
+  private final Compress compress;
   private final ParameterHandler<?>[] parameterHandlers;
   private final ParameterHandler<?>[] typeCommonHandlers;
   private final ParamProvider paramProvider;
@@ -83,6 +94,13 @@ final class ServiceMethod<T> {
   ServiceMethod(Builder<T> builder) {
     this.callFactory = builder.retrofit.callFactory();
     this.callAdapter = builder.callAdapter;
+    this.errorBodyBufferLimit = builder.retrofit.errorBodyBufferLimit();
+    this.lazyErrorBodies = builder.retrofit.lazyErrorBodies();
+    this.validatorCache = builder.validatorCache;
+    this.converterExecutor = builder.converterExecutor;
+    this.conversionListener = builder.retrofit.conversionListener();
+    this.bodyBuffer = builder.retrofit.bodyBuffer();
+    this.lazyConversion = builder.lazyConversion;
     this.baseUrl = builder.retrofit.baseUrl();
     this.responseConverter = builder.responseConverter;
     this.httpMethod = builder.httpMethod;
@@ -92,6 +110,7 @@ final class ServiceMethod<T> {
     this.hasBody = builder.hasBody;
     this.isFormEncoded = builder.isFormEncoded;
     this.isMultipart = builder.isMultipart;
+    this.compress = builder.compress;
     this.parameterHandlers = builder.parameterHandlers;
     this.typeCommonHandlers = builder.typeCommonHandlers;
     this.paramProvider = builder.paramProvider;
@@ -100,7 +119,7 @@ final class ServiceMethod<T> {
   /** Builds an HTTP request from method arguments. */
   Request toRequest(Object... args) throws IOException {
     RequestBuilder requestBuilder = new RequestBuilder(httpMethod, baseUrl, relativeUrl, headers,
-        contentType, hasBody, isFormEncoded, isMultipart);
+        contentType, hasBody, isFormEncoded, isMultipart, compress);
 
     @SuppressWarnings("unchecked") // It is an error to invoke a method with the wrong arg types.
     ParameterHandler<Object>[] typeHandlers = (ParameterHandler<Object>[]) typeCommonHandlers;
@@ -182,6 +201,7 @@ final class ServiceMethod<T> {
     boolean hasBody;
     boolean isFormEncoded;
     boolean isMultipart;
+    Compress compress;
     String relativeUrl;
     Headers headers;
     MediaType contentType;
@@ -189,6 +209,9 @@ final class ServiceMethod<T> {
     ParameterHandler<?>[] parameterHandlers;
     Converter<ResponseBody, T> responseConverter;
     CallAdapter<?> callAdapter;
+    ValidatorCache validatorCache;
+    Executor converterExecutor;
+    boolean lazyConversion;
 
     public Builder(Retrofit retrofit, Method method) {
       this.retrofit = retrofit;
@@ -228,6 +251,10 @@ final class ServiceMethod<T> {
           throw methodError("FormUrlEncoded can only be specified on HTTP methods with "
               + "request body (e.g., @POST).");
         }
+        if (compress != null) {
+          throw methodError("Compress can only be specified on HTTP methods with "
+              + "request body (e.g., @POST).");
+        }
       }
 
       int parameterCount = parameterAnnotationsArray.length;
@@ -260,6 +287,21 @@ final class ServiceMethod<T> {
         throw methodError("Multipart method must contain at least one @Part.");
       }
 
+      boolean isStreaming = Utils.isAnnotationPresent(methodAnnotations, Streaming.class);
+      // Only bodies which can be safely handed out more than once are remembered.
+      if ("GET".equals(httpMethod) && responseType != ResponseBody.class && !isStreaming) {
+        validatorCache = retrofit.validatorCache();
+      }
+      // Streamed bodies must be converted while the connection is still being read. Raw and void
+      // bodies have nothing to convert, and raw bodies are already buffered by their converter.
+      if (!isStreaming && responseType != ResponseBody.class && responseType != Void.class) {
+        lazyConversion = retrofit.lazyConversion();
+        // Deferred bodies are converted by the caller which first accesses them.
+        if (!lazyConversion) {
+          converterExecutor = retrofit.converterExecutor();
+        }
+      }
+
       return new ServiceMethod<>(this);
     }
 
@@ -317,6 +359,12 @@ final class ServiceMethod<T> {
           throw methodError("Only one encoding annotation is allowed.");
         }
         isFormEncoded = true;
+      } else if (annotation instanceof Compress) {
+        Compress compress = (Compress) annotation;
+        if (compress.minimumSize() < 0) {
+          throw methodError("@Compress minimumSize must not be negative.");
+        }
+        this.compress = compress;
       }
     }
 
@@ -364,6 +364,12 @@ final class Utils {
     return getParameterUpperBound(0, (ParameterizedType) returnType);
   }
 
+  /** Returns the type {@code CloseableIterator<elementType>}. */
+  static ParameterizedType closeableIteratorOf(Type elementType) {
+    checkNotNull(elementType, "elementType == null");
+    return new ParameterizedTypeImpl(null, CloseableIterator.class, elementType);
+  }
+
   private static final class ParameterizedTypeImpl implements ParameterizedType {
     private final Type ownerType;
     private final Type rawType;
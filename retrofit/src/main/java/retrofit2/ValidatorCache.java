@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import okhttp3.Request;
+
+/**
+ * Remembers the validators ({@code ETag} and {@code Last-Modified}) of successful responses along
+ * with their converted bodies so that a {@code 304 Not Modified} can be answered without reading
+ * or converting a body.
+ */
+final class ValidatorCache {
+  private final Map<Key, Entry> entries;
+
+  ValidatorCache(final int maxEntries) {
+    this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+      @Override protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  synchronized Entry get(Key key) {
+    return entries.get(key);
+  }
+
+  synchronized void put(Key key, Entry entry) {
+    entries.put(key, entry);
+  }
+
+  synchronized void remove(Key key) {
+    entries.remove(key);
+  }
+
+  synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Identifies a request. The service method is part of the key because two methods which target
+   * the same URL may convert their bodies to different types.
+   */
+  static final class Key {
+    private final ServiceMethod<?> serviceMethod;
+    private final String url;
+    private final String headers;
+
+    Key(ServiceMethod<?> serviceMethod, Request request) {
+      this.serviceMethod = serviceMethod;
+      this.url = request.url().toString();
+      this.headers = request.headers().toString();
+    }
+
+    @Override public boolean equals(Object other) {
+      if (!(other instanceof Key)) return false;
+      Key that = (Key) other;
+      return serviceMethod == that.serviceMethod
+          && url.equals(that.url)
+          && headers.equals(that.headers);
+    }
+
+    @Override public int hashCode() {
+      int result = System.identityHashCode(serviceMethod);
+      result = 31 * result + url.hashCode();
+      result = 31 * result + headers.hashCode();
+      return result;
+    }
+  }
+
+  static final class Entry {
+    final String etag;
+    final String lastModified;
+    final Object body;
+
+    Entry(String etag, String lastModified, Object body) {
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.body = body;
+    }
+  }
+}
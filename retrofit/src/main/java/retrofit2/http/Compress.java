@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2.http;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Compress the request body as it is written and declare the coding with a
+ * {@code Content-Encoding} header.
+ * <pre><code>
+ * &#64;Compress
+ * &#64;POST("/telemetry")
+ * Call&lt;ResponseBody&gt; upload(@Body Telemetry telemetry);
+ * </code></pre>
+ * Bodies whose {@linkplain okhttp3.RequestBody#contentLength() length} is known to be smaller
+ * than {@link #minimumSize()} are sent uncompressed because the savings would not pay for the
+ * extra CPU time. Bodies of unknown length are always compressed.
+ * <p>
+ * Note: The server must accept the chosen {@code Content-Encoding}. HTTP has no way to negotiate
+ * the coding of request bodies.
+ */
+@Documented
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface Compress {
+  /** The content coding to apply. */
+  Encoding value() default Encoding.GZIP;
+
+  /** The smallest body, in bytes, which is compressed. */
+  long minimumSize() default 1024;
+
+  /** Content codings supported by {@link Compress @Compress}. */
+  enum Encoding {
+    /** The gzip file format, as described in RFC 1952. */
+    GZIP("gzip"),
+    /** The zlib format, as described in RFC 1950. */
+    DEFLATE("deflate");
+
+    private final String headerValue;
+
+    Encoding(String headerValue) {
+      this.headerValue = headerValue;
+    }
+
+    /** The value of the {@code Content-Encoding} header for this coding. */
+    public String headerValue() {
+      return headerValue;
+    }
+  }
+}
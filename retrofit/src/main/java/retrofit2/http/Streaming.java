@@ -25,6 +25,10 @@ import static java.lang.annotation.RetentionPolicy.RUNTIME;
 /**
  * Treat the response body on methods returning {@link okhttp3.Response Response} as is,
  * i.e. without converting {@link okhttp3.Response#body() body()} to {@code byte[]}.
+ * <p>
+ * Converters which support it will also decode a body declared as {@link java.util.Iterator
+ * Iterator&lt;T&gt;} or {@link retrofit2.CloseableIterator CloseableIterator&lt;T&gt;} lazily,
+ * one element of a top-level array at a time.
  */
 @Documented
 @Target(METHOD)
@@ -0,0 +1,236 @@
+/*
+ * Copyright (C) 2016 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public final class BatchingExecutorTest {
+  private final ManualExecutor delegate = new ManualExecutor();
+  private final BatchingExecutor executor = new BatchingExecutor(delegate);
+  private final List<String> log = new ArrayList<>();
+
+  @Test public void tasksSubmittedBeforeDrainShareOneHandoff() {
+    executor.execute(logging("a"));
+    executor.execute(logging("b"));
+    executor.execute(logging("c"));
+    assertThat(delegate.tasks).hasSize(1);
+
+    delegate.runNext();
+    assertThat(log).containsExactly("a", "b", "c");
+    assertThat(delegate.tasks).isEmpty();
+  }
+
+  @Test public void taskSubmittedAfterDrainIsScheduledAgain() {
+    executor.execute(logging("a"));
+    delegate.runNext();
+    executor.execute(logging("b"));
+    assertThat(delegate.tasks).hasSize(1);
+
+    delegate.runNext();
+    assertThat(log).containsExactly("a", "b");
+  }
+
+  @Test public void taskSubmittedDuringDrainRunsInNextBatch() {
+    executor.execute(new Runnable() {
+      @Override public void run() {
+        log.add("a");
+        executor.execute(logging("b"));
+      }
+    });
+    delegate.runNext();
+    assertThat(log).containsExactly("a");
+    assertThat(delegate.tasks).hasSize(1);
+
+    delegate.runNext();
+    assertThat(log).containsExactly("a", "b");
+    assertThat(delegate.tasks).isEmpty();
+  }
+
+  @Test public void rejectedHandoffDropsQueuedTasks() {
+    final AtomicBoolean reject = new AtomicBoolean(true);
+    BatchingExecutor executor = new BatchingExecutor(new Executor() {
+      @Override public void execute(Runnable command) {
+        if (reject.get()) throw new RejectedExecutionException();
+        delegate.execute(command);
+      }
+    });
+    try {
+      executor.execute(logging("a"));
+      fail();
+    } catch (RejectedExecutionException expected) {
+    }
+
+    reject.set(false);
+    executor.execute(logging("b"));
+    delegate.runNext();
+    assertThat(log).containsExactly("b");
+  }
+
+  @Test public void windowCoalescesTasksSubmittedAfterTheFirst() throws InterruptedException {
+    ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+    try {
+      final CountDownLatch handedOff = new CountDownLatch(1);
+      BatchingExecutor executor = new BatchingExecutor(new Executor() {
+        @Override public void execute(Runnable command) {
+          delegate.execute(command);
+          handedOff.countDown();
+        }
+      }, MILLISECONDS.toNanos(100), timer);
+
+      executor.execute(logging("a"));
+      executor.execute(logging("b"));
+      assertThat(delegate.tasks).isEmpty();
+
+      assertTrue(handedOff.await(10, SECONDS));
+      delegate.runNext();
+      assertThat(log).containsExactly("a", "b");
+    } finally {
+      timer.shutdown();
+    }
+  }
+
+  @Test public void windowedHandoffRejectionDropsEveryQueuedTask() throws InterruptedException {
+    ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+    try {
+      final AtomicBoolean reject = new AtomicBoolean(true);
+      final CountDownLatch handedOff = new CountDownLatch(1);
+      BatchingExecutor executor = new BatchingExecutor(new Executor() {
+        @Override public void execute(Runnable command) {
+          if (reject.getAndSet(false)) throw new RejectedExecutionException();
+          delegate.execute(command);
+          handedOff.countDown();
+        }
+      }, 1L, timer);
+
+      // Hold the timer until both tasks are queued for the same handoff.
+      final CountDownLatch release = new CountDownLatch(1);
+      timer.execute(new Runnable() {
+        @Override public void run() {
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            throw new AssertionError(e);
+          }
+        }
+      });
+      executor.execute(logging("a"));
+      executor.execute(logging("b"));
+      release.countDown();
+      awaitIdle(timer);
+
+      executor.execute(logging("c"));
+      assertTrue(handedOff.await(10, SECONDS));
+      delegate.runNext();
+      assertThat(log).containsExactly("c");
+    } finally {
+      timer.shutdown();
+    }
+  }
+
+  @Test public void throwingTaskDoesNotStrandRemainingTasks() {
+    executor.execute(new Runnable() {
+      @Override public void run() {
+        throw new RuntimeException("Broken!");
+      }
+    });
+    executor.execute(logging("b"));
+    try {
+      delegate.runNext();
+      fail();
+    } catch (RuntimeException e) {
+      assertThat(e).hasMessage("Broken!");
+    }
+    assertThat(delegate.tasks).hasSize(1);
+
+    delegate.runNext();
+    assertThat(log).containsExactly("b");
+  }
+
+  @Test public void builderWrapsCallbackExecutor() {
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl("http://example.com/")
+        .callbackExecutor(delegate)
+        .batchCallbacks(true)
+        .build();
+    assertThat(retrofit.callbackExecutor()).isInstanceOf(BatchingExecutor.class);
+    assertThat(((BatchingExecutor) retrofit.callbackExecutor()).delegate).isSameAs(delegate);
+  }
+
+  @Test public void builderAppliesWindow() {
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl("http://example.com/")
+        .callbackExecutor(delegate)
+        .batchCallbacks(5, MILLISECONDS)
+        .build();
+    BatchingExecutor executor = (BatchingExecutor) retrofit.callbackExecutor();
+    assertThat(executor.windowNanos).isEqualTo(MILLISECONDS.toNanos(5));
+  }
+
+  @Test public void windowMustNotBeNegative() {
+    try {
+      new Retrofit.Builder().batchCallbacks(-1, MILLISECONDS);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasMessage("window < 0: -1");
+    }
+  }
+
+  /** Waits for the tasks which are due on {@code timer} to finish. */
+  private static void awaitIdle(ScheduledExecutorService timer) throws InterruptedException {
+    final CountDownLatch idle = new CountDownLatch(1);
+    timer.schedule(new Runnable() {
+      @Override public void run() {
+        idle.countDown();
+      }
+    }, 1, MILLISECONDS);
+    assertTrue(idle.await(10, SECONDS));
+  }
+
+  private Runnable logging(final String name) {
+    return new Runnable() {
+      @Override public void run() {
+        log.add(name);
+      }
+    };
+  }
+
+  static final class ManualExecutor implements Executor {
+    final List<Runnable> tasks = Collections.synchronizedList(new ArrayList<Runnable>());
+
+    @Override public void execute(Runnable command) {
+      tasks.add(command);
+    }
+
+    void runNext() {
+      tasks.remove(0).run();
+    }
+  }
+}
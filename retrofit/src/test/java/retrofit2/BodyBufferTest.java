@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import retrofit2.helpers.ToStringConverterFactory;
+import retrofit2.http.GET;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public final class BodyBufferTest {
+  @Rule public final MockWebServer server = new MockWebServer();
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  interface Service {
+    @GET("/") Call<ResponseBody> body();
+    @GET("/") Call<String> string();
+  }
+
+  private File directory;
+  private Retrofit.Builder builder;
+
+  @Before public void setUp() throws IOException {
+    directory = temporaryFolder.newFolder();
+    builder = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(new ToStringConverterFactory())
+        .spillToDisk(4, directory);
+  }
+
+  @Test public void smallBodyIsHeldInMemory() throws IOException {
+    Service service = builder.build().create(Service.class);
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    ResponseBody body = service.body().execute().body();
+    assertThat(directory.list()).isEmpty();
+    assertThat(body.string()).isEqualTo("Hi");
+  }
+
+  @Test public void largeBodyIsSpilledUntilClosed() throws IOException {
+    Service service = builder.build().create(Service.class);
+    server.enqueue(new MockResponse().setBody("Hello"));
+
+    ResponseBody body = service.body().execute().body();
+    assertThat(body.contentLength()).isEqualTo(5);
+    assertThat(directory.list()).hasSize(1);
+
+    assertThat(body.string()).isEqualTo("Hello");
+    assertThat(directory.list()).isEmpty();
+  }
+
+  @Test public void unknownLengthBodyIsSpilled() throws IOException {
+    Service service = builder.build().create(Service.class);
+    server.enqueue(new MockResponse().setChunkedBody("Hello, World!", 3));
+
+    ResponseBody body = service.body().execute().body();
+    assertThat(directory.list()).hasSize(1);
+    assertThat(body.string()).isEqualTo("Hello, World!");
+    assertThat(directory.list()).isEmpty();
+  }
+
+  @Test public void unknownLengthBodyWithinThresholdIsHeldInMemory() throws IOException {
+    Service service = builder.build().create(Service.class);
+    server.enqueue(new MockResponse().setChunkedBody("Hey!", 3));
+
+    ResponseBody body = service.body().execute().body();
+    assertThat(directory.list()).isEmpty();
+    assertThat(body.string()).isEqualTo("Hey!");
+  }
+
+  @Test public void errorBodyIsSpilledUntilClosed() throws IOException {
+    Service service = builder.build().create(Service.class);
+    server.enqueue(new MockResponse().setResponseCode(404).setBody("Not found"));
+
+    Response<String> response = service.string().execute();
+    assertThat(directory.list()).hasSize(1);
+
+    assertThat(response.errorBody().string()).isEqualTo("Not found");
+    assertThat(directory.list()).isEmpty();
+  }
+
+  @Test public void spilledBodyIsConvertedAndDeleted() throws InterruptedException {
+    final AtomicReference<Runnable> conversion = new AtomicReference<>();
+    Service service = builder
+        .converterExecutor(new Executor() {
+          @Override public void execute(Runnable command) {
+            conversion.set(command);
+          }
+        })
+        .build()
+        .create(Service.class);
+    server.enqueue(new MockResponse().setBody("Hello"));
+
+    final AtomicReference<String> bodyRef = new AtomicReference<>();
+    final CountDownLatch latch = new CountDownLatch(1);
+    service.string().enqueue(new Callback<String>() {
+      @Override public void onResponse(Call<String> call, Response<String> response) {
+        bodyRef.set(response.body());
+        latch.countDown();
+      }
+
+      @Override public void onFailure(Call<String> call, Throwable t) {
+        t.printStackTrace();
+      }
+    });
+
+    while (conversion.get() == null) {
+      Thread.sleep(10);
+    }
+    assertThat(directory.list()).hasSize(1);
+
+    conversion.get().run();
+    assertTrue(latch.await(10, SECONDS));
+    assertThat(bodyRef.get()).isEqualTo("Hello");
+    assertThat(directory.list()).isEmpty();
+  }
+
+  @Test public void rejectedConversionDeletesSpilledBody() throws InterruptedException {
+    ExecutorService converterExecutor = Executors.newSingleThreadExecutor();
+    converterExecutor.shutdown();
+    Service service = builder.converterExecutor(converterExecutor).build().create(Service.class);
+    server.enqueue(new MockResponse().setBody("Hello"));
+
+    final CountDownLatch latch = new CountDownLatch(1);
+    service.string().enqueue(new Callback<String>() {
+      @Override public void onResponse(Call<String> call, Response<String> response) {
+        throw new AssertionError();
+      }
+
+      @Override public void onFailure(Call<String> call, Throwable t) {
+        latch.countDown();
+      }
+    });
+    assertTrue(latch.await(10, SECONDS));
+    assertThat(directory.list()).isEmpty();
+  }
+
+  @Test public void spilledBodiesDoNotCountAgainstBudget() throws IOException {
+    BufferBudget budget = BufferBudget.createFailFast(4);
+    Service service = builder.bufferBudget(budget).build().create(Service.class);
+    server.enqueue(new MockResponse().setBody("Hello"));
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    ResponseBody spilled = service.body().execute().body();
+    ResponseBody buffered = service.body().execute().body();
+    assertThat(budget.usedBytes()).isEqualTo(2);
+    assertThat(directory.list()).hasSize(1);
+
+    spilled.close();
+    buffered.close();
+    assertThat(budget.usedBytes()).isEqualTo(0);
+    assertThat(directory.list()).isEmpty();
+  }
+
+  @Test public void thresholdMustNotBeNegative() {
+    try {
+      new Retrofit.Builder().spillToDisk(-1, directory);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasMessage("byteCount < 0: -1");
+    }
+  }
+
+  @Test public void directoryMustNotBeNull() {
+    try {
+      new Retrofit.Builder().spillToDisk(1024, null);
+      fail();
+    } catch (NullPointerException e) {
+      assertThat(e).hasMessage("directory == null");
+    }
+  }
+}
@@ -0,0 +1,309 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.Buffer;
+import org.junit.Rule;
+import org.junit.Test;
+import retrofit2.helpers.ToStringConverterFactory;
+import retrofit2.http.GET;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public final class BufferBudgetTest {
+  @Rule public final MockWebServer server = new MockWebServer();
+
+  interface Service {
+    @GET("/") Call<ResponseBody> body();
+    @GET("/") Call<String> string();
+  }
+
+  private Service service(BufferBudget budget) {
+    return builder(budget).build().create(Service.class);
+  }
+
+  private Retrofit.Builder builder(BufferBudget budget) {
+    return new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(new ToStringConverterFactory())
+        .bufferBudget(budget);
+  }
+
+  @Test public void bufferedBodyIsHeldUntilRead() throws IOException {
+    BufferBudget budget = BufferBudget.create(1024);
+    Service service = service(budget);
+    server.enqueue(new MockResponse().setBody("Hello"));
+
+    ResponseBody body = service.body().execute().body();
+    assertThat(budget.usedBytes()).isEqualTo(5);
+
+    assertThat(body.string()).isEqualTo("Hello");
+    assertThat(budget.usedBytes()).isEqualTo(0);
+    assertThat(budget.peakBytes()).isEqualTo(5);
+  }
+
+  @Test public void closingUnreadBodyReleasesIt() throws IOException {
+    BufferBudget budget = BufferBudget.create(1024);
+    Service service = service(budget);
+    server.enqueue(new MockResponse().setBody("Hello"));
+
+    service.body().execute().body().close();
+    assertThat(budget.usedBytes()).isEqualTo(0);
+  }
+
+  @Test public void errorBodyCountsAgainstBudget() throws IOException {
+    BufferBudget budget = BufferBudget.create(1024);
+    Service service = service(budget);
+    server.enqueue(new MockResponse().setResponseCode(404).setBody("Nope"));
+
+    Response<String> response = service.string().execute();
+    assertThat(budget.usedBytes()).isEqualTo(4);
+
+    response.errorBody().close();
+    assertThat(budget.usedBytes()).isEqualTo(0);
+  }
+
+  @Test public void unknownLengthBodyIsBudgetedAsRead() throws IOException {
+    BufferBudget budget = BufferBudget.create(16);
+    Service service = service(budget);
+    server.enqueue(new MockResponse().setChunkedBody("Hello, World!", 3));
+
+    ResponseBody body = service.body().execute().body();
+    assertThat(body.contentLength()).isEqualTo(-1);
+    assertThat(budget.usedBytes()).isEqualTo(13);
+    assertThat(body.string()).isEqualTo("Hello, World!");
+    assertThat(budget.usedBytes()).isEqualTo(0);
+  }
+
+  @Test public void unknownLengthBodyExceedingBudgetFails() throws IOException {
+    BufferBudget budget = BufferBudget.create(8);
+    Service service = service(budget);
+    server.enqueue(new MockResponse().setChunkedBody("Hello, World!", 3));
+
+    try {
+      service.body().execute();
+      fail();
+    } catch (IOException e) {
+      assertThat(e).hasMessage("Response body of more than 8 bytes exceeds buffer budget of 8");
+    }
+    assertThat(budget.usedBytes()).isEqualTo(0);
+  }
+
+  @Test public void bodyLargerThanBudgetFails() throws IOException {
+    BufferBudget budget = BufferBudget.create(4);
+    Service service = service(budget);
+    server.enqueue(new MockResponse().setBody("Hello"));
+
+    try {
+      service.body().execute();
+      fail();
+    } catch (IOException e) {
+      assertThat(e).hasMessage("Response body of 5 bytes exceeds buffer budget of 4");
+    }
+    assertThat(budget.usedBytes()).isEqualTo(0);
+  }
+
+  @Test public void failFastBudgetRejectsWhenExhausted() throws IOException {
+    BufferBudget budget = BufferBudget.createFailFast(10);
+    Service service = service(budget);
+    server.enqueue(new MockResponse().setBody("Hello!!!"));
+    server.enqueue(new MockResponse().setBody("Goodbye!"));
+
+    ResponseBody first = service.body().execute().body();
+    try {
+      service.body().execute();
+      fail();
+    } catch (IOException e) {
+      assertThat(e).hasMessage("Buffer budget exhausted: 8 of 10 bytes in use, 8 more needed");
+    }
+    assertThat(budget.usedBytes()).isEqualTo(8);
+
+    first.close();
+    assertThat(budget.usedBytes()).isEqualTo(0);
+  }
+
+  @Test public void blockingBudgetWaitsForSpace() throws IOException, InterruptedException {
+    BufferBudget budget = BufferBudget.create(10);
+    Service service = service(budget);
+    server.enqueue(new MockResponse().setBody("Hello!!!"));
+    server.enqueue(new MockResponse().setBody("Goodbye!"));
+
+    ResponseBody first = service.body().execute().body();
+
+    final AtomicReference<String> secondRef = new AtomicReference<>();
+    final CountDownLatch latch = new CountDownLatch(1);
+    service.body().enqueue(new Callback<ResponseBody>() {
+      @Override public void onResponse(Call<ResponseBody> call, Response<ResponseBody> response) {
+        try {
+          secondRef.set(response.body().string());
+        } catch (IOException e) {
+          throw new AssertionError(e);
+        }
+        latch.countDown();
+      }
+
+      @Override public void onFailure(Call<ResponseBody> call, Throwable t) {
+        t.printStackTrace();
+      }
+    });
+
+    assertFalse(latch.await(200, MILLISECONDS));
+    assertThat(first.string()).isEqualTo("Hello!!!");
+    assertTrue(latch.await(10, SECONDS));
+    assertThat(secondRef.get()).isEqualTo("Goodbye!");
+    assertThat(budget.usedBytes()).isEqualTo(0);
+    assertThat(budget.peakBytes()).isEqualTo(8);
+  }
+
+  @Test public void partiallyReadUnknownLengthBodyWaitsForSpace() throws Exception {
+    final BufferBudget budget = BufferBudget.create(10000);
+    ResponseBody held = budget.buffer(body(1000, 1000));
+
+    // The first chunk fits. The rest waits while the first is held rather than failing.
+    final AtomicReference<Object> result = new AtomicReference<>();
+    final CountDownLatch latch = new CountDownLatch(1);
+    new Thread() {
+      @Override public void run() {
+        try {
+          result.set(budget.buffer(body(9000, -1)));
+        } catch (Throwable t) {
+          result.set(t);
+        }
+        latch.countDown();
+      }
+    }.start();
+
+    assertFalse(latch.await(200, MILLISECONDS));
+    held.close();
+    assertTrue(latch.await(10, SECONDS));
+    ResponseBody body = (ResponseBody) result.get();
+    assertThat(body.bytes()).hasSize(9000);
+    assertThat(budget.usedBytes()).isEqualTo(0);
+  }
+
+  @Test public void unclosedErrorBodyTimesOutWaiters() throws IOException {
+    BufferBudget budget = BufferBudget.create(10, 100, MILLISECONDS);
+    Service service = service(budget);
+    server.enqueue(new MockResponse().setResponseCode(404).setBody("Nope!!!!"));
+    server.enqueue(new MockResponse().setBody("Hello!!!"));
+
+    Response<String> leaked = service.string().execute();
+    assertThat(leaked.errorBody()).isNotNull();
+    try {
+      service.body().execute();
+      fail();
+    } catch (InterruptedIOException e) {
+      assertThat(e).hasMessage(
+          "Timed out waiting for buffer budget: 8 of 10 bytes in use, 8 more needed");
+    }
+    assertThat(budget.usedBytes()).isEqualTo(8);
+  }
+
+  @Test public void rawBodyWithConverterExecutorIsBudgetedOnce() throws Exception {
+    BufferBudget budget = BufferBudget.createFailFast(1000);
+    Service service = builder(budget)
+        .converterExecutor(new Executor() {
+          @Override public void execute(Runnable command) {
+            command.run();
+          }
+        })
+        .build()
+        .create(Service.class);
+    server.enqueue(new MockResponse().setBody(new Buffer().write(new byte[600])));
+
+    final AtomicReference<ResponseBody> bodyRef = new AtomicReference<>();
+    final CountDownLatch latch = new CountDownLatch(1);
+    service.body().enqueue(new Callback<ResponseBody>() {
+      @Override public void onResponse(Call<ResponseBody> call, Response<ResponseBody> response) {
+        bodyRef.set(response.body());
+        latch.countDown();
+      }
+
+      @Override public void onFailure(Call<ResponseBody> call, Throwable t) {
+        t.printStackTrace();
+      }
+    });
+    assertTrue(latch.await(10, SECONDS));
+    assertThat(budget.usedBytes()).isEqualTo(600);
+
+    bodyRef.get().close();
+    assertThat(budget.usedBytes()).isEqualTo(0);
+  }
+
+  @Test public void rejectedConversionReleasesBody() throws Exception {
+    BufferBudget budget = BufferBudget.createFailFast(1000);
+    ExecutorService converterExecutor = Executors.newSingleThreadExecutor();
+    converterExecutor.shutdown();
+    Service service =
+        builder(budget).converterExecutor(converterExecutor).build().create(Service.class);
+    server.enqueue(new MockResponse().setBody("Hello"));
+
+    final AtomicReference<Throwable> failureRef = new AtomicReference<>();
+    final CountDownLatch latch = new CountDownLatch(1);
+    service.string().enqueue(new Callback<String>() {
+      @Override public void onResponse(Call<String> call, Response<String> response) {
+        throw new AssertionError();
+      }
+
+      @Override public void onFailure(Call<String> call, Throwable t) {
+        failureRef.set(t);
+        latch.countDown();
+      }
+    });
+    assertTrue(latch.await(10, SECONDS));
+    assertThat(failureRef.get()).isInstanceOf(RejectedExecutionException.class);
+    assertThat(budget.usedBytes()).isEqualTo(0);
+  }
+
+  @Test public void timeoutMustBePositive() {
+    try {
+      BufferBudget.create(10, 0, SECONDS);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasMessage("timeout < 1: 0");
+    }
+  }
+
+  @Test public void maxBytesMustBePositive() {
+    try {
+      BufferBudget.create(0);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasMessage("maxBytes < 1: 0");
+    }
+  }
+
+  /** A body of {@code size} bytes which declares {@code contentLength}. */
+  private static ResponseBody body(int size, long contentLength) {
+    return ResponseBody.create(null, contentLength, new Buffer().write(new byte[size]));
+  }
+}
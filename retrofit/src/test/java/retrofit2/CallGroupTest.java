@@ -0,0 +1,338 @@
+/*
+ * Copyright (C) 2016 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import okhttp3.CacheControl;
+import okhttp3.Request;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.junit.Rule;
+import org.junit.Test;
+import retrofit2.helpers.ToStringConverterFactory;
+import retrofit2.http.GET;
+import retrofit2.http.Path;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public final class CallGroupTest {
+  @Rule public final MockWebServer server = new MockWebServer();
+
+  interface Service {
+    @GET("/{shard}") Call<String> shard(@Path("shard") int shard);
+  }
+
+  @Test public void executeReturnsResultsInOrder() throws IOException {
+    server.setDispatcher(new Dispatcher() {
+      @Override public MockResponse dispatch(RecordedRequest request) {
+        return new MockResponse().setBody("shard" + request.getPath());
+      }
+    });
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(new ToStringConverterFactory())
+        .build();
+    Service service = retrofit.create(Service.class);
+
+    CallGroup.Builder<String> builder = new CallGroup.Builder<String>().maxConcurrency(3);
+    for (int i = 0; i < 10; i++) {
+      builder.add(service.shard(i));
+    }
+    List<CallGroup.Result<String>> results = builder.build().execute();
+
+    assertThat(results).hasSize(10);
+    for (int i = 0; i < 10; i++) {
+      CallGroup.Result<String> result = results.get(i);
+      assertThat(result.index()).isEqualTo(i);
+      assertThat(result.isError()).isFalse();
+      assertThat(result.response().body()).isEqualTo("shard/" + i);
+    }
+  }
+
+  @Test public void emptyGroupCompletesImmediately() throws IOException {
+    List<CallGroup.Result<String>> results = new CallGroup.Builder<String>().build().execute();
+    assertThat(results).isEmpty();
+  }
+
+  @Test public void concurrencyIsBounded() {
+    List<DeferredCall> calls = deferredCalls(5);
+    CallGroup<String> group = new CallGroup.Builder<String>()
+        .addAll(calls)
+        .maxConcurrency(2)
+        .build();
+    RecordingListener listener = new RecordingListener();
+    group.enqueue(listener);
+
+    assertThat(enqueuedCount(calls)).isEqualTo(2);
+    calls.get(1).respond("b");
+    assertThat(enqueuedCount(calls)).isEqualTo(3);
+    calls.get(0).respond("a");
+    calls.get(2).respond("c");
+    assertThat(enqueuedCount(calls)).isEqualTo(5);
+    calls.get(4).respond("e");
+    calls.get(3).respond("d");
+
+    assertThat(listener.completionOrder).containsExactly(1, 0, 2, 4, 3);
+    assertThat(listener.results).hasSize(5);
+    assertThat(listener.results.get(3).response().body()).isEqualTo("d");
+    assertThat(listener.failure).isNull();
+  }
+
+  @Test public void collectAllRecordsFailures() {
+    List<DeferredCall> calls = deferredCalls(3);
+    CallGroup<String> group = new CallGroup.Builder<String>().addAll(calls).build();
+    RecordingListener listener = new RecordingListener();
+    group.enqueue(listener);
+
+    IOException failure = new IOException("Broken!");
+    calls.get(1).fail(failure);
+    calls.get(0).respond("a");
+    calls.get(2).respond("c");
+
+    assertThat(listener.failure).isNull();
+    assertThat(listener.results.get(1).isError()).isTrue();
+    assertThat(listener.results.get(1).error()).isSameAs(failure);
+    assertThat(listener.results.get(2).response().body()).isEqualTo("c");
+  }
+
+  @Test public void failFastCancelsOutstandingCalls() {
+    List<DeferredCall> calls = deferredCalls(4);
+    CallGroup<String> group = new CallGroup.Builder<String>()
+        .addAll(calls)
+        .maxConcurrency(2)
+        .failFast(true)
+        .build();
+    RecordingListener listener = new RecordingListener();
+    group.enqueue(listener);
+
+    IOException failure = new IOException("Broken!");
+    calls.get(0).fail(failure);
+
+    assertThat(listener.failure).isSameAs(failure);
+    assertThat(listener.results).isNull();
+    assertThat(calls.get(1).isCanceled()).isTrue();
+    assertThat(calls.get(2).isExecuted()).isFalse();
+    assertThat(calls.get(3).isExecuted()).isFalse();
+
+    // Late results from canceled calls are ignored.
+    calls.get(1).respond("b");
+    assertThat(listener.completionOrder).containsExactly(0);
+  }
+
+  @Test public void failFastExecuteThrows() {
+    List<DeferredCall> calls = deferredCalls(1);
+    final IOException failure = new IOException("Broken!");
+    calls.set(0, new DeferredCall() {
+      @Override public void enqueue(Callback<String> callback) {
+        super.enqueue(callback);
+        fail(failure);
+      }
+    });
+    CallGroup<String> group = new CallGroup.Builder<String>()
+        .addAll(calls)
+        .failFast(true)
+        .build();
+    try {
+      group.execute();
+      fail();
+    } catch (IOException e) {
+      assertThat(e).isSameAs(failure);
+    }
+  }
+
+  @Test public void deadlineCancelsOutstandingCalls() {
+    List<DeferredCall> calls = deferredCalls(2);
+    CallGroup<String> group = new CallGroup.Builder<String>()
+        .addAll(calls)
+        .deadline(100, MILLISECONDS)
+        .build();
+    try {
+      group.execute();
+      fail();
+    } catch (IOException e) {
+      assertThat(e).isInstanceOf(InterruptedIOException.class).hasMessage("Deadline exceeded");
+    }
+    assertThat(calls.get(0).isCanceled()).isTrue();
+    assertThat(calls.get(1).isCanceled()).isTrue();
+  }
+
+  @Test public void cancelCancelsInFlightHttpCalls() throws InterruptedException {
+    server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+    server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(new ToStringConverterFactory())
+        .build();
+    Service service = retrofit.create(Service.class);
+
+    Call<String> first = service.shard(1);
+    Call<String> second = service.shard(2);
+    Call<String> third = service.shard(3);
+    CallGroup<String> group = new CallGroup.Builder<String>()
+        .add(first)
+        .add(second)
+        .add(third)
+        .maxConcurrency(2)
+        .build();
+
+    final AtomicReference<Throwable> failureRef = new AtomicReference<>();
+    final CountDownLatch latch = new CountDownLatch(1);
+    group.enqueue(new CallGroup.Listener<String>() {
+      @Override public void onResult(CallGroup<String> group, CallGroup.Result<String> result) {
+      }
+
+      @Override
+      public void onComplete(CallGroup<String> group, List<CallGroup.Result<String>> results) {
+        throw new AssertionError();
+      }
+
+      @Override public void onFailure(CallGroup<String> group, Throwable t) {
+        failureRef.set(t);
+        latch.countDown();
+      }
+    });
+
+    server.takeRequest();
+    server.takeRequest();
+    group.cancel();
+    assertTrue(latch.await(10, SECONDS));
+
+    assertThat(group.isCanceled()).isTrue();
+    assertThat(failureRef.get()).isInstanceOf(IOException.class).hasMessage("Canceled");
+    assertThat(first.isCanceled()).isTrue();
+    assertThat(second.isCanceled()).isTrue();
+    assertThat(third.isExecuted()).isFalse();
+  }
+
+  @Test public void enqueueTwiceThrows() {
+    CallGroup<String> group = new CallGroup.Builder<String>().add(new DeferredCall()).build();
+    group.enqueue(new RecordingListener());
+    try {
+      group.enqueue(new RecordingListener());
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(e).hasMessage("Already executed.");
+    }
+  }
+
+  @Test public void maxConcurrencyMustBePositive() {
+    try {
+      new CallGroup.Builder<String>().maxConcurrency(0);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasMessage("maxConcurrency < 1: 0");
+    }
+  }
+
+  private static List<DeferredCall> deferredCalls(int count) {
+    List<DeferredCall> calls = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      calls.add(new DeferredCall());
+    }
+    return calls;
+  }
+
+  private static int enqueuedCount(List<DeferredCall> calls) {
+    int count = 0;
+    for (DeferredCall call : calls) {
+      if (call.isExecuted()) count++;
+    }
+    return count;
+  }
+
+  static final class RecordingListener implements CallGroup.Listener<String> {
+    final List<Integer> completionOrder = new ArrayList<>();
+    List<CallGroup.Result<String>> results;
+    Throwable failure;
+
+    @Override public void onResult(CallGroup<String> group, CallGroup.Result<String> result) {
+      completionOrder.add(result.index());
+    }
+
+    @Override
+    public void onComplete(CallGroup<String> group, List<CallGroup.Result<String>> results) {
+      this.results = results;
+    }
+
+    @Override public void onFailure(CallGroup<String> group, Throwable t) {
+      failure = t;
+    }
+  }
+
+  /** A call which completes only when told to. */
+  static class DeferredCall implements Call<String> {
+    private Callback<String> callback;
+    private volatile boolean canceled;
+
+    void respond(String body) {
+      callback.onResponse(this, Response.success(body));
+    }
+
+    void fail(Throwable t) {
+      callback.onFailure(this, t);
+    }
+
+    @Override public Response<String> execute() throws IOException {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override public Response<String> execute(CacheControl cacheControl) throws IOException {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override public void enqueue(Callback<String> callback) {
+      if (this.callback != null) throw new IllegalStateException("Already executed.");
+      this.callback = callback;
+    }
+
+    @Override public void enqueue(Callback<String> callback, CacheControl cacheControl) {
+      enqueue(callback);
+    }
+
+    @Override public boolean isExecuted() {
+      return callback != null;
+    }
+
+    @Override public void cancel() {
+      canceled = true;
+    }
+
+    @Override public boolean isCanceled() {
+      return canceled;
+    }
+
+    @SuppressWarnings("CloneDoesntCallSuperClone") // Test helper.
+    @Override public Call<String> clone() {
+      return new DeferredCall();
+    }
+
+    @Override public Request request() {
+      return new Request.Builder().url("http://localhost").build();
+    }
+  }
+}
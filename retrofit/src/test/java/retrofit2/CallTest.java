@@ -18,7 +18,13 @@ package retrofit2;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import okhttp3.Interceptor;
@@ -27,6 +33,7 @@ import okhttp3.RequestBody;
 import okhttp3.ResponseBody;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 import okhttp3.mockwebserver.SocketPolicy;
 import okio.Buffer;
 import okio.BufferedSource;
@@ -117,6 +124,253 @@ public final class CallTest {
     assertThat(response.errorBody().string()).isEqualTo("Hi");
   }
 
+  @Test public void errorBodyWithinLimitIsNotTruncated() throws IOException {
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(new ToStringConverterFactory())
+        .errorBodyBufferLimit(5)
+        .build();
+    Service example = retrofit.create(Service.class);
+
+    server.enqueue(new MockResponse().setResponseCode(500).setBody("Hello"));
+
+    Response<String> response = example.getString().execute();
+    assertThat(response.isErrorBodyTruncated()).isFalse();
+    assertThat(response.errorBody().string()).isEqualTo("Hello");
+  }
+
+  @Test public void errorBodyBeyondLimitIsTruncated() throws IOException {
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(new ToStringConverterFactory())
+        .errorBodyBufferLimit(5)
+        .build();
+    Service example = retrofit.create(Service.class);
+
+    server.enqueue(new MockResponse().setResponseCode(500).setBody("Hello, World!"));
+
+    Response<String> response = example.getString().execute();
+    assertThat(response.isErrorBodyTruncated()).isTrue();
+    ResponseBody errorBody = response.errorBody();
+    assertThat(errorBody.contentLength()).isEqualTo(5);
+    assertThat(errorBody.string()).isEqualTo("Hello");
+  }
+
+  @Test public void lazyErrorBodyStreamsBeyondLimit() throws IOException {
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(new ToStringConverterFactory())
+        .errorBodyBufferLimit(5)
+        .lazyErrorBodies(true)
+        .build();
+    Service example = retrofit.create(Service.class);
+
+    server.enqueue(new MockResponse().setResponseCode(500).setBody("Hello, World!"));
+
+    Response<String> response = example.getString().execute();
+    assertThat(response.isErrorBodyTruncated()).isFalse();
+    assertThat(response.errorBody().string()).isEqualTo("Hello, World!");
+  }
+
+  @Test public void errorBodyBufferLimitMustNotBeNegative() {
+    try {
+      new Retrofit.Builder().errorBodyBufferLimit(-1);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasMessage("byteCount < 0: -1");
+    }
+  }
+
+  @Test public void notModifiedReturnsPreviouslyConvertedBody() throws IOException,
+      InterruptedException {
+    final AtomicInteger conversions = new AtomicInteger();
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(countingConverterFactory(conversions))
+        .validatorCache(10)
+        .build();
+    Service example = retrofit.create(Service.class);
+
+    server.enqueue(new MockResponse().setHeader("ETag", "\"v1\"").setBody("Hi"));
+    server.enqueue(new MockResponse().setResponseCode(304));
+
+    Response<String> first = example.getString().execute();
+    assertThat(first.body()).isEqualTo("Hi");
+    assertThat(server.takeRequest().getHeader("If-None-Match")).isNull();
+
+    Response<String> second = example.getString().execute();
+    assertThat(second.isSuccessful()).isTrue();
+    assertThat(second.code()).isEqualTo(200);
+    assertThat(second.body()).isSameAs(first.body());
+    assertThat(server.takeRequest().getHeader("If-None-Match")).isEqualTo("\"v1\"");
+    assertThat(conversions.get()).isEqualTo(1);
+  }
+
+  @Test public void lastModifiedIsSentAsIfModifiedSince() throws IOException,
+      InterruptedException {
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(new ToStringConverterFactory())
+        .validatorCache(10)
+        .build();
+    Service example = retrofit.create(Service.class);
+
+    String lastModified = "Sat, 01 Oct 2016 00:00:00 GMT";
+    server.enqueue(new MockResponse().setHeader("Last-Modified", lastModified).setBody("Hi"));
+    server.enqueue(new MockResponse().setBody("Hey"));
+
+    example.getString().execute();
+    server.takeRequest();
+    Response<String> response = example.getString().execute();
+    assertThat(response.body()).isEqualTo("Hey");
+    RecordedRequest request = server.takeRequest();
+    assertThat(request.getHeader("If-Modified-Since")).isEqualTo(lastModified);
+    assertThat(request.getHeader("If-None-Match")).isNull();
+  }
+
+  @Test public void responseWithoutValidatorsIsForgotten() throws IOException,
+      InterruptedException {
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(new ToStringConverterFactory())
+        .validatorCache(10)
+        .build();
+    Service example = retrofit.create(Service.class);
+
+    server.enqueue(new MockResponse().setHeader("ETag", "\"v1\"").setBody("Hi"));
+    server.enqueue(new MockResponse().setBody("Hey"));
+    server.enqueue(new MockResponse().setBody("Hello"));
+
+    example.getString().execute();
+    example.getString().execute();
+    example.getString().execute();
+    assertThat(server.takeRequest().getHeader("If-None-Match")).isNull();
+    assertThat(server.takeRequest().getHeader("If-None-Match")).isEqualTo("\"v1\"");
+    assertThat(server.takeRequest().getHeader("If-None-Match")).isNull();
+  }
+
+  @Test public void rawBodiesAreNotRemembered() throws IOException, InterruptedException {
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(new ToStringConverterFactory())
+        .validatorCache(10)
+        .build();
+    Service example = retrofit.create(Service.class);
+
+    server.enqueue(new MockResponse().setHeader("ETag", "\"v1\"").setBody("Hi"));
+    server.enqueue(new MockResponse().setHeader("ETag", "\"v1\"").setBody("Hi"));
+
+    example.getBody().execute().body().close();
+    example.getBody().execute().body().close();
+    server.takeRequest();
+    assertThat(server.takeRequest().getHeader("If-None-Match")).isNull();
+  }
+
+  @Test public void validatorCacheSizeMustBePositive() {
+    try {
+      new Retrofit.Builder().validatorCache(0);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasMessage("maxEntries < 1: 0");
+    }
+  }
+
+  @Test public void asyncConversionRunsOnConverterExecutor() throws InterruptedException {
+    final AtomicReference<Thread> conversionThread = new AtomicReference<>();
+    final AtomicReference<Long> queueNanos = new AtomicReference<>();
+    ExecutorService converterExecutor = Executors.newSingleThreadExecutor();
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(new ToStringConverterFactory())
+        .converterExecutor(converterExecutor)
+        .conversionListener(new ConversionListener() {
+          @Override public void onConversion(okhttp3.Request request, long queue, long conversion) {
+            conversionThread.set(Thread.currentThread());
+            queueNanos.set(queue);
+          }
+        })
+        .build();
+    Service example = retrofit.create(Service.class);
+
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    final AtomicReference<Response<String>> responseRef = new AtomicReference<>();
+    final AtomicReference<Thread> callbackThread = new AtomicReference<>();
+    final CountDownLatch latch = new CountDownLatch(1);
+    example.getString().enqueue(new Callback<String>() {
+      @Override public void onResponse(Call<String> call, Response<String> response) {
+        responseRef.set(response);
+        callbackThread.set(Thread.currentThread());
+        latch.countDown();
+      }
+
+      @Override public void onFailure(Call<String> call, Throwable t) {
+        t.printStackTrace();
+      }
+    });
+    assertTrue(latch.await(10, SECONDS));
+    converterExecutor.shutdown();
+
+    assertThat(responseRef.get().body()).isEqualTo("Hi");
+    // No callback executor is set on the JVM, so callbacks run where the body was converted.
+    assertThat(conversionThread.get()).isSameAs(callbackThread.get());
+    assertThat(conversionThread.get().getName()).startsWith("pool-");
+    assertThat(queueNanos.get()).isGreaterThanOrEqualTo(0L);
+  }
+
+  @Test public void syncConversionIsReportedWithoutQueueTime() throws IOException {
+    final List<Long> queueNanos = new ArrayList<>();
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(new ToStringConverterFactory())
+        .conversionListener(new ConversionListener() {
+          @Override public void onConversion(okhttp3.Request request, long queue, long conversion) {
+            assertThat(request.url()).isEqualTo(server.url("/"));
+            assertThat(conversion).isGreaterThanOrEqualTo(0L);
+            queueNanos.add(queue);
+          }
+        })
+        .build();
+    Service example = retrofit.create(Service.class);
+
+    server.enqueue(new MockResponse().setBody("Hi"));
+    server.enqueue(new MockResponse().setResponseCode(404).setBody("Hey"));
+
+    example.getString().execute();
+    example.getString().execute();
+    assertThat(queueNanos).containsExactly(0L);
+  }
+
+  @Test public void rejectedConversionIsFailure() throws InterruptedException {
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(new ToStringConverterFactory())
+        .converterExecutor(new Executor() {
+          @Override public void execute(Runnable command) {
+            throw new RejectedExecutionException("Shut down");
+          }
+        })
+        .build();
+    Service example = retrofit.create(Service.class);
+
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    final AtomicReference<Throwable> failureRef = new AtomicReference<>();
+    final CountDownLatch latch = new CountDownLatch(1);
+    example.getString().enqueue(new Callback<String>() {
+      @Override public void onResponse(Call<String> call, Response<String> response) {
+        throw new AssertionError();
+      }
+
+      @Override public void onFailure(Call<String> call, Throwable t) {
+        failureRef.set(t);
+        latch.countDown();
+      }
+    });
+    assertTrue(latch.await(10, SECONDS));
+    assertThat(failureRef.get()).isInstanceOf(RejectedExecutionException.class);
+  }
+
   @Test public void http404Async() throws InterruptedException, IOException {
     Retrofit retrofit = new Retrofit.Builder()
         .baseUrl(server.url("/"))
@@ -420,6 +674,35 @@ public final class CallTest {
     verifyNoMoreInteractions(converter);
   }
 
+  @Test public void responseBodySourceIsReused() throws IOException {
+    final AtomicReference<BufferedSource> firstSource = new AtomicReference<>();
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(new ToStringConverterFactory() {
+          @Override
+          public Converter<ResponseBody, ?> responseBodyConverter(Type type,
+              Annotation[] annotations, Retrofit retrofit) {
+            return new Converter<ResponseBody, String>() {
+              @Override public String convert(ResponseBody value) throws IOException {
+                BufferedSource source = value.source();
+                firstSource.set(source);
+                String first = source.readUtf8(2);
+                assertThat(value.source()).isSameAs(source);
+                return first + value.source().readUtf8();
+              }
+            };
+          }
+        })
+        .build();
+    Service example = retrofit.create(Service.class);
+
+    server.enqueue(new MockResponse().setBody("Hello!"));
+
+    Response<String> response = example.getString().execute();
+    assertThat(response.body()).isEqualTo("Hello!");
+    assertThat(firstSource.get()).isNotNull();
+  }
+
   @Test public void executeCallOnce() throws IOException {
     Retrofit retrofit = new Retrofit.Builder()
         .baseUrl(server.url("/"))
@@ -529,6 +812,33 @@ public final class CallTest {
     }
   }
 
+  @Test public void errorRawResponseContentTypeAndLengthButNoSource() throws IOException {
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(new ToStringConverterFactory())
+        .build();
+    Service example = retrofit.create(Service.class);
+
+    server.enqueue(new MockResponse()
+        .setResponseCode(404)
+        .setBody("Nope")
+        .addHeader("Content-Type", "text/greeting"));
+
+    Response<String> response = example.getString().execute();
+    assertThat(response.errorBody().string()).isEqualTo("Nope");
+    okhttp3.Response raw = response.raw();
+    assertThat(response.raw()).isSameAs(raw);
+    ResponseBody rawBody = raw.body();
+    assertThat(rawBody.contentLength()).isEqualTo(4);
+    assertThat(rawBody.contentType().toString()).isEqualTo("text/greeting");
+    try {
+      rawBody.source();
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(e).hasMessage("Cannot read raw response body of a converted body.");
+    }
+  }
+
   @Test public void emptyResponse() throws IOException {
     Retrofit retrofit = new Retrofit.Builder()
         .baseUrl(server.url("/"))
@@ -944,4 +1254,19 @@ public final class CallTest {
     }
     assertThat(writeCount.get()).isEqualTo(1);
   }
+
+  private static Converter.Factory countingConverterFactory(final AtomicInteger conversions) {
+    return new Converter.Factory() {
+      @Override public Converter<ResponseBody, ?> responseBodyConverter(Type type,
+          Annotation[] annotations, Retrofit retrofit) {
+        if (type != String.class) return null;
+        return new Converter<ResponseBody, String>() {
+          @Override public String convert(ResponseBody value) throws IOException {
+            conversions.incrementAndGet();
+            return value.string();
+          }
+        };
+      }
+    };
+  }
 }
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2016 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2;
+
+import com.google.common.reflect.TypeToken;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.Test;
+import retrofit2.http.GET;
+import retrofit2.http.Streaming;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static retrofit2.Converter.Factory.getStreamingElementType;
+import static retrofit2.Converter.Factory.getStreamingIteratorType;
+
+public final class ConverterTest {
+  interface Service {
+    @GET("/") Call<String> plain();
+    @GET("/") @Streaming Call<String> streaming();
+  }
+
+  @Test public void streamingElementType() throws NoSuchMethodException {
+    Annotation[] plain = Service.class.getMethod("plain").getAnnotations();
+    Annotation[] streaming = Service.class.getMethod("streaming").getAnnotations();
+
+    Type iterator = new TypeToken<Iterator<String>>() {}.getType();
+    assertThat(getStreamingElementType(iterator, streaming)).isSameAs(String.class);
+    assertThat(getStreamingElementType(iterator, plain)).isNull();
+
+    Type closeable = new TypeToken<CloseableIterator<? extends CharSequence>>() {}.getType();
+    assertThat(getStreamingElementType(closeable, streaming)).isSameAs(CharSequence.class);
+
+    Type list = new TypeToken<List<String>>() {}.getType();
+    assertThat(getStreamingElementType(list, streaming)).isNull();
+    assertThat(getStreamingElementType(String.class, streaming)).isNull();
+  }
+
+  @Test public void streamingIteratorType() throws NoSuchMethodException {
+    Type expected = new TypeToken<CloseableIterator<String>>() {}.getType();
+    Type actual = getStreamingIteratorType(String.class);
+    assertThat(actual).isEqualTo(expected);
+    assertThat(actual.hashCode()).isEqualTo(expected.hashCode());
+    assertThat(actual.toString()).isEqualTo("retrofit2.CloseableIterator<java.lang.String>");
+
+    Annotation[] streaming = Service.class.getMethod("streaming").getAnnotations();
+    assertThat(getStreamingElementType(actual, streaming)).isSameAs(String.class);
+  }
+}
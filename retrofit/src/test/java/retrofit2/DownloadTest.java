@@ -0,0 +1,431 @@
+/*
+ * Copyright (C) 2016 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.Okio;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import retrofit2.http.GET;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public final class DownloadTest {
+  @Rule public final MockWebServer server = new MockWebServer();
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  interface Service {
+    @GET("/") Download download();
+  }
+
+  private Service service;
+  private File file;
+
+  @Before public void setUp() throws IOException {
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .build();
+    service = retrofit.create(Service.class);
+    file = new File(temporaryFolder.getRoot(), "download");
+  }
+
+  @Test public void downloadToNewFile() throws IOException, InterruptedException {
+    server.enqueue(new MockResponse().setBody("Hello, World!"));
+
+    Response<File> response = service.download().execute(file);
+    assertThat(response.isSuccessful()).isTrue();
+    assertThat(response.body()).isSameAs(file);
+    assertThat(read(file)).isEqualTo("Hello, World!");
+    assertThat(server.takeRequest().getHeader("Range")).isNull();
+  }
+
+  @Test public void resumeAppendsPartialContent() throws IOException, InterruptedException {
+    write(file, "Hello, ");
+    server.enqueue(new MockResponse()
+        .setResponseCode(206)
+        .setHeader("Content-Range", "bytes 7-12/13")
+        .setBody("World!"));
+
+    Response<File> response = service.download()
+        .syncPolicy(Download.SyncPolicy.every(1))
+        .execute(file);
+    assertThat(response.code()).isEqualTo(206);
+    assertThat(read(file)).isEqualTo("Hello, World!");
+    assertThat(server.takeRequest().getHeader("Range")).isEqualTo("bytes=7-");
+  }
+
+  @Test public void resumeIgnoredByServerOverwrites() throws IOException {
+    write(file, "Stale");
+    server.enqueue(new MockResponse().setBody("Hello, World!"));
+
+    service.download().execute(file);
+    assertThat(read(file)).isEqualTo("Hello, World!");
+  }
+
+  @Test public void resumeWithUnexpectedContentRangeFails() throws IOException {
+    write(file, "Hello, ");
+    server.enqueue(new MockResponse()
+        .setResponseCode(206)
+        .setHeader("Content-Range", "bytes 0-12/13")
+        .setBody("Hello, World!"));
+
+    try {
+      service.download().execute(file);
+      fail();
+    } catch (ProtocolException e) {
+      assertThat(e).hasMessage("Requested range from 7 but Content-Range was bytes 0-12/13");
+    }
+    assertThat(read(file)).isEqualTo("Hello, ");
+  }
+
+  @Test public void unsatisfiableRangeForCompleteFileSucceeds() throws IOException {
+    write(file, "Hello, World!");
+    server.enqueue(new MockResponse()
+        .setResponseCode(416)
+        .setHeader("Content-Range", "bytes */13"));
+
+    Response<File> response = service.download().execute(file);
+    assertThat(response.isSuccessful()).isTrue();
+    assertThat(read(file)).isEqualTo("Hello, World!");
+  }
+
+  @Test public void httpErrorLeavesFileUnmodified() throws IOException {
+    write(file, "Hello, ");
+    server.enqueue(new MockResponse().setResponseCode(404).setBody("Not found"));
+
+    Response<File> response = service.download().execute(file);
+    assertThat(response.isSuccessful()).isFalse();
+    assertThat(response.errorBody().string()).isEqualTo("Not found");
+    assertThat(read(file)).isEqualTo("Hello, ");
+  }
+
+  @Test public void errorBodyRespectsBufferLimit() throws IOException {
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .errorBodyBufferLimit(3)
+        .build();
+    Service service = retrofit.create(Service.class);
+    server.enqueue(new MockResponse().setResponseCode(404).setBody("Not found"));
+
+    Response<File> response = service.download().execute(file);
+    assertThat(response.isErrorBodyTruncated()).isTrue();
+    assertThat(response.errorBody().string()).isEqualTo("Not");
+  }
+
+  @Test public void lazyErrorBodyIsReadFromConnection() throws IOException {
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .errorBodyBufferLimit(3)
+        .lazyErrorBodies(true)
+        .build();
+    Service service = retrofit.create(Service.class);
+    server.enqueue(new MockResponse().setResponseCode(404).setBody("Not found"));
+
+    Response<File> response = service.download().execute(file);
+    assertThat(response.isErrorBodyTruncated()).isFalse();
+    assertThat(response.errorBody().string()).isEqualTo("Not found");
+  }
+
+  @Test public void protocolErrorIsNotRetried() throws IOException {
+    write(file, "Hello, ");
+    server.setDispatcher(new Dispatcher() {
+      @Override public MockResponse dispatch(RecordedRequest request) {
+        return new MockResponse()
+            .setResponseCode(206)
+            .setHeader("Content-Range", "bytes 3-12/13")
+            .setBody("lo, World!");
+      }
+    });
+
+    try {
+      service.download().retries(3).execute(file);
+      fail();
+    } catch (ProtocolException e) {
+      assertThat(e).hasMessage("Requested range from 7 but Content-Range was bytes 3-12/13");
+    }
+    assertThat(server.getRequestCount()).isEqualTo(1);
+    assertThat(read(file)).isEqualTo("Hello, ");
+  }
+
+  @Test public void interruptedDownloadCanBeResumed() throws IOException, InterruptedException {
+    server.enqueue(new MockResponse()
+        .setBody("Hello, World!")
+        .setSocketPolicy(SocketPolicy.DISCONNECT_DURING_RESPONSE_BODY));
+    try {
+      service.download().execute(file);
+      fail();
+    } catch (IOException expected) {
+    }
+    long written = file.length();
+    assertThat(written).isLessThan(13);
+
+    server.enqueue(new MockResponse()
+        .setResponseCode(206)
+        .setHeader("Content-Range", "bytes " + written + "-12/13")
+        .setBody("Hello, World!".substring((int) written)));
+    service.download().execute(file);
+
+    assertThat(read(file)).isEqualTo("Hello, World!");
+    server.takeRequest();
+    RecordedRequest resumed = server.takeRequest();
+    assertThat(resumed.getHeader("Range")).isEqualTo("bytes=" + written + "-");
+  }
+
+  @Test public void executeTwiceThrows() throws IOException {
+    server.enqueue(new MockResponse().setBody("Hi"));
+    Download download = service.download();
+    download.execute(file);
+    try {
+      download.execute(file);
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(e).hasMessage("Already executed.");
+    }
+  }
+
+  @Test public void retriesResumeInterruptedDownload() throws IOException {
+    server.setDispatcher(new RangeDispatcher("Hello, World!") {
+      private boolean failed;
+
+      @Override public MockResponse dispatch(RecordedRequest request) {
+        if (failed) return super.dispatch(request);
+        failed = true;
+        return new MockResponse()
+            .setBody("Hello, World!")
+            .setSocketPolicy(SocketPolicy.DISCONNECT_DURING_RESPONSE_BODY);
+      }
+    });
+
+    service.download().retries(1).execute(file);
+    assertThat(read(file)).isEqualTo("Hello, World!");
+  }
+
+  @Test public void segmentedDownload() throws IOException {
+    String resource = resource(1000);
+    RangeDispatcher dispatcher = new RangeDispatcher(resource);
+    server.setDispatcher(dispatcher);
+    write(file, "Stale content which is longer than the resource itself." + resource);
+
+    Response<File> response = service.download().segments(4).execute(file);
+    assertThat(response.isSuccessful()).isTrue();
+    assertThat(read(file)).isEqualTo(resource);
+    assertThat(dispatcher.ranges).containsOnly(
+        "bytes=0-0", "bytes=0-249", "bytes=250-499", "bytes=500-749", "bytes=750-999");
+  }
+
+  @Test public void segmentedDownloadWithoutRangeSupport() throws IOException {
+    server.enqueue(new MockResponse().setBody("Hello, World!"));
+
+    Response<File> response = service.download().segments(4).execute(file);
+    assertThat(response.code()).isEqualTo(200);
+    assertThat(read(file)).isEqualTo("Hello, World!");
+  }
+
+  @Test public void failedSegmentIsRetried() throws IOException {
+    String resource = resource(1000);
+    RangeDispatcher dispatcher = new RangeDispatcher(resource) {
+      private boolean failed;
+
+      @Override public synchronized MockResponse dispatch(RecordedRequest request) {
+        MockResponse response = super.dispatch(request);
+        if (!failed && "bytes=500-999".equals(request.getHeader("Range"))) {
+          failed = true;
+          response.setSocketPolicy(SocketPolicy.DISCONNECT_DURING_RESPONSE_BODY);
+        }
+        return response;
+      }
+    };
+    server.setDispatcher(dispatcher);
+
+    service.download().segments(2).retries(1).execute(file);
+    assertThat(read(file)).isEqualTo(resource);
+    assertThat(dispatcher.ranges).hasSize(4);
+  }
+
+  @Test public void failedSegmentWithoutRetriesFails() {
+    server.setDispatcher(new RangeDispatcher(resource(1000)) {
+      @Override public MockResponse dispatch(RecordedRequest request) {
+        MockResponse response = super.dispatch(request);
+        if ("bytes=500-999".equals(request.getHeader("Range"))) {
+          response.setResponseCode(503);
+        }
+        return response;
+      }
+    });
+
+    try {
+      service.download().segments(2).execute(file);
+      fail();
+    } catch (IOException e) {
+      assertThat(e).hasMessage("Expected HTTP 206 for range 500-999 but was 503");
+    }
+  }
+
+  @Test public void failedSegmentWithServerErrorIsRetried() throws IOException {
+    final AtomicInteger failures = new AtomicInteger();
+    server.setDispatcher(new RangeDispatcher(resource(1000)) {
+      @Override public MockResponse dispatch(RecordedRequest request) {
+        MockResponse response = super.dispatch(request);
+        if ("bytes=500-999".equals(request.getHeader("Range"))
+            && failures.getAndIncrement() == 0) {
+          response.setResponseCode(503);
+        }
+        return response;
+      }
+    });
+
+    service.download().segments(2).retries(1).execute(file);
+    assertThat(read(file)).isEqualTo(resource(1000));
+    assertThat(failures.get()).isEqualTo(2);
+  }
+
+  @Test public void segmentWithFullResponseIsNotRetried() {
+    assertSegmentResponseCodeIsNotRetried(200);
+  }
+
+  @Test public void segmentWithClientErrorIsNotRetried() {
+    assertSegmentResponseCodeIsNotRetried(404);
+  }
+
+  private void assertSegmentResponseCodeIsNotRetried(final int code) {
+    final AtomicInteger failures = new AtomicInteger();
+    server.setDispatcher(new RangeDispatcher(resource(1000)) {
+      @Override public MockResponse dispatch(RecordedRequest request) {
+        MockResponse response = super.dispatch(request);
+        if ("bytes=500-999".equals(request.getHeader("Range"))) {
+          failures.incrementAndGet();
+          response.setResponseCode(code);
+        }
+        return response;
+      }
+    });
+
+    try {
+      service.download().segments(2).retries(3).execute(file);
+      fail();
+    } catch (IOException e) {
+      assertThat(e).isInstanceOf(ProtocolException.class)
+          .hasMessage("Expected HTTP 206 for range 500-999 but was " + code);
+    }
+    // The other segment may still be in flight, so only count the failing one.
+    assertThat(failures.get()).isEqualTo(1);
+  }
+
+  @Test public void segmentProtocolErrorIsNotRetried() {
+    final AtomicInteger mismatches = new AtomicInteger();
+    RangeDispatcher dispatcher = new RangeDispatcher(resource(1000)) {
+      @Override public MockResponse dispatch(RecordedRequest request) {
+        MockResponse response = super.dispatch(request);
+        if ("bytes=500-999".equals(request.getHeader("Range"))) {
+          mismatches.incrementAndGet();
+          response.setHeader("Content-Range", "bytes 400-999/1000");
+        }
+        return response;
+      }
+    };
+    server.setDispatcher(dispatcher);
+
+    try {
+      service.download().segments(2).retries(3).execute(file);
+      fail();
+    } catch (IOException e) {
+      assertThat(e).isInstanceOf(ProtocolException.class)
+          .hasMessage("Requested range from 500 but Content-Range was bytes 400-999/1000");
+    }
+    // The other segment may still be in flight, so only count the failing one.
+    assertThat(mismatches.get()).isEqualTo(1);
+  }
+
+  @Test public void segmentCountMustBePositive() {
+    try {
+      service.download().segments(0);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasMessage("count < 1: 0");
+    }
+  }
+
+  private static String resource(int length) {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < length; i++) {
+      builder.append((char) ('a' + i % 26));
+    }
+    return builder.toString();
+  }
+
+  /** Serves byte ranges of a resource and records which were requested. */
+  static class RangeDispatcher extends Dispatcher {
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-(\\d*)");
+
+    final List<String> ranges = Collections.synchronizedList(new ArrayList<String>());
+    private final String resource;
+
+    RangeDispatcher(String resource) {
+      this.resource = resource;
+    }
+
+    @Override public MockResponse dispatch(RecordedRequest request) {
+      String range = request.getHeader("Range");
+      if (range == null) {
+        return new MockResponse().setBody(resource);
+      }
+      ranges.add(range);
+      Matcher matcher = RANGE.matcher(range);
+      assertThat(matcher.matches()).isTrue();
+      int start = Integer.parseInt(matcher.group(1));
+      int end = matcher.group(2).isEmpty()
+          ? resource.length() - 1
+          : Integer.parseInt(matcher.group(2));
+      return new MockResponse()
+          .setResponseCode(206)
+          .setHeader("Content-Range", "bytes " + start + "-" + end + "/" + resource.length())
+          .setBody(resource.substring(start, end + 1));
+    }
+  }
+
+  private static void write(File file, String content) throws IOException {
+    BufferedSink sink = Okio.buffer(Okio.sink(file));
+    sink.writeUtf8(content);
+    sink.close();
+  }
+
+  private static String read(File file) throws IOException {
+    BufferedSource source = Okio.buffer(Okio.source(file));
+    try {
+      return source.readUtf8();
+    } finally {
+      source.close();
+    }
+  }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2012 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package retrofit2;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import retrofit2.http.GET;
+import retrofit2.http.Streaming;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public final class LazyConversionTest {
+  @Rule public final MockWebServer server = new MockWebServer();
+
+  interface Service {
+    @GET("/") Call<String> string();
+    @Streaming @GET("/") Call<String> streaming();
+  }
+
+  private final AtomicInteger conversions = new AtomicInteger();
+  private Retrofit.Builder builder;
+
+  @Before public void setUp() {
+    builder = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(new CountingConverterFactory())
+        .lazyConversion(true);
+  }
+
+  @Test public void bodyIsConvertedOnFirstAccess() throws IOException {
+    Service service = builder.build().create(Service.class);
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    Response<String> response = service.string().execute();
+    assertThat(response.code()).isEqualTo(200);
+    assertThat(conversions.get()).isEqualTo(0);
+
+    String body = response.body();
+    assertThat(body).isEqualTo("Hi");
+    assertThat(conversions.get()).isEqualTo(1);
+    assertThat(response.body()).isSameAs(body);
+    assertThat(conversions.get()).isEqualTo(1);
+  }
+
+  @Test public void unaccessedBodyIsNeverConverted() throws IOException {
+    Service service = builder.build().create(Service.class);
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    Response<String> response = service.string().execute();
+    assertThat(response.isSuccessful()).isTrue();
+    assertThat(conversions.get()).isEqualTo(0);
+  }
+
+  @Test public void eagerByDefault() throws IOException {
+    Service service = builder.lazyConversion(false).build().create(Service.class);
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    service.string().execute();
+    assertThat(conversions.get()).isEqualTo(1);
+  }
+
+  @Test public void streamingBodyIsConvertedEagerly() throws IOException {
+    Service service = builder.build().create(Service.class);
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    Response<String> response = service.streaming().execute();
+    assertThat(conversions.get()).isEqualTo(1);
+    assertThat(response.body()).isEqualTo("Hi");
+  }
+
+  @Test public void converterIoExceptionIsThrownFromBody() throws IOException {
+    Service service = builder.build().create(Service.class);
+    server.enqueue(new MockResponse().setBody("io"));
+
+    Response<String> response = service.string().execute();
+    ConversionException failure = null;
+    try {
+      response.body();
+      fail();
+    } catch (ConversionException e) {
+      assertThat(e).hasMessage("Unable to convert response body");
+      assertThat(e.getCause()).isInstanceOf(IOException.class).hasMessage("Broken!");
+      failure = e;
+    }
+    try {
+      response.body();
+      fail();
+    } catch (ConversionException e) {
+      assertThat(e).isSameAs(failure);
+    }
+    assertThat(conversions.get()).isEqualTo(1);
+  }
+
+  @Test public void converterRuntimeExceptionIsRethrown() throws IOException {
+    Service service = builder.build().create(Service.class);
+    server.enqueue(new MockResponse().setBody("runtime"));
+
+    Response<String> response = service.string().execute();
+    try {
+      response.body();
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(e).hasMessage("Broken!");
+    }
+  }
+
+  @Test public void errorBodyIsUnaffected() throws IOException {
+    Service service = builder.build().create(Service.class);
+    server.enqueue(new MockResponse().setResponseCode(404).setBody("Nope"));
+
+    Response<String> response = service.string().execute();
+    assertThat(response.body()).isNull();
+    assertThat(response.errorBody().string()).isEqualTo("Nope");
+    assertThat(conversions.get()).isEqualTo(0);
+  }
+
+  @Test public void converterExecutorIsBypassed() throws InterruptedException {
+    Service service = builder
+        .converterExecutor(new Executor() {
+          @Override public void execute(Runnable command) {
+            throw new AssertionError();
+          }
+        })
+        .build()
+        .create(Service.class);
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    final AtomicReference<Response<String>> responseRef = new AtomicReference<>();
+    final CountDownLatch latch = new CountDownLatch(1);
+    service.string().enqueue(new Callback<String>() {
+      @Override public void onResponse(Call<String> call, Response<String> response) {
+        responseRef.set(response);
+        latch.countDown();
+      }
+
+      @Override public void onFailure(Call<String> call, Throwable t) {
+        t.printStackTrace();
+      }
+    });
+    assertTrue(latch.await(10, SECONDS));
+
+    assertThat(conversions.get()).isEqualTo(0);
+    assertThat(responseRef.get().body()).isEqualTo("Hi");
+  }
+
+  @Test public void validatorsAreRememberedOnConversion() throws IOException, InterruptedException {
+    Service service = builder.validatorCache(10).build().create(Service.class);
+    server.enqueue(new MockResponse().setHeader("ETag", "\"v1\"").setBody("Hi"));
+    server.enqueue(new MockResponse().setHeader("ETag", "\"v1\"").setBody("Hi"));
+    server.enqueue(new MockResponse().setResponseCode(304));
+
+    // Unconverted bodies are not remembered.
+    service.string().execute();
+    assertThat(service.string().execute().body()).isEqualTo("Hi");
+    Response<String> notModified = service.string().execute();
+    assertThat(notModified.body()).isEqualTo("Hi");
+
+    assertThat(server.takeRequest().getHeader("If-None-Match")).isNull();
+    assertThat(server.takeRequest().getHeader("If-None-Match")).isNull();
+    RecordedRequest conditional = server.takeRequest();
+    assertThat(conditional.getHeader("If-None-Match")).isEqualTo("\"v1\"");
+    assertThat(conversions.get()).isEqualTo(1);
+  }
+
+  @Test public void lazyConversionIsExposed() {
+    assertThat(builder.build().lazyConversion()).isTrue();
+    assertThat(builder.lazyConversion(false).build().lazyConversion()).isFalse();
+  }
+
+  @Test public void cannotCombineWithBufferBudget() {
+    builder.bufferBudget(BufferBudget.create(1024));
+    try {
+      builder.build();
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(e).hasMessage(
+          "Lazy conversion cannot be combined with a buffer budget or spilling to disk.");
+    }
+  }
+
+  @Test public void cannotCombineWithSpillToDisk() {
+    builder.spillToDisk(1024, new File("spill"));
+    try {
+      builder.build();
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(e).hasMessage(
+          "Lazy conversion cannot be combined with a buffer budget or spilling to disk.");
+    }
+  }
+
+  /** Converts bodies to strings, counting conversions. "io" and "runtime" bodies fail. */
+  final class CountingConverterFactory extends Converter.Factory {
+    @Override
+    public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations,
+        Retrofit retrofit) {
+      if (type != String.class) return null;
+      return new Converter<ResponseBody, String>() {
+        @Override public String convert(ResponseBody value) throws IOException {
+          conversions.incrementAndGet();
+          String body = value.string();
+          if (body.equals("io")) throw new IOException("Broken!");
+          if (body.equals("runtime")) throw new IllegalStateException("Broken!");
+          return body;
+        }
+      };
+    }
+  }
+}
@@ -26,6 +26,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.Inflater;
 import okhttp3.HttpUrl;
 import okhttp3.MediaType;
 import okhttp3.MultipartBody;
@@ -33,10 +34,14 @@ import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.ResponseBody;
 import okio.Buffer;
+import okio.GzipSource;
+import okio.InflaterSource;
+import okio.Okio;
 import org.junit.Ignore;
 import org.junit.Test;
 import retrofit2.helpers.ToStringConverterFactory;
 import retrofit2.http.Body;
+import retrofit2.http.Compress;
 import retrofit2.http.DELETE;
 import retrofit2.http.Field;
 import retrofit2.http.FieldMap;
@@ -1464,6 +1469,74 @@ public final class RequestBuilderTest {
     }
   }
 
+  @Test public void compressedBodyGzip() throws IOException {
+    class Example {
+      @Compress(minimumSize = 0) //
+      @POST("/foo/bar/") //
+      Call<ResponseBody> method(@Body RequestBody body) {
+        return null;
+      }
+    }
+    RequestBody body = RequestBody.create(TEXT_PLAIN, "hi");
+    Request request = buildRequest(Example.class, body);
+    assertThat(request.header("Content-Encoding")).isEqualTo("gzip");
+    assertThat(request.body().contentType()).isEqualTo(body.contentType());
+    assertThat(request.body().contentLength()).isEqualTo(-1);
+
+    Buffer compressed = new Buffer();
+    request.body().writeTo(compressed);
+    assertThat(Okio.buffer(new GzipSource(compressed)).readUtf8()).isEqualTo("hi");
+  }
+
+  @Test public void compressedBodyDeflate() throws IOException {
+    class Example {
+      @Compress(value = Compress.Encoding.DEFLATE, minimumSize = 0) //
+      @POST("/foo/bar/") //
+      Call<ResponseBody> method(@Body RequestBody body) {
+        return null;
+      }
+    }
+    RequestBody body = RequestBody.create(TEXT_PLAIN, "hi");
+    Request request = buildRequest(Example.class, body);
+    assertThat(request.header("Content-Encoding")).isEqualTo("deflate");
+
+    Buffer compressed = new Buffer();
+    request.body().writeTo(compressed);
+    InflaterSource inflated = new InflaterSource(compressed, new Inflater());
+    assertThat(Okio.buffer(inflated).readUtf8()).isEqualTo("hi");
+  }
+
+  @Test public void compressedBodyBelowMinimumSizeIsNotCompressed() {
+    class Example {
+      @Compress //
+      @POST("/foo/bar/") //
+      Call<ResponseBody> method(@Body RequestBody body) {
+        return null;
+      }
+    }
+    RequestBody body = RequestBody.create(TEXT_PLAIN, "hi");
+    Request request = buildRequest(Example.class, body);
+    assertThat(request.headers().size()).isZero();
+    assertBody(request.body(), "hi");
+  }
+
+  @Test public void compressFailsOnNonBodyMethod() {
+    class Example {
+      @Compress //
+      @GET("/") //
+      Call<ResponseBody> method() {
+        return null;
+      }
+    }
+    try {
+      buildRequest(Example.class);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasMessage(
+          "Compress can only be specified on HTTP methods with request body (e.g., @POST).\n    for method Example.method");
+    }
+  }
+
   @Test public void bodyWithPathParams() {
     class Example {
       @POST("/foo/bar/{ping}/{kit}/") //
@@ -324,6 +324,7 @@ public final class RetrofitTest {
       assertThat(e.getCause()).hasMessage(""
           + "Could not locate call adapter for java.util.concurrent.Future<java.lang.String>.\n"
           + "  Tried:\n"
+          + "   * retrofit2.DownloadCallAdapterFactory\n"
           + "   * retrofit2.DefaultCallAdapterFactory");
     }
   }
@@ -827,6 +828,7 @@ public final class RetrofitTest {
     assertThat(actualAdapter).isSameAs(expectedAdapter);
 
     verify(factory).requestBodyConverter(type, parameterAnnotations, methodAnnotations, retrofit);
+    verify(factory).isCacheable();
     verifyNoMoreInteractions(factory);
   }
 
@@ -903,6 +905,7 @@ public final class RetrofitTest {
     assertThat(actualAdapter).isSameAs(expectedAdapter);
 
     verify(factory).responseBodyConverter(type, annotations, retrofit);
+    verify(factory).isCacheable();
     verifyNoMoreInteractions(factory);
   }
 
@@ -979,6 +982,7 @@ public final class RetrofitTest {
     assertThat(actualAdapter).isSameAs(expectedAdapter);
 
     verify(factory).stringConverter(type, annotations, retrofit);
+    verify(factory).isCacheable();
     verifyNoMoreInteractions(factory);
   }
 
@@ -1034,6 +1038,7 @@ public final class RetrofitTest {
     assertThat(actualAdapter).isSameAs(expectedAdapter);
 
     verify(factory).get(type, annotations, retrofit);
+    verify(factory).isCacheable();
     verifyNoMoreInteractions(factory);
   }
 
@@ -1062,8 +1067,10 @@ public final class RetrofitTest {
     assertThat(actualAdapter).isSameAs(expectedAdapter);
 
     verify(factory1).get(type, annotations, retrofit);
+    verify(factory1).isCacheable();
     verifyNoMoreInteractions(factory1);
     verify(factory2).get(type, annotations, retrofit);
+    verify(factory2).isCacheable();
     verifyNoMoreInteractions(factory2);
   }
 
@@ -1099,13 +1106,98 @@ public final class RetrofitTest {
     assertThat(actualAdapter).isSameAs(expectedAdapter);
 
     verify(factory1).get(type, annotations, retrofit);
+    verify(factory1).isCacheable();
     verifyNoMoreInteractions(factory1);
     verify(factory2).get(type, annotations, retrofit);
+    verify(factory2).isCacheable();
     verifyNoMoreInteractions(factory2);
     verify(factory3).get(type, annotations, retrofit);
+    verify(factory3).isCacheable();
     verifyNoMoreInteractions(factory3);
   }
 
+  @Test public void cacheableFactoryResultsAreReusedAcrossMethods() {
+    final AtomicInteger lookups = new AtomicInteger();
+    Converter.Factory factory = new Converter.Factory() {
+      @Override public Converter<ResponseBody, ?> responseBodyConverter(Type type,
+          Annotation[] annotations, Retrofit retrofit) {
+        lookups.incrementAndGet();
+        return new ToStringConverterFactory().responseBodyConverter(type, annotations, retrofit);
+      }
+
+      @Override public boolean isCacheable() {
+        return true;
+      }
+    };
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl("http://example.com/")
+        .addConverterFactory(factory)
+        .build();
+
+    class ExampleA {
+      @GET("/a") void method() {}
+    }
+    class ExampleB {
+      @POST("/b") void method() {}
+    }
+    Annotation[] a = TestingUtils.onlyMethod(ExampleA.class).getAnnotations();
+    Annotation[] b = TestingUtils.onlyMethod(ExampleB.class).getAnnotations();
+
+    Converter<ResponseBody, ?> first = retrofit.responseBodyConverter(String.class, a);
+    Converter<ResponseBody, ?> second = retrofit.responseBodyConverter(String.class, b);
+    assertThat(second).isSameAs(first);
+    assertThat(lookups.get()).isEqualTo(1);
+  }
+
+  @Test public void nonCacheableFactoryIsQueriedEveryTime() {
+    final AtomicInteger lookups = new AtomicInteger();
+    Converter.Factory factory = new Converter.Factory() {
+      @Override public Converter<ResponseBody, ?> responseBodyConverter(Type type,
+          Annotation[] annotations, Retrofit retrofit) {
+        lookups.incrementAndGet();
+        return new ToStringConverterFactory().responseBodyConverter(type, annotations, retrofit);
+      }
+    };
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl("http://example.com/")
+        .addConverterFactory(factory)
+        .build();
+
+    retrofit.responseBodyConverter(String.class, new Annotation[0]);
+    retrofit.responseBodyConverter(String.class, new Annotation[0]);
+    assertThat(lookups.get()).isEqualTo(2);
+  }
+
+  @Test public void cacheableMissIsRemembered() {
+    final AtomicInteger lookups = new AtomicInteger();
+    CallAdapter.Factory factory = new CallAdapter.Factory() {
+      @Override public CallAdapter<?> get(Type returnType, Annotation[] annotations,
+          Retrofit retrofit) {
+        lookups.incrementAndGet();
+        return null;
+      }
+
+      @Override public boolean isCacheable() {
+        return true;
+      }
+    };
+    Retrofit retrofit = new Retrofit.Builder()
+        .baseUrl("http://example.com/")
+        .addCallAdapterFactory(factory)
+        .build();
+
+    for (int i = 0; i < 2; i++) {
+      try {
+        retrofit.callAdapter(String.class, new Annotation[0]);
+        fail();
+      } catch (IllegalArgumentException e) {
+        assertThat(e).hasMessageStartingWith(
+            "Could not locate call adapter for class java.lang.String.\n");
+      }
+    }
+    assertThat(lookups.get()).isEqualTo(1);
+  }
+
   @Test public void callAdapterFactoryNoMatchThrows() {
     Type type = String.class;
     Annotation[] annotations = new Annotation[0];
@@ -1125,6 +1217,7 @@ public final class RetrofitTest {
           + "Could not locate call adapter for class java.lang.String.\n"
           + "  Tried:\n"
           + "   * retrofit2.helpers.NonMatchingCallAdapterFactory\n"
+          + "   * retrofit2.DownloadCallAdapterFactory\n"
           + "   * retrofit2.DefaultCallAdapterFactory");
     }
 
@@ -1157,6 +1250,7 @@ public final class RetrofitTest {
           + "   * retrofit2.helpers.DelegatingCallAdapterFactory\n"
           + "  Tried:\n"
           + "   * retrofit2.helpers.NonMatchingCallAdapterFactory\n"
+          + "   * retrofit2.DownloadCallAdapterFactory\n"
           + "   * retrofit2.DefaultCallAdapterFactory");
     }
 